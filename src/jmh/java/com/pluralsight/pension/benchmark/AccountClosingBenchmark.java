@@ -0,0 +1,64 @@
+package com.pluralsight.pension.benchmark;
+
+import com.pluralsight.pension.Account;
+import com.pluralsight.pension.withdrawal.AccountClosingResponse;
+import com.pluralsight.pension.withdrawal.AccountClosingService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.time.Clock;
+import java.time.LocalDate;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class AccountClosingBenchmark {
+
+    @Param({"0", "100"})
+    public long latencyMicros;
+
+    private AccountClosingService accountClosingService;
+    private Account retiredAccount;
+    private Account youngAccount;
+
+    @Setup
+    public void setUp() {
+        accountClosingService = new AccountClosingService(
+                StubDependencies.backgroundCheckService(latencyMicros), Clock.systemDefaultZone());
+        retiredAccount = account(LocalDate.now().minusYears(70));
+        youngAccount = account(LocalDate.now().minusYears(30));
+    }
+
+    @Benchmark
+    public AccountClosingResponse closeRetiredAccount() throws IOException {
+        return accountClosingService.closeAccount(retiredAccount);
+    }
+
+    @Benchmark
+    public AccountClosingResponse denyYoungAccount() throws IOException {
+        return accountClosingService.closeAccount(youngAccount);
+    }
+
+    private static Account account(LocalDate dob) {
+        Account account = new Account();
+        account.setFistName("John");
+        account.setLastName("Smith");
+        account.setTaxId("123xyz9");
+        account.setDob(dob);
+        return account;
+    }
+}
@@ -0,0 +1,62 @@
+package com.pluralsight.pension.benchmark;
+
+import com.pluralsight.pension.Account;
+import com.pluralsight.pension.CompactAccountStore;
+import org.openjdk.jol.info.GraphLayout;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Currency;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+
+// Measures retained heap per resident account, as plain Account objects and in CompactAccountStore, by walking
+// the reachable object graph with JOL. Names come from a realistic small pool but, as when parsed from input,
+// every plain account holds its own String instances. Usage: [accountCount], default 200000.
+public class AccountFootprint {
+
+    private static final String[] FIRST_NAMES = {"James", "Mary", "John", "Patricia", "Robert", "Jennifer",
+            "Michael", "Linda", "William", "Elizabeth", "David", "Barbara", "Richard", "Susan", "Joseph", "Jessica"};
+    private static final String[] LAST_NAMES = {"Smith", "Johnson", "Williams", "Brown", "Jones", "Garcia",
+            "Miller", "Davis", "Rodriguez", "Martinez", "Hernandez", "Lopez", "Gonzalez", "Wilson", "Anderson"};
+    private static final Currency USD = Currency.getInstance("USD");
+
+    public static void main(String[] args) {
+        final int count = args.length > 0 ? Integer.parseInt(args[0]) : 200_000;
+        final Random random = new Random(42);
+        final List<Account> accounts = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            accounts.add(account(i, random));
+        }
+        final CompactAccountStore store = new CompactAccountStore();
+        for (int i = 0; i < count; i++) {
+            store.add(account(i, new Random(i)));
+        }
+
+        final long plainBytes = GraphLayout.parseInstance(accounts).totalSize();
+        final long compactBytes = GraphLayout.parseInstance(store).totalSize();
+        System.out.printf("accounts:            %d%n", count);
+        System.out.printf("Account objects:     %.1f bytes/account%n", (double) plainBytes / count);
+        System.out.printf("CompactAccountStore: %.1f bytes/account%n", (double) compactBytes / count);
+        System.out.printf("reduction:           %.1fx%n", (double) plainBytes / compactBytes);
+    }
+
+    private static Account account(int i, Random random) {
+        final Account account = new Account();
+        final LocalDate dob = LocalDate.of(1950, 1, 1).plusDays(random.nextInt(20_000));
+        account.setId(new String("ACC" + (10_000_000 + i)));
+        account.setFistName(new String(FIRST_NAMES[random.nextInt(FIRST_NAMES.length)]));
+        account.setLastName(new String(LAST_NAMES[random.nextInt(LAST_NAMES.length)]));
+        account.setTaxId(new String("TX" + (100_000_000 + random.nextInt(900_000_000))));
+        account.setDob(dob);
+        account.setExpectedRetirement(dob.plusYears(65));
+        account.setOpeningDate(LocalDate.of(2015, 1, 1).plusDays(random.nextInt(2_000)));
+        account.setCcy(USD);
+        account.setAvailableCash(BigDecimal.valueOf(random.nextInt(10_000_000), 2));
+        account.setTotalInvestmentValue(BigDecimal.valueOf(random.nextInt(50_000_000), 2));
+        account.setInvestments(new HashSet<>());
+        return account;
+    }
+}
@@ -0,0 +1,49 @@
+package com.pluralsight.pension.benchmark;
+
+import com.pluralsight.pension.setup.AccountOpeningService;
+import com.pluralsight.pension.setup.AccountOpeningStatus;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.time.LocalDate;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class AccountOpeningBenchmark {
+
+    private static final LocalDate DOB = LocalDate.of(1990, 1, 1);
+
+    @Param({"0", "100"})
+    public long latencyMicros;
+
+    private AccountOpeningService accountOpeningService;
+
+    @Setup
+    public void setUp() {
+        accountOpeningService = new AccountOpeningService(
+                StubDependencies.backgroundCheckService(latencyMicros),
+                StubDependencies.referenceIdsManager(latencyMicros),
+                StubDependencies.accountRepository(latencyMicros),
+                StubDependencies.eventPublisher());
+    }
+
+    @Benchmark
+    public AccountOpeningStatus openAccount() throws IOException {
+        return accountOpeningService.openAccount("John", "Smith", "123xyz9", DOB);
+    }
+}
@@ -0,0 +1,47 @@
+package com.pluralsight.pension.benchmark;
+
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.results.format.ResultFormatType;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.options.CommandLineOptions;
+import org.openjdk.jmh.runner.options.ChainedOptionsBuilder;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+// Runs the benchmarks once per thread count with the GC profiler on and writes one JSON result per run to
+// target/, so results can be diffed between builds. Accepts --threads=1,4,16 plus any regular JMH options.
+public class BenchmarkRunner {
+
+    private static final int[] DEFAULT_THREAD_COUNTS = {1, 4, 16};
+
+    public static void main(String[] args) throws Exception {
+        int[] threadCounts = DEFAULT_THREAD_COUNTS;
+        final List<String> jmhArgs = new ArrayList<>();
+        for (String arg : args) {
+            if (arg.startsWith("--threads=")) {
+                threadCounts = Arrays.stream(arg.substring("--threads=".length()).split(","))
+                        .mapToInt(Integer::parseInt)
+                        .toArray();
+            } else {
+                jmhArgs.add(arg);
+            }
+        }
+        final CommandLineOptions commandLine = new CommandLineOptions(jmhArgs.toArray(new String[0]));
+
+        for (int threads : threadCounts) {
+            final ChainedOptionsBuilder options = new OptionsBuilder()
+                    .parent(commandLine)
+                    .threads(threads)
+                    .addProfiler(GCProfiler.class)
+                    .resultFormat(ResultFormatType.JSON)
+                    .result("target/jmh-result-" + threads + "-threads.json");
+            if (commandLine.getIncludes().isEmpty()) {
+                options.include(BenchmarkRunner.class.getPackageName() + ".*");
+            }
+            new Runner(options.build()).run();
+        }
+    }
+}
@@ -0,0 +1,66 @@
+package com.pluralsight.pension.benchmark;
+
+import com.pluralsight.pension.Account;
+import com.pluralsight.pension.investment.ExternalInvestmentManagementService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.util.Currency;
+import java.util.HashSet;
+import java.util.concurrent.TimeUnit;
+
+// Each benchmark thread trades on its own account, since the service does not guard concurrent mutation
+@State(Scope.Thread)
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class InvestmentBenchmark {
+
+    private static final Currency USD = Currency.getInstance("USD");
+    private static final String FUND_ID = "FUND_ID";
+    private static final BigDecimal AMOUNT = new BigDecimal("12.34");
+
+    @Param({"0", "100"})
+    public long latencyMicros;
+
+    private ExternalInvestmentManagementService investmentService;
+    private Account account;
+
+    @Setup
+    public void setUp() {
+        investmentService = new ExternalInvestmentManagementService(StubDependencies.brokerClient(latencyMicros));
+        account = new Account();
+        account.setCcy(USD);
+        account.setInvestments(new HashSet<>());
+        account.setAvailableCash(new BigDecimal("1000000000000.00"));
+    }
+
+    @Benchmark
+    public void addFunds() {
+        investmentService.addFunds(account, AMOUNT, USD);
+    }
+
+    @Benchmark
+    public boolean buyInvestmentFund() throws IOException {
+        return investmentService.buyInvestmentFund(account, FUND_ID, AMOUNT);
+    }
+
+    @Benchmark
+    public boolean sellInvestmentFund() throws IOException {
+        account.getInvestments().add(FUND_ID);
+        return investmentService.sellInvestmentFund(account, FUND_ID, AMOUNT);
+    }
+}
@@ -0,0 +1,61 @@
+package com.pluralsight.pension.benchmark;
+
+import com.pluralsight.pension.Account;
+import com.pluralsight.pension.investment.ExternalInvestmentManagementService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.util.Currency;
+import java.util.HashSet;
+import java.util.concurrent.TimeUnit;
+
+// BigDecimal versus fixed-point cash on the same add/buy/sell cycle; compare gc.alloc.rate.norm between them
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class MoneyBenchmark {
+
+    private static final Currency USD = Currency.getInstance("USD");
+    private static final String FUND_ID = "FUND_ID";
+    private static final BigDecimal AMOUNT = new BigDecimal("12.34");
+    private static final long AMOUNT_UNITS = 1234L;
+
+    private ExternalInvestmentManagementService investmentService;
+    private Account account;
+
+    @Setup
+    public void setUp() {
+        investmentService = new ExternalInvestmentManagementService(StubDependencies.brokerClient(0));
+        account = new Account();
+        account.setCcy(USD);
+        account.setInvestments(new HashSet<>());
+        account.setAvailableCash(new BigDecimal("1000.00"));
+    }
+
+    @Benchmark
+    public void bigDecimalCycle() throws IOException {
+        investmentService.addFunds(account, AMOUNT, USD);
+        investmentService.buyInvestmentFund(account, FUND_ID, AMOUNT);
+        investmentService.sellInvestmentFund(account, FUND_ID, AMOUNT);
+    }
+
+    @Benchmark
+    public void minorUnitsCycle() throws IOException {
+        investmentService.addFunds(account, AMOUNT_UNITS, USD);
+        investmentService.buyInvestmentFund(account, FUND_ID, AMOUNT_UNITS);
+        investmentService.sellInvestmentFund(account, FUND_ID, AMOUNT_UNITS);
+    }
+}
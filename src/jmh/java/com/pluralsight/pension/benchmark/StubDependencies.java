@@ -0,0 +1,91 @@
+package com.pluralsight.pension.benchmark;
+
+import com.pluralsight.pension.Account;
+import com.pluralsight.pension.AccountRepository;
+import com.pluralsight.pension.investment.BrokerClient;
+import com.pluralsight.pension.setup.AccountOpeningEventPublisher;
+import com.pluralsight.pension.setup.BackgroundCheckResults;
+import com.pluralsight.pension.setup.BackgroundCheckService;
+import com.pluralsight.pension.setup.ReferenceIdsManager;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+
+// In-process stand-ins for the remote dependencies. A latency above zero parks the calling thread for that
+// long, the way a blocking remote call would.
+final class StubDependencies {
+
+    private static final BackgroundCheckResults OK_RESULTS = new BackgroundCheckResults("LOW", 1_000_000);
+
+    private StubDependencies() {
+    }
+
+    static BackgroundCheckService backgroundCheckService(long latencyMicros) {
+        return (firstName, lastName, taxId, dob) -> {
+            simulateLatency(latencyMicros);
+            return OK_RESULTS;
+        };
+    }
+
+    static ReferenceIdsManager referenceIdsManager(long latencyMicros) {
+        final AtomicLong ids = new AtomicLong();
+        return (firstName, middleName, lastName, taxId, dob) -> {
+            simulateLatency(latencyMicros);
+            return Long.toString(ids.incrementAndGet());
+        };
+    }
+
+    static AccountRepository accountRepository(long latencyMicros) {
+        return new AccountRepository() {
+            @Override
+            public boolean save(String id, String firstName, String lastName, String taxId, LocalDate dob,
+                                BackgroundCheckResults backgroundCheckResults) {
+                simulateLatency(latencyMicros);
+                return true;
+            }
+
+            @Override
+            public boolean isExpired(Account account) {
+                return false;
+            }
+
+            @Override
+            public boolean save(Account account) {
+                simulateLatency(latencyMicros);
+                return true;
+            }
+        };
+    }
+
+    static AccountOpeningEventPublisher eventPublisher() {
+        return accountId -> {
+        };
+    }
+
+    static BrokerClient brokerClient(long latencyMicros) {
+        return new BrokerClient() {
+            @Override
+            public boolean executeInvestmentTransaction(String fundId, BigDecimal investmentAmount, String direction) {
+                simulateLatency(latencyMicros);
+                return true;
+            }
+
+            @Override
+            public CompletableFuture<Boolean> executeInvestmentTransactionAsync(String fundId,
+                                                                                BigDecimal investmentAmount,
+                                                                                String direction) {
+                return CompletableFuture.supplyAsync(() -> executeInvestmentTransaction(fundId, investmentAmount, direction));
+            }
+        };
+    }
+
+    static void simulateLatency(long latencyMicros) {
+        if (latencyMicros > 0) {
+            LockSupport.parkNanos(TimeUnit.MICROSECONDS.toNanos(latencyMicros));
+        }
+    }
+}
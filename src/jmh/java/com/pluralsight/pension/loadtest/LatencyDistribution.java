@@ -0,0 +1,72 @@
+package com.pluralsight.pension.loadtest;
+
+import java.time.Duration;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.locks.LockSupport;
+
+// Latency of a stubbed dependency. Specs are given on the command line as fixed:2ms, exp:<mean> or
+// lognormal:<median>:<p99>; durations take an ns, us, ms or s suffix.
+public interface LatencyDistribution {
+
+    // Standard normal quantile at 0.99, used to fit a log-normal to a median and a p99
+    double Z_99 = 2.326;
+
+    long sampleNanos();
+
+    default void simulate() {
+        long remaining = sampleNanos();
+        final long deadline = System.nanoTime() + remaining;
+        while (remaining > 0) {
+            LockSupport.parkNanos(remaining);
+            remaining = deadline - System.nanoTime();
+        }
+    }
+
+    static LatencyDistribution fixed(Duration latency) {
+        final long nanos = latency.toNanos();
+        return () -> nanos;
+    }
+
+    static LatencyDistribution exponential(Duration mean) {
+        final double meanNanos = mean.toNanos();
+        return () -> (long) (-meanNanos * Math.log(1.0 - ThreadLocalRandom.current().nextDouble()));
+    }
+
+    // Heavy-tailed like most remote calls: most responses near the median, a few far out
+    static LatencyDistribution logNormal(Duration median, Duration p99) {
+        final double mu = Math.log(median.toNanos());
+        final double sigma = Math.log((double) p99.toNanos() / median.toNanos()) / Z_99;
+        return () -> (long) Math.exp(mu + sigma * ThreadLocalRandom.current().nextGaussian());
+    }
+
+    static LatencyDistribution parse(String spec) {
+        final String[] parts = spec.split(":");
+        switch (parts[0]) {
+            case "fixed":
+                return fixed(parseDuration(parts[1]));
+            case "exp":
+                return exponential(parseDuration(parts[1]));
+            case "lognormal":
+                return logNormal(parseDuration(parts[1]), parseDuration(parts[2]));
+            default:
+                throw new IllegalArgumentException("Unknown latency distribution " + spec);
+        }
+    }
+
+    static Duration parseDuration(String value) {
+        final int unitStart = value.replaceAll("[a-z]+$", "").length();
+        final long amount = Long.parseLong(value.substring(0, unitStart));
+        switch (value.substring(unitStart)) {
+            case "ns":
+                return Duration.ofNanos(amount);
+            case "us":
+                return Duration.ofNanos(amount * 1_000);
+            case "ms":
+                return Duration.ofMillis(amount);
+            case "s":
+                return Duration.ofSeconds(amount);
+            default:
+                throw new IllegalArgumentException("Duration needs an ns, us, ms or s suffix: " + value);
+        }
+    }
+}
@@ -0,0 +1,121 @@
+package com.pluralsight.pension.loadtest;
+
+import com.pluralsight.pension.metrics.LatencyHistogram;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.EnumMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+// Collects the results of one run. Workflow latency is recorded twice: from the moment the workflow was due
+// to start, which charges queueing behind a slow system to the requests that waited (coordinated omission
+// corrected), and from the moment it actually started, for comparison with closed-loop tools. Failed and timed-out
+// workflows are in both, so a slow failure is not dropped from the tail, and also on their own, so fast failures
+// cannot hide behind them. Throughput counts only workflows that finished inside the measured window; those that
+// finished while the run drained afterwards are reported as late.
+class LoadReport {
+
+    private static final double[] PERCENTILES = {50, 90, 99, 99.9, 99.99};
+
+    private final Map<LoadTest.Step, LatencyHistogram> stepLatency = new EnumMap<>(LoadTest.Step.class);
+    private final Map<LoadTest.Step, AtomicLong> stepErrors = new EnumMap<>(LoadTest.Step.class);
+    private final LatencyHistogram correctedLatency = new LatencyHistogram();
+    private final LatencyHistogram uncorrectedLatency = new LatencyHistogram();
+    private final LatencyHistogram failedLatency = new LatencyHistogram();
+    private final AtomicLong completed = new AtomicLong();
+    private final AtomicLong failed = new AtomicLong();
+    private final AtomicLong completedInWindow = new AtomicLong();
+    private final AtomicLong failedInWindow = new AtomicLong();
+    private volatile long windowEndNanos = Long.MAX_VALUE;
+
+    LoadReport() {
+        for (LoadTest.Step step : LoadTest.Step.values()) {
+            stepLatency.put(step, new LatencyHistogram());
+            stepErrors.put(step, new AtomicLong());
+        }
+    }
+
+    void measureUntil(long endNanos) {
+        windowEndNanos = endNanos;
+    }
+
+    void recordStep(LoadTest.Step step, long startNanos) {
+        stepLatency.get(step).recordSince(startNanos);
+    }
+
+    void recordFailure(LoadTest.Step step, long intendedStartNanos, long actualStartNanos) {
+        final long now = recordWorkflow(intendedStartNanos, actualStartNanos);
+        failedLatency.record(now - intendedStartNanos);
+        stepErrors.get(step).incrementAndGet();
+        failed.incrementAndGet();
+        if (now <= windowEndNanos) {
+            failedInWindow.incrementAndGet();
+        }
+    }
+
+    void recordCompleted(long intendedStartNanos, long actualStartNanos) {
+        final long now = recordWorkflow(intendedStartNanos, actualStartNanos);
+        completed.incrementAndGet();
+        if (now <= windowEndNanos) {
+            completedInWindow.incrementAndGet();
+        }
+    }
+
+    private long recordWorkflow(long intendedStartNanos, long actualStartNanos) {
+        final long now = System.nanoTime();
+        correctedLatency.record(now - intendedStartNanos);
+        uncorrectedLatency.record(now - actualStartNanos);
+        return now;
+    }
+
+    // Sorted key=value lines, so reports from two builds can be compared with diff
+    Map<String, String> summarise(double targetRate, long measuredNanos) {
+        final Map<String, String> lines = new TreeMap<>();
+        final double seconds = measuredNanos / 1e9;
+        lines.put("rate.target", format(targetRate));
+        lines.put("throughput.completed", format(completedInWindow.get() / seconds));
+        lines.put("throughput.failed", format(failedInWindow.get() / seconds));
+        lines.put("workflows.completed", Long.toString(completed.get()));
+        lines.put("workflows.completed_late", Long.toString(completed.get() - completedInWindow.get()));
+        lines.put("workflows.failed", Long.toString(failed.get()));
+        lines.put("workflows.failed_late", Long.toString(failed.get() - failedInWindow.get()));
+        summarise(lines, "latency.workflow.corrected", correctedLatency);
+        summarise(lines, "latency.workflow.uncorrected", uncorrectedLatency);
+        summarise(lines, "latency.workflow.failed", failedLatency);
+        for (LoadTest.Step step : LoadTest.Step.values()) {
+            final String name = step.name().toLowerCase();
+            summarise(lines, "latency.step." + name, stepLatency.get(step));
+            lines.put("errors.step." + name, Long.toString(stepErrors.get(step).get()));
+        }
+        return lines;
+    }
+
+    static void write(Map<String, String> lines, Path file) throws IOException {
+        final StringBuilder text = new StringBuilder();
+        lines.forEach((key, value) -> text.append(key).append('=').append(value).append('\n'));
+        if (file.getParent() != null) {
+            Files.createDirectories(file.getParent());
+        }
+        Files.write(file, text.toString().getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static void summarise(Map<String, String> lines, String prefix, LatencyHistogram histogram) {
+        lines.put(prefix + ".count", Long.toString(histogram.getCount()));
+        for (double percentile : PERCENTILES) {
+            lines.put(prefix + ".p" + BigDecimal.valueOf(percentile).stripTrailingZeros().toPlainString() + "_us",
+                    Long.toString(TimeUnit.NANOSECONDS.toMicros(histogram.getValueAtPercentile(percentile))));
+        }
+        lines.put(prefix + ".max_us", Long.toString(TimeUnit.NANOSECONDS.toMicros(histogram.getMax())));
+    }
+
+    private static String format(double value) {
+        return String.format(Locale.ROOT, "%.2f", value);
+    }
+}
@@ -0,0 +1,201 @@
+package com.pluralsight.pension.loadtest;
+
+import com.pluralsight.pension.Account;
+import com.pluralsight.pension.InMemoryAccountRepository;
+import com.pluralsight.pension.investment.ExternalInvestmentManagementService;
+import com.pluralsight.pension.investment.HttpBrokerClient;
+import com.pluralsight.pension.setup.AccountOpeningService;
+import com.pluralsight.pension.setup.AccountOpeningStatus;
+import com.pluralsight.pension.withdrawal.AccountClosingService;
+import com.pluralsight.pension.withdrawal.AccountClosingStatus;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.Period;
+import java.util.Currency;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+// Drives open -> fund -> buy -> sell -> close workflows against the real services, wired to a local HTTP broker
+// and in-process stubs, in open loop: workflows are started on a fixed schedule at the target rate whether or
+// not earlier ones have finished, so a stall shows up as latency instead of silently lowering the load.
+// Options (defaults in brackets): --rate=<workflows/s> [500] --duration=<d> [30s] --warmup=<d> [5s]
+// --workers=<n> [256] --broker=<dist> [lognormal:2ms:20ms] --check=<dist> [lognormal:5ms:50ms]
+// --ids=<dist> [fixed:200us] --error-rate=<0..1> [0.001] --report=<file> [target/loadtest-report.txt]
+public class LoadTest {
+
+    enum Step {OPEN, FUND, BUY, SELL, CLOSE}
+
+    private static final Currency USD = Currency.getInstance("USD");
+    private static final BigDecimal DEPOSIT = new BigDecimal("1000.00");
+    private static final BigDecimal TRADE = new BigDecimal("250.00");
+    private static final LocalDate FIRST_DOB = LocalDate.of(1940, 1, 1);
+    private static final int FUND_COUNT = 16;
+
+    private final InMemoryAccountRepository accountRepository;
+    private final AccountOpeningService openingService;
+    private final ExternalInvestmentManagementService investmentService;
+    private final AccountClosingService closingService;
+    private final LoadReport report = new LoadReport();
+
+    LoadTest(StubBroker broker, Map<String, String> options) {
+        final Clock clock = Clock.systemDefaultZone();
+        final double errorRate = Double.parseDouble(options.get("error-rate"));
+        this.accountRepository = new InMemoryAccountRepository(clock, Period.ofYears(100));
+        this.openingService = new AccountOpeningService(
+                StubServices.backgroundCheckService(LatencyDistribution.parse(options.get("check")), errorRate),
+                StubServices.referenceIdsManager(LatencyDistribution.parse(options.get("ids")), errorRate),
+                accountRepository,
+                accountId -> {
+                });
+        this.investmentService = new ExternalInvestmentManagementService(new HttpBrokerClient(broker.getUri(),
+                HttpBrokerClient.DEFAULT_CONNECT_TIMEOUT, HttpBrokerClient.DEFAULT_REQUEST_TIMEOUT));
+        this.closingService = new AccountClosingService(
+                StubServices.backgroundCheckService(LatencyDistribution.parse(options.get("check")), errorRate),
+                clock);
+    }
+
+    public static void main(String[] args) throws Exception {
+        final Map<String, String> options = options(args);
+        final double rate = Double.parseDouble(options.get("rate"));
+        final Duration warmup = LatencyDistribution.parseDuration(options.get("warmup"));
+        final Duration duration = LatencyDistribution.parseDuration(options.get("duration"));
+        final int workers = Integer.parseInt(options.get("workers"));
+
+        try (StubBroker broker = new StubBroker(LatencyDistribution.parse(options.get("broker")),
+                Double.parseDouble(options.get("error-rate")))) {
+            final LoadTest loadTest = new LoadTest(broker, options);
+            final long measuredNanos = loadTest.run(rate, warmup, duration, workers);
+            final Map<String, String> summary = loadTest.report.summarise(rate, measuredNanos);
+            final Path reportFile = Paths.get(options.get("report"));
+            LoadReport.write(summary, reportFile);
+            summary.forEach((key, value) -> System.out.println(key + "=" + value));
+            System.out.println("Report written to " + reportFile.toAbsolutePath());
+        }
+    }
+
+    // Returns the length of the measured window; workflows due during the warmup run but are not reported
+    long run(double rate, Duration warmup, Duration duration, int workers) throws InterruptedException {
+        // Unbounded queue: when workers fall behind, due workflows wait and that wait is part of their latency
+        final ExecutorService executor = new ThreadPoolExecutor(workers, workers, 0L, TimeUnit.MILLISECONDS,
+                new LinkedBlockingQueue<>());
+        final double intervalNanos = 1e9 / rate;
+        final long start = System.nanoTime();
+        final long measureFrom = start + warmup.toNanos();
+        final long end = measureFrom + duration.toNanos();
+        report.measureUntil(end);
+        try {
+            for (long n = 0; ; n++) {
+                final long intendedStart = start + (long) (n * intervalNanos);
+                if (intendedStart >= end) {
+                    break;
+                }
+                parkUntil(intendedStart);
+                final long sequence = n;
+                final boolean measured = intendedStart >= measureFrom;
+                executor.execute(() -> runWorkflow(sequence, intendedStart, measured));
+            }
+        } finally {
+            executor.shutdown();
+        }
+        if (!executor.awaitTermination(5, TimeUnit.MINUTES)) {
+            executor.shutdownNow();
+            System.err.println("Workflows still running after 5 minutes; the report is incomplete");
+        }
+        return end - measureFrom;
+    }
+
+    private void runWorkflow(long sequence, long intendedStart, boolean measured) {
+        final long actualStart = System.nanoTime();
+        final String taxId = "TAX" + sequence;
+        final LocalDate dob = FIRST_DOB.plusDays(sequence % 7_000);
+        final String fundId = "FUND" + sequence % FUND_COUNT;
+        Step step = Step.OPEN;
+        try {
+            long stepStart = System.nanoTime();
+            final AccountOpeningStatus opened = openingService.openAccount("John", "Smith", taxId, dob);
+            if (opened != AccountOpeningStatus.OPENED) {
+                throw new IllegalStateException("Account not opened: " + opened);
+            }
+            final Account account = accountRepository.findByTaxId(taxId).orElseThrow();
+            stepStart = recordStep(measured, step, stepStart);
+
+            step = Step.FUND;
+            investmentService.addFunds(account, DEPOSIT, USD);
+            stepStart = recordStep(measured, step, stepStart);
+
+            step = Step.BUY;
+            if (!investmentService.buyInvestmentFund(account, fundId, TRADE)) {
+                throw new IllegalStateException("Purchase rejected");
+            }
+            stepStart = recordStep(measured, step, stepStart);
+
+            step = Step.SELL;
+            if (!investmentService.sellInvestmentFund(account, fundId, TRADE)) {
+                throw new IllegalStateException("Sale rejected");
+            }
+            stepStart = recordStep(measured, step, stepStart);
+
+            step = Step.CLOSE;
+            final AccountClosingStatus closed = closingService.closeAccount(account).getStatus();
+            if (closed != AccountClosingStatus.CLOSING_OK) {
+                throw new IllegalStateException("Account not closed: " + closed);
+            }
+            recordStep(measured, step, stepStart);
+
+            if (measured) {
+                report.recordCompleted(intendedStart, actualStart);
+            }
+        } catch (IOException | RuntimeException e) {
+            if (measured) {
+                report.recordFailure(step, intendedStart, actualStart);
+            }
+        }
+    }
+
+    private long recordStep(boolean measured, Step step, long stepStart) {
+        if (measured) {
+            report.recordStep(step, stepStart);
+        }
+        return System.nanoTime();
+    }
+
+    private static void parkUntil(long deadline) {
+        long remaining = deadline - System.nanoTime();
+        while (remaining > 0) {
+            LockSupport.parkNanos(remaining);
+            remaining = deadline - System.nanoTime();
+        }
+    }
+
+    private static Map<String, String> options(String[] args) {
+        final Map<String, String> options = new HashMap<>();
+        options.put("rate", "500");
+        options.put("duration", "30s");
+        options.put("warmup", "5s");
+        options.put("workers", "256");
+        options.put("broker", "lognormal:2ms:20ms");
+        options.put("check", "lognormal:5ms:50ms");
+        options.put("ids", "fixed:200us");
+        options.put("error-rate", "0.001");
+        options.put("report", "target/loadtest-report.txt");
+        for (String arg : args) {
+            final int separator = arg.indexOf('=');
+            if (!arg.startsWith("--") || separator < 0 || !options.containsKey(arg.substring(2, separator))) {
+                throw new IllegalArgumentException("Unknown option " + arg);
+            }
+            options.put(arg.substring(2, separator), arg.substring(separator + 1));
+        }
+        return options;
+    }
+}
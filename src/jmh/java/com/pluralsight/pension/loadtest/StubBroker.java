@@ -0,0 +1,77 @@
+package com.pluralsight.pension.loadtest;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+
+// Local HTTP server speaking the broker proxy protocol, for HttpBrokerClient to use in place of
+// INTERNAL_PROXY_URL: orders arrive as DIRECTION/FUND/AMOUNT headers and are answered "true", or with a 503
+// at the configured error rate.
+public class StubBroker implements Closeable {
+
+    private static final byte[] ACCEPTED = "true".getBytes(StandardCharsets.US_ASCII);
+    private static final String PATH = "/broker";
+
+    private final HttpServer server;
+    private final ExecutorService executor;
+    private final LatencyDistribution latency;
+    private final double errorRate;
+    private final AtomicLong orders = new AtomicLong();
+
+    public StubBroker(LatencyDistribution latency, double errorRate) throws IOException {
+        this.latency = latency;
+        this.errorRate = errorRate;
+        // One thread per in-flight order, like a remote broker that never queues
+        this.executor = Executors.newCachedThreadPool(runnable -> {
+            final Thread thread = new Thread(runnable, "stub-broker");
+            thread.setDaemon(true);
+            return thread;
+        });
+        this.server = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0), 1024);
+        server.createContext(PATH, this::handle);
+        server.setExecutor(executor);
+        server.start();
+    }
+
+    public URI getUri() {
+        return URI.create("http://" + server.getAddress().getHostString() + ":" + server.getAddress().getPort() + PATH);
+    }
+
+    public long getOrderCount() {
+        return orders.get();
+    }
+
+    private void handle(HttpExchange exchange) throws IOException {
+        try {
+            orders.incrementAndGet();
+            latency.simulate();
+            if (ThreadLocalRandom.current().nextDouble() < errorRate) {
+                exchange.sendResponseHeaders(503, -1);
+                return;
+            }
+            exchange.sendResponseHeaders(200, ACCEPTED.length);
+            try (OutputStream body = exchange.getResponseBody()) {
+                body.write(ACCEPTED);
+            }
+        } finally {
+            exchange.close();
+        }
+    }
+
+    @Override
+    public void close() {
+        server.stop(0);
+        executor.shutdownNow();
+    }
+}
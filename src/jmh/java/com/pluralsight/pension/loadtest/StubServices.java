@@ -0,0 +1,41 @@
+package com.pluralsight.pension.loadtest;
+
+import com.pluralsight.pension.setup.BackgroundCheckResults;
+import com.pluralsight.pension.setup.BackgroundCheckService;
+import com.pluralsight.pension.setup.ReferenceIdsManager;
+
+import java.io.IOException;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+
+// In-process background-check and reference-id services whose calls block for a sampled latency and fail at a
+// configured rate, the way their remote counterparts do.
+final class StubServices {
+
+    private static final BackgroundCheckResults OK_RESULTS = new BackgroundCheckResults("LOW", 1_000_000);
+
+    private StubServices() {
+    }
+
+    static BackgroundCheckService backgroundCheckService(LatencyDistribution latency, double errorRate) {
+        return (firstName, lastName, taxId, dob) -> {
+            latency.simulate();
+            if (ThreadLocalRandom.current().nextDouble() < errorRate) {
+                throw new IOException("Stub background check failed");
+            }
+            return OK_RESULTS;
+        };
+    }
+
+    // A failed lookup returns no id, which the opening service treats as a decline
+    static ReferenceIdsManager referenceIdsManager(LatencyDistribution latency, double errorRate) {
+        final AtomicLong ids = new AtomicLong();
+        return (firstName, middleName, lastName, taxId, dob) -> {
+            latency.simulate();
+            if (ThreadLocalRandom.current().nextDouble() < errorRate) {
+                return null;
+            }
+            return Long.toString(ids.incrementAndGet());
+        };
+    }
+}
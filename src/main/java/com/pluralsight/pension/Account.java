@@ -15,9 +15,16 @@ public class Account {
     private BigDecimal totalInvestmentValue;
     private Currency ccy;
     private Set<String> investments;
+    private Holdings holdings;
     private BigDecimal availableCash;
+    // Cash can also be held as minor units so hot paths avoid BigDecimal; whichever was written last wins, and the
+    // getters convert from it without caching, so reading never writes to a shared account
+    private long availableCashUnits;
+    private boolean cashHeldAsUnits;
     private LocalDate expectedRetirement;
     private LocalDate openingDate;
+    // The background check's upper limit in minor units, kept so it survives a restart; null until one is known
+    private Long upperAccountLimitUnits;
 
 
     public LocalDate getOpeningDate() {
@@ -96,15 +103,58 @@ public class Account {
         this.investments = investments;
     }
 
+    public Holdings getHoldings() {
+        if (holdings == null) {
+            holdings = new Holdings();
+        }
+        return holdings;
+    }
+
+    // Null if none has been created yet, for readers such as serialisation that must not write to the account
+    public Holdings getHoldingsIfCreated() {
+        return holdings;
+    }
+
+    public void setHoldings(Holdings holdings) {
+        this.holdings = holdings;
+    }
+
     public BigDecimal getAvailableCash() {
-        return availableCash;
+        return cashHeldAsUnits ? Money.toBigDecimal(availableCashUnits, Money.scaleOf(ccy)) : availableCash;
     }
 
     public void setAvailableCash(BigDecimal availableCash) {
         this.availableCash = availableCash;
+        this.cashHeldAsUnits = false;
+    }
+
+    // Cash worked out with MATH_CONTEXT can carry more decimals than the currency has; those are dropped here, so
+    // the minor-unit paths that read this and write it back can never spend a fraction of a cent that is not there
+    public long getAvailableCashUnits() {
+        if (cashHeldAsUnits) {
+            return availableCashUnits;
+        }
+        if (availableCash == null) {
+            return 0L;
+        }
+        return Money.toMinorUnitsRoundingDown(availableCash, Money.scaleOf(ccy));
+    }
+
+    public void setAvailableCashUnits(long availableCashUnits) {
+        this.availableCashUnits = availableCashUnits;
+        this.cashHeldAsUnits = true;
+        this.availableCash = null;
     }
 
     public void setExpectedRetirement(LocalDate expectedRetirement) {
         this.expectedRetirement = expectedRetirement;
     }
+
+    public Long getUpperAccountLimitUnits() {
+        return upperAccountLimitUnits;
+    }
+
+    public void setUpperAccountLimitUnits(Long upperAccountLimitUnits) {
+        this.upperAccountLimitUnits = upperAccountLimitUnits;
+    }
 }
@@ -0,0 +1,5 @@
+package com.pluralsight.pension;
+
+public enum AccountLifecycleEvent {
+    EXPIRED, RETIREMENT_ELIGIBLE
+}
@@ -0,0 +1,7 @@
+package com.pluralsight.pension;
+
+import java.time.LocalDate;
+
+public interface AccountLifecycleListener {
+    void onEvent(AccountLifecycleEvent event, String accountId, LocalDate dueDate);
+}
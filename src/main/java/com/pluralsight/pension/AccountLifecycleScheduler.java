@@ -0,0 +1,167 @@
+package com.pluralsight.pension;
+
+import java.time.Clock;
+import java.time.LocalDate;
+import java.time.Period;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static com.pluralsight.pension.withdrawal.AccountClosingService.RETIREMENT_AGE;
+
+// Hierarchical timing wheel with one-day ticks that raises EXPIRED on the day InMemoryAccountRepository.isExpired
+// starts returning true and RETIREMENT_ELIGIBLE on the day AccountClosingService's age check first passes.
+// Four levels of 64 slots cover about 45,000 years; a date further out parks in the top level and is re-placed
+// each time that slot cascades. advance() walks the days since the last call, so a daily run costs the accounts
+// that fall due plus one cascade step per day, never a scan of every account. Rescheduling or cancelling an
+// account invalidates its earlier entries lazily through a per-account generation number.
+public class AccountLifecycleScheduler {
+
+    private static final int SLOT_BITS = 6;
+    private static final int SLOTS = 1 << SLOT_BITS;
+    private static final int SLOT_MASK = SLOTS - 1;
+    private static final int LEVELS = 4;
+
+    private final Clock clock;
+    private final Period accountValidity;
+    private final AccountLifecycleListener listener;
+    private final List<List<Entry>> wheels = new ArrayList<>(LEVELS * SLOTS);
+    private final List<Entry> due = new ArrayList<>();
+    private final Map<String, Long> generations = new HashMap<>();
+    private long currentDay;
+    private long nextGeneration;
+    private int scheduledCount;
+
+    public AccountLifecycleScheduler(Clock clock, Period accountValidity, AccountLifecycleListener listener) {
+        this.clock = clock;
+        this.accountValidity = accountValidity;
+        this.listener = listener;
+        this.currentDay = LocalDate.now(clock).toEpochDay();
+        for (int i = 0; i < LEVELS * SLOTS; i++) {
+            wheels.add(new ArrayList<>());
+        }
+    }
+
+    // Replaces anything already scheduled for the account. Thresholds already crossed fire on the next advance().
+    public synchronized void schedule(Account account) {
+        final long generation = nextGeneration++;
+        generations.put(account.getId(), generation);
+        if (account.getOpeningDate() != null) {
+            insert(new Entry(account.getId(), AccountLifecycleEvent.EXPIRED,
+                    account.getOpeningDate().plus(accountValidity).toEpochDay(), generation));
+        }
+        final LocalDate eligibleFrom = retirementEligibilityDate(account);
+        if (eligibleFrom != null) {
+            insert(new Entry(account.getId(), AccountLifecycleEvent.RETIREMENT_ELIGIBLE,
+                    eligibleFrom.toEpochDay(), generation));
+        }
+    }
+
+    public synchronized void cancel(String accountId) {
+        generations.remove(accountId);
+    }
+
+    // Moves the wheel up to the clock's current date and returns the number of events delivered. Listeners are
+    // called in due-date order, outside the scheduler's lock.
+    public int advance() {
+        final List<Entry> fired = new ArrayList<>();
+        synchronized (this) {
+            final long today = LocalDate.now(clock).toEpochDay();
+            due.sort(Comparator.comparingLong(entry -> entry.dueDay));
+            collect(due, fired);
+            while (currentDay < today) {
+                currentDay++;
+                for (int level = LEVELS - 1; level > 0; level--) {
+                    if ((currentDay & ((1L << (SLOT_BITS * level)) - 1)) == 0) {
+                        cascade(slot(level, currentDay));
+                    }
+                }
+                // a cascade files entries due today under due rather than in a wheel slot
+                collect(due, fired);
+                collect(slot(0, currentDay), fired);
+            }
+        }
+        for (Entry entry : fired) {
+            listener.onEvent(entry.event, entry.accountId, LocalDate.ofEpochDay(entry.dueDay));
+        }
+        return fired.size();
+    }
+
+    // Includes entries made stale by cancel or reschedule until their slot comes round
+    public synchronized int getScheduledCount() {
+        return scheduledCount;
+    }
+
+    // The first date on which Period.between(dob, date).getYears() >= RETIREMENT_AGE; for 29 February births
+    // that is 1 March in a non-leap year, not the 28 February plusYears gives
+    static LocalDate retirementEligibilityDate(Account account) {
+        final LocalDate dob = account.getDob();
+        if (dob == null) {
+            return account.getExpectedRetirement();
+        }
+        final LocalDate anniversary = dob.plusYears(RETIREMENT_AGE);
+        return anniversary.getDayOfMonth() == dob.getDayOfMonth() ? anniversary : anniversary.plusDays(1);
+    }
+
+    private void insert(Entry entry) {
+        final long delta = entry.dueDay - currentDay;
+        if (delta <= 0) {
+            due.add(entry);
+        } else {
+            int level = 0;
+            while (level < LEVELS - 1 && delta >= 1L << (SLOT_BITS * (level + 1))) {
+                level++;
+            }
+            final long placement = delta < 1L << (SLOT_BITS * LEVELS)
+                    ? entry.dueDay : currentDay + (1L << (SLOT_BITS * LEVELS)) - 1;
+            slot(level, placement).add(entry);
+        }
+        scheduledCount++;
+    }
+
+    private void cascade(List<Entry> slot) {
+        final List<Entry> entries = new ArrayList<>(slot);
+        slot.clear();
+        scheduledCount -= entries.size();
+        for (Entry entry : entries) {
+            if (isCurrent(entry)) {
+                insert(entry);
+            }
+        }
+    }
+
+    private void collect(List<Entry> slot, List<Entry> fired) {
+        for (Entry entry : slot) {
+            if (isCurrent(entry)) {
+                fired.add(entry);
+            }
+        }
+        scheduledCount -= slot.size();
+        slot.clear();
+    }
+
+    private boolean isCurrent(Entry entry) {
+        final Long generation = generations.get(entry.accountId);
+        return generation != null && generation == entry.generation;
+    }
+
+    private List<Entry> slot(int level, long day) {
+        return wheels.get(level * SLOTS + (int) ((day >>> (SLOT_BITS * level)) & SLOT_MASK));
+    }
+
+    private static class Entry {
+        private final String accountId;
+        private final AccountLifecycleEvent event;
+        private final long dueDay;
+        private final long generation;
+
+        private Entry(String accountId, AccountLifecycleEvent event, long dueDay, long generation) {
+            this.accountId = accountId;
+            this.event = event;
+            this.dueDay = dueDay;
+            this.generation = generation;
+        }
+    }
+}
@@ -1,8 +1,14 @@
 package com.pluralsight.pension;
 
+import com.pluralsight.pension.setup.AccountApplication;
+import com.pluralsight.pension.setup.Applicant;
 import com.pluralsight.pension.setup.BackgroundCheckResults;
 
 import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
 
 public interface AccountRepository {
     boolean save(String id, String firstName, String lastName, String taxId, LocalDate dob, BackgroundCheckResults backgroundCheckResults);
@@ -10,4 +16,39 @@ public interface AccountRepository {
     boolean isExpired(Account account);
 
     boolean save(Account account);
+
+    // Lookups default to throwing, so repositories written before they were added keep compiling, and a store that
+    // cannot be queried is never mistaken for one that has no such account
+    default Optional<Account> findById(String id) {
+        throw new UnsupportedOperationException("This repository cannot look accounts up by id");
+    }
+
+    default Optional<Account> findByTaxId(String taxId) {
+        throw new UnsupportedOperationException("This repository cannot look accounts up by tax id");
+    }
+
+    default List<Account> findByDobBetween(LocalDate fromInclusive, LocalDate toInclusive) {
+        throw new UnsupportedOperationException("This repository cannot look accounts up by date of birth");
+    }
+
+    default List<Account> findByExpectedRetirementBetween(LocalDate fromInclusive, LocalDate toInclusive) {
+        throw new UnsupportedOperationException("This repository cannot look accounts up by retirement date");
+    }
+
+    // Returns the applications whose save was rejected, such as a second account for a taxId, in input order
+    default List<AccountApplication> saveAll(Collection<AccountApplication> applications) {
+        final List<AccountApplication> rejected = new ArrayList<>();
+        for (AccountApplication application : applications) {
+            final Applicant applicant = application.getApplicant();
+            if (!save(application.getId(),
+                    applicant.getFirstName(),
+                    applicant.getLastName(),
+                    applicant.getTaxId(),
+                    applicant.getDob(),
+                    application.getBackgroundCheckResults())) {
+                rejected.add(application);
+            }
+        }
+        return rejected;
+    }
 }
@@ -0,0 +1,130 @@
+package com.pluralsight.pension;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.Collections;
+import java.util.Currency;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+
+// Immutable point-in-time copy of an Account. Safe to share between threads and to read without locks; the
+// version increases by one with every published change to the account.
+public final class AccountSnapshot {
+
+    private final long version;
+    private final String id;
+    private final String firstName;
+    private final String lastName;
+    private final LocalDate dob;
+    private final String taxId;
+    private final BigDecimal totalInvestmentValue;
+    private final Currency ccy;
+    private final Set<String> investments;
+    private final Map<String, Long> holdingUnits;
+    private final long holdingsValueUnits;
+    private final BigDecimal availableCash;
+    private final LocalDate expectedRetirement;
+    private final LocalDate openingDate;
+
+    private AccountSnapshot(Account account, long version) {
+        this.version = version;
+        this.id = account.getId();
+        this.firstName = account.getFistName();
+        this.lastName = account.getLastName();
+        this.dob = account.getDob();
+        this.taxId = account.getTaxId();
+        this.totalInvestmentValue = account.getTotalInvestmentValue();
+        this.ccy = account.getCcy();
+        this.investments = account.getInvestments() == null
+                ? Collections.emptySet() : Collections.unmodifiableSet(new HashSet<>(account.getInvestments()));
+        final Map<String, Long> units = new HashMap<>();
+        account.getHoldings().forEach(units::put);
+        this.holdingUnits = Collections.unmodifiableMap(units);
+        this.holdingsValueUnits = account.getHoldings().getValueUnits();
+        this.availableCash = account.getAvailableCash();
+        this.expectedRetirement = account.getExpectedRetirement();
+        this.openingDate = account.getOpeningDate();
+    }
+
+    public static AccountSnapshot of(Account account, long version) {
+        return new AccountSnapshot(account, version);
+    }
+
+    // A mutable copy, for running existing Account-based code against the snapshot or preparing the next version
+    public Account toAccount() {
+        final Account account = new Account();
+        account.setId(id);
+        account.setFistName(firstName);
+        account.setLastName(lastName);
+        account.setDob(dob);
+        account.setTaxId(taxId);
+        account.setTotalInvestmentValue(totalInvestmentValue);
+        account.setCcy(ccy);
+        account.setInvestments(new HashSet<>(investments));
+        holdingUnits.forEach((fundId, units) -> account.getHoldings().addUnits(fundId, units));
+        account.getHoldings().setValueUnits(holdingsValueUnits);
+        account.setAvailableCash(availableCash);
+        account.setExpectedRetirement(expectedRetirement);
+        account.setOpeningDate(openingDate);
+        return account;
+    }
+
+    public long getVersion() {
+        return version;
+    }
+
+    public String getId() {
+        return id;
+    }
+
+    public String getFirstName() {
+        return firstName;
+    }
+
+    public String getLastName() {
+        return lastName;
+    }
+
+    public LocalDate getDob() {
+        return dob;
+    }
+
+    public String getTaxId() {
+        return taxId;
+    }
+
+    public BigDecimal getTotalInvestmentValue() {
+        return totalInvestmentValue;
+    }
+
+    public Currency getCcy() {
+        return ccy;
+    }
+
+    public Set<String> getInvestments() {
+        return investments;
+    }
+
+    // Fund units in millionths, as in Holdings
+    public Map<String, Long> getHoldingUnits() {
+        return holdingUnits;
+    }
+
+    public long getHoldingsValueUnits() {
+        return holdingsValueUnits;
+    }
+
+    public BigDecimal getAvailableCash() {
+        return availableCash;
+    }
+
+    public LocalDate getExpectedRetirement() {
+        return expectedRetirement;
+    }
+
+    public LocalDate getOpeningDate() {
+        return openingDate;
+    }
+}
@@ -0,0 +1,37 @@
+package com.pluralsight.pension;
+
+import com.pluralsight.pension.setup.BackgroundCheckResults;
+
+import java.time.LocalDate;
+import java.util.concurrent.CompletableFuture;
+
+public interface AsyncAccountRepository {
+    CompletableFuture<Boolean> save(String id, String firstName, String lastName, String taxId, LocalDate dob, BackgroundCheckResults backgroundCheckResults);
+
+    CompletableFuture<Boolean> save(Account account);
+
+    // Runs the blocking repository in the calling thread, for callers that have no async implementation
+    static AsyncAccountRepository inline(AccountRepository delegate) {
+        return new AsyncAccountRepository() {
+            @Override
+            public CompletableFuture<Boolean> save(String id, String firstName, String lastName, String taxId,
+                                                   LocalDate dob, BackgroundCheckResults backgroundCheckResults) {
+                try {
+                    return CompletableFuture.completedFuture(
+                            delegate.save(id, firstName, lastName, taxId, dob, backgroundCheckResults));
+                } catch (RuntimeException e) {
+                    return CompletableFuture.failedFuture(e);
+                }
+            }
+
+            @Override
+            public CompletableFuture<Boolean> save(Account account) {
+                try {
+                    return CompletableFuture.completedFuture(delegate.save(account));
+                } catch (RuntimeException e) {
+                    return CompletableFuture.failedFuture(e);
+                }
+            }
+        };
+    }
+}
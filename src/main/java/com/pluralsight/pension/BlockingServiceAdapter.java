@@ -0,0 +1,96 @@
+package com.pluralsight.pension;
+
+import com.pluralsight.pension.setup.AsyncBackgroundCheckService;
+import com.pluralsight.pension.setup.AsyncReferenceIdsManager;
+import com.pluralsight.pension.setup.BackgroundCheckResults;
+import com.pluralsight.pension.setup.BackgroundCheckService;
+import com.pluralsight.pension.setup.ReferenceIdsManager;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.time.LocalDate;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+// Runs the existing blocking implementations on a bounded pool so they can be used where an async
+// dependency is expected. Calls that do not fit in the queue fail with RejectedExecutionException.
+public class BlockingServiceAdapter implements Closeable {
+
+    private final ThreadPoolExecutor executor;
+
+    public BlockingServiceAdapter(int threads, int queueCapacity) {
+        this.executor = new ThreadPoolExecutor(threads, threads, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity));
+    }
+
+    public AsyncBackgroundCheckService backgroundCheckService(BackgroundCheckService delegate) {
+        return (firstName, lastName, taxId, dob) -> submit(() -> delegate.confirm(firstName, lastName, taxId, dob));
+    }
+
+    public AsyncReferenceIdsManager referenceIdsManager(ReferenceIdsManager delegate) {
+        return (firstName, middleName, lastName, taxId, dob) ->
+                submit(() -> delegate.obtainId(firstName, middleName, lastName, taxId, dob));
+    }
+
+    public AsyncAccountRepository accountRepository(AccountRepository delegate) {
+        return new AsyncAccountRepository() {
+            @Override
+            public CompletableFuture<Boolean> save(String id, String firstName, String lastName, String taxId,
+                                                   LocalDate dob, BackgroundCheckResults results) {
+                return submit(() -> delegate.save(id, firstName, lastName, taxId, dob, results));
+            }
+
+            @Override
+            public CompletableFuture<Boolean> save(Account account) {
+                return submit(() -> delegate.save(account));
+            }
+        };
+    }
+
+    @Override
+    public void close() {
+        executor.shutdown();
+    }
+
+    private <T> CompletableFuture<T> submit(Callable<T> call) {
+        final CompletableFuture<T> result = new CompletableFuture<>();
+        try {
+            executor.execute(() -> {
+                try {
+                    result.complete(call.call());
+                } catch (Throwable t) {
+                    result.completeExceptionally(t);
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            result.completeExceptionally(e);
+        }
+        return result;
+    }
+
+    // Waits for an async dependency and rethrows its failure the way the blocking interfaces would.
+    public static <T> T await(CompletableFuture<T> future) throws IOException {
+        try {
+            return future.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Interrupted while waiting for a remote call", e);
+        } catch (ExecutionException | CompletionException e) {
+            final Throwable cause = e.getCause();
+            if (cause instanceof IOException) {
+                throw (IOException) cause;
+            } else if (cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
+            } else if (cause instanceof Error) {
+                throw (Error) cause;
+            }
+            throw new IOException(cause);
+        }
+    }
+}
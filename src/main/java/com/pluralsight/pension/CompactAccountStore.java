@@ -0,0 +1,468 @@
+package com.pluralsight.pension;
+
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Currency;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.function.Consumer;
+
+// Resident account population laid out as columns of primitive arrays in fixed-size pages, instead of one object
+// graph per account. Dates are epoch days, cash and investment value are minor units, names are dictionary codes,
+// and ids and tax ids are UTF-8 bytes in a per-page pool. Records are read and written through flyweight Account
+// views, so existing services work unchanged; a view is a cursor, not a copy. get and findById return one
+// canonical view per record, created on first use, so services that lock on the account or key on its identity
+// see the same object for the same record. Adding records is synchronized; writes through views to one record must
+// be serialised by the caller, for example by locking its canonical view or with PartitionedAccountExecutor.
+// Amounts are rounded down to the currency's minor units as they are stored, the rule Account applies when it
+// converts cash to minor units, so a view accepts whatever a plain Account does.
+public class CompactAccountStore {
+
+    private static final int PAGE_BITS = 14;
+    private static final int PAGE_SIZE = 1 << PAGE_BITS;
+    private static final int PAGE_MASK = PAGE_SIZE - 1;
+    private static final int NONE = -1;
+    private static final int NO_DATE = Integer.MIN_VALUE;
+    private static final long NO_AMOUNT = Long.MIN_VALUE;
+
+    private final Dictionary<String> names = new Dictionary<>();
+    private final Dictionary<Currency> currencies = new Dictionary<>();
+    private volatile Page[] pages = new Page[16];
+    private volatile int size;
+    // Open-addressing index from id to record number + 1; zero marks an empty slot
+    private volatile int[] idIndex = new int[1 << 10];
+
+    public synchronized int add(Account account) {
+        final String id = account.getId();
+        if (id == null) {
+            throw new IllegalArgumentException("Account id is required.");
+        }
+        if (indexOf(id) != NONE) {
+            throw new IllegalArgumentException("Duplicate account id " + id);
+        }
+        final int index = size;
+        final int pageNumber = index >>> PAGE_BITS;
+        if (pageNumber == pages.length) {
+            pages = Arrays.copyOf(pages, pages.length * 2);
+        }
+        if (pages[pageNumber] == null) {
+            pages[pageNumber] = new Page();
+        }
+        final Page page = pages[pageNumber];
+        final int slot = index & PAGE_MASK;
+        page.id[slot] = page.putString(id);
+        page.taxId[slot] = page.putString(account.getTaxId());
+        page.firstName[slot] = names.encode(account.getFistName());
+        page.lastName[slot] = names.encode(account.getLastName());
+        page.dob[slot] = toEpochDay(account.getDob());
+        page.expectedRetirement[slot] = toEpochDay(account.getExpectedRetirement());
+        page.openingDate[slot] = toEpochDay(account.getOpeningDate());
+        page.ccy[slot] = (short) currencies.encode(account.getCcy());
+        final int scale = Money.scaleOf(account.getCcy());
+        page.availableCash[slot] = account.getAvailableCash() == null ? NO_AMOUNT : account.getAvailableCashUnits();
+        page.totalInvestmentValue[slot] = toUnits(account.getTotalInvestmentValue(), scale);
+        final Long limitUnits = account.getUpperAccountLimitUnits();
+        page.upperAccountLimit[slot] = limitUnits == null ? NO_AMOUNT : limitUnits;
+        final Set<String> investments = account.getInvestments();
+        final Holdings holdings = account.getHoldings();
+        if ((investments != null && !investments.isEmpty()) || holdings.size() > 0) {
+            page.extras.set(slot, new Extras(investments, holdings));
+        }
+        addToIndex(id, index);
+        size = index + 1;
+        return index;
+    }
+
+    public Account get(int index) {
+        if (index < 0 || index >= size) {
+            throw new IndexOutOfBoundsException("No account at " + index);
+        }
+        return view(index);
+    }
+
+    public int indexOf(String id) {
+        final byte[] key = id.getBytes(StandardCharsets.UTF_8);
+        final int[] table = idIndex;
+        final Page[] snapshot = pages;
+        final int mask = table.length - 1;
+        for (int slot = spread(id.hashCode()) & mask; table[slot] != 0; slot = (slot + 1) & mask) {
+            final int index = table[slot] - 1;
+            final Page page = snapshot[index >>> PAGE_BITS];
+            if (page.stringEquals(page.id[index & PAGE_MASK], key)) {
+                return index;
+            }
+        }
+        return NONE;
+    }
+
+    public Optional<Account> findById(String id) {
+        final int index = indexOf(id);
+        return index == NONE ? Optional.empty() : Optional.of(view(index));
+    }
+
+    public int size() {
+        return size;
+    }
+
+    // Visits every record through a single reused cursor, which must not be retained beyond the callback. It is
+    // not the record's canonical view, so anything that needs to lock the account should use get instead.
+    public void forEach(Consumer<Account> action) {
+        final int count = size;
+        final View view = new View(0);
+        for (int i = 0; i < count; i++) {
+            view.index = i;
+            action.accept(view);
+        }
+    }
+
+    private View view(int index) {
+        final AtomicReferenceArray<View> views = pages[index >>> PAGE_BITS].views;
+        final int slot = index & PAGE_MASK;
+        final View existing = views.get(slot);
+        if (existing != null) {
+            return existing;
+        }
+        final View created = new View(index);
+        return views.compareAndSet(slot, null, created) ? created : views.get(slot);
+    }
+
+    private void addToIndex(String id, int index) {
+        if ((size + 1) * 2 > idIndex.length) {
+            final int[] resized = new int[idIndex.length * 2];
+            for (int entry : idIndex) {
+                if (entry != 0) {
+                    final Page page = pages[(entry - 1) >>> PAGE_BITS];
+                    insert(resized, spread(page.getString(page.id[(entry - 1) & PAGE_MASK]).hashCode()), entry);
+                }
+            }
+            idIndex = resized;
+        }
+        insert(idIndex, spread(id.hashCode()), index + 1);
+    }
+
+    private static void insert(int[] table, int hash, int entry) {
+        final int mask = table.length - 1;
+        int slot = hash & mask;
+        while (table[slot] != 0) {
+            slot = (slot + 1) & mask;
+        }
+        table[slot] = entry;
+    }
+
+    private static int spread(int hash) {
+        return hash ^ (hash >>> 16);
+    }
+
+    private static int toEpochDay(LocalDate date) {
+        return date == null ? NO_DATE : Math.toIntExact(date.toEpochDay());
+    }
+
+    private static LocalDate toDate(int epochDay) {
+        return epochDay == NO_DATE ? null : LocalDate.ofEpochDay(epochDay);
+    }
+
+    private static long toUnits(BigDecimal amount, int scale) {
+        return amount == null ? NO_AMOUNT : Money.toMinorUnitsRoundingDown(amount, scale);
+    }
+
+    private static class Page {
+        private final int[] id = new int[PAGE_SIZE];
+        private final int[] taxId = new int[PAGE_SIZE];
+        private final int[] firstName = new int[PAGE_SIZE];
+        private final int[] lastName = new int[PAGE_SIZE];
+        private final int[] dob = new int[PAGE_SIZE];
+        private final int[] expectedRetirement = new int[PAGE_SIZE];
+        private final int[] openingDate = new int[PAGE_SIZE];
+        private final short[] ccy = new short[PAGE_SIZE];
+        private final long[] availableCash = new long[PAGE_SIZE];
+        private final long[] totalInvestmentValue = new long[PAGE_SIZE];
+        private final long[] upperAccountLimit = new long[PAGE_SIZE];
+        // Sparse: most resident accounts have no open investments, so this stays null until a view needs it
+        private final AtomicReferenceArray<Extras> extras = new AtomicReferenceArray<>(PAGE_SIZE);
+        // Canonical views, likewise only for records that have been looked up
+        private final AtomicReferenceArray<View> views = new AtomicReferenceArray<>(PAGE_SIZE);
+        private byte[] strings = new byte[PAGE_SIZE * 16];
+        private int stringsUsed;
+
+        // Strings are stored as a two-byte length followed by their UTF-8 bytes; returns the offset or NONE
+        synchronized int putString(String value) {
+            if (value == null) {
+                return NONE;
+            }
+            final byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+            if (bytes.length > 0xFFFF) {
+                throw new IllegalArgumentException("String too long to store: " + bytes.length + " bytes");
+            }
+            if (stringsUsed + 2 + bytes.length > strings.length) {
+                strings = Arrays.copyOf(strings, Math.max(strings.length * 2, stringsUsed + 2 + bytes.length));
+            }
+            final int offset = stringsUsed;
+            strings[offset] = (byte) (bytes.length >>> 8);
+            strings[offset + 1] = (byte) bytes.length;
+            System.arraycopy(bytes, 0, strings, offset + 2, bytes.length);
+            stringsUsed += 2 + bytes.length;
+            return offset;
+        }
+
+        synchronized String getString(int offset) {
+            if (offset == NONE) {
+                return null;
+            }
+            return new String(strings, offset + 2, lengthAt(offset), StandardCharsets.UTF_8);
+        }
+
+        synchronized boolean stringEquals(int offset, byte[] other) {
+            if (offset == NONE || lengthAt(offset) != other.length) {
+                return false;
+            }
+            return Arrays.equals(strings, offset + 2, offset + 2 + other.length, other, 0, other.length);
+        }
+
+        private int lengthAt(int offset) {
+            return ((strings[offset] & 0xFF) << 8) | (strings[offset + 1] & 0xFF);
+        }
+    }
+
+    private static class Extras {
+        private Set<String> investments;
+        private Holdings holdings;
+
+        private Extras(Set<String> investments, Holdings holdings) {
+            this.investments = investments;
+            this.holdings = holdings;
+        }
+    }
+
+    private static class Dictionary<T> {
+        private final Map<T, Integer> codes = new HashMap<>();
+        private final List<T> values = new ArrayList<>();
+
+        synchronized int encode(T value) {
+            if (value == null) {
+                return NONE;
+            }
+            return codes.computeIfAbsent(value, v -> {
+                values.add(v);
+                return values.size() - 1;
+            });
+        }
+
+        synchronized T decode(int code) {
+            return code == NONE ? null : values.get(code);
+        }
+    }
+
+    private class View extends Account {
+        private int index;
+
+        private View(int index) {
+            this.index = index;
+        }
+
+        private Page page() {
+            return pages[index >>> PAGE_BITS];
+        }
+
+        private int slot() {
+            return index & PAGE_MASK;
+        }
+
+        private int scale() {
+            return Money.scaleOf(getCcy());
+        }
+
+        @Override
+        public String getId() {
+            return page().getString(page().id[slot()]);
+        }
+
+        @Override
+        public void setId(String id) {
+            throw new UnsupportedOperationException("The id of a stored account cannot change.");
+        }
+
+        @Override
+        public String getFistName() {
+            return names.decode(page().firstName[slot()]);
+        }
+
+        @Override
+        public void setFistName(String fistName) {
+            page().firstName[slot()] = names.encode(fistName);
+        }
+
+        @Override
+        public String getLastName() {
+            return names.decode(page().lastName[slot()]);
+        }
+
+        @Override
+        public void setLastName(String lastName) {
+            page().lastName[slot()] = names.encode(lastName);
+        }
+
+        @Override
+        public LocalDate getDob() {
+            return toDate(page().dob[slot()]);
+        }
+
+        @Override
+        public void setDob(LocalDate dob) {
+            page().dob[slot()] = toEpochDay(dob);
+        }
+
+        @Override
+        public String getTaxId() {
+            return page().getString(page().taxId[slot()]);
+        }
+
+        // The previous value's bytes stay in the pool; tax ids change rarely enough for that not to matter
+        @Override
+        public void setTaxId(String taxId) {
+            page().taxId[slot()] = page().putString(taxId);
+        }
+
+        @Override
+        public BigDecimal getTotalInvestmentValue() {
+            final long units = page().totalInvestmentValue[slot()];
+            return units == NO_AMOUNT ? null : Money.toBigDecimal(units, scale());
+        }
+
+        @Override
+        public void setTotalInvestmentValue(BigDecimal totalInvestmentValue) {
+            page().totalInvestmentValue[slot()] = toUnits(totalInvestmentValue, scale());
+        }
+
+        @Override
+        public Currency getCcy() {
+            return currencies.decode(page().ccy[slot()]);
+        }
+
+        @Override
+        public void setCcy(Currency ccy) {
+            page().ccy[slot()] = (short) currencies.encode(ccy);
+        }
+
+        // Never null, unlike a bare Account: the set is created on first use so idle accounts do not carry one
+        @Override
+        public Set<String> getInvestments() {
+            final Extras extras = extras();
+            synchronized (extras) {
+                if (extras.investments == null) {
+                    extras.investments = new HashSet<>();
+                }
+                return extras.investments;
+            }
+        }
+
+        @Override
+        public void setInvestments(Set<String> investments) {
+            final Extras extras = extras();
+            synchronized (extras) {
+                extras.investments = investments;
+            }
+        }
+
+        @Override
+        public Holdings getHoldings() {
+            final Extras extras = extras();
+            synchronized (extras) {
+                if (extras.holdings == null) {
+                    extras.holdings = new Holdings();
+                }
+                return extras.holdings;
+            }
+        }
+
+        @Override
+        public Holdings getHoldingsIfCreated() {
+            final Extras extras = page().extras.get(slot());
+            if (extras == null) {
+                return null;
+            }
+            synchronized (extras) {
+                return extras.holdings;
+            }
+        }
+
+        @Override
+        public void setHoldings(Holdings holdings) {
+            final Extras extras = extras();
+            synchronized (extras) {
+                extras.holdings = holdings;
+            }
+        }
+
+        // Installed with a CAS, and its fields created under its monitor, so concurrent readers share one instance
+        private Extras extras() {
+            final AtomicReferenceArray<Extras> extras = page().extras;
+            final Extras existing = extras.get(slot());
+            if (existing != null) {
+                return existing;
+            }
+            final Extras created = new Extras(null, null);
+            return extras.compareAndSet(slot(), null, created) ? created : extras.get(slot());
+        }
+
+        @Override
+        public BigDecimal getAvailableCash() {
+            final long units = page().availableCash[slot()];
+            return units == NO_AMOUNT ? null : Money.toBigDecimal(units, scale());
+        }
+
+        @Override
+        public void setAvailableCash(BigDecimal availableCash) {
+            page().availableCash[slot()] = toUnits(availableCash, scale());
+        }
+
+        @Override
+        public long getAvailableCashUnits() {
+            final long units = page().availableCash[slot()];
+            return units == NO_AMOUNT ? 0L : units;
+        }
+
+        @Override
+        public void setAvailableCashUnits(long availableCashUnits) {
+            page().availableCash[slot()] = availableCashUnits;
+        }
+
+        @Override
+        public LocalDate getExpectedRetirement() {
+            return toDate(page().expectedRetirement[slot()]);
+        }
+
+        @Override
+        public void setExpectedRetirement(LocalDate expectedRetirement) {
+            page().expectedRetirement[slot()] = toEpochDay(expectedRetirement);
+        }
+
+        @Override
+        public Long getUpperAccountLimitUnits() {
+            final long units = page().upperAccountLimit[slot()];
+            return units == NO_AMOUNT ? null : units;
+        }
+
+        @Override
+        public void setUpperAccountLimitUnits(Long upperAccountLimitUnits) {
+            page().upperAccountLimit[slot()] = upperAccountLimitUnits == null ? NO_AMOUNT : upperAccountLimitUnits;
+        }
+
+        @Override
+        public LocalDate getOpeningDate() {
+            return toDate(page().openingDate[slot()]);
+        }
+
+        @Override
+        public void setOpeningDate(LocalDate openingDate) {
+            page().openingDate[slot()] = toEpochDay(openingDate);
+        }
+    }
+}
@@ -0,0 +1,124 @@
+package com.pluralsight.pension;
+
+import java.util.function.ObjLongConsumer;
+
+// Fund units held by one account, in millionths of a unit. Kept in an open-addressing table of parallel arrays
+// so a typical account with a few funds costs two small arrays rather than a map of boxed entries.
+// Not thread-safe; callers synchronize on the owning account.
+public class Holdings {
+
+    public static final int UNIT_SCALE = 6;
+    public static final long UNITS_PER_FUND_UNIT = 1_000_000L;
+    private static final int INITIAL_CAPACITY = 4;
+
+    private String[] funds = new String[INITIAL_CAPACITY];
+    private long[] units = new long[INITIAL_CAPACITY];
+    private int size;
+    private long valueUnits;
+
+    public long getUnits(String fundId) {
+        final int slot = find(fundId);
+        return slot >= 0 ? units[slot] : 0L;
+    }
+
+    public boolean contains(String fundId) {
+        return find(fundId) >= 0;
+    }
+
+    // Returns the new holding; a holding that reaches zero is removed
+    public long addUnits(String fundId, long delta) {
+        int slot = find(fundId);
+        if (slot < 0) {
+            if (delta == 0) {
+                return 0L;
+            }
+            if ((size + 1) * 2 > funds.length) {
+                resize(funds.length * 2);
+            }
+            slot = -1 - find(fundId);
+            funds[slot] = fundId;
+            units[slot] = delta;
+            size++;
+            return delta;
+        }
+        final long updated = Math.addExact(units[slot], delta);
+        if (updated == 0) {
+            remove(slot);
+        } else {
+            units[slot] = updated;
+        }
+        return updated;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public void forEach(ObjLongConsumer<String> action) {
+        for (int i = 0; i < funds.length; i++) {
+            if (funds[i] != null) {
+                action.accept(funds[i], units[i]);
+            }
+        }
+    }
+
+    // Market value in minor units of the account currency, maintained by the valuation engine
+    public long getValueUnits() {
+        return valueUnits;
+    }
+
+    public void setValueUnits(long valueUnits) {
+        this.valueUnits = valueUnits;
+    }
+
+    // Slot of the fund, or -1 - (the empty slot where it would go)
+    private int find(String fundId) {
+        final int mask = funds.length - 1;
+        int slot = slotFor(fundId, mask);
+        while (funds[slot] != null) {
+            if (funds[slot].equals(fundId)) {
+                return slot;
+            }
+            slot = (slot + 1) & mask;
+        }
+        return -1 - slot;
+    }
+
+    // Backward-shift deletion keeps probe sequences intact without tombstones
+    private void remove(int slot) {
+        final int mask = funds.length - 1;
+        int gap = slot;
+        int i = (gap + 1) & mask;
+        while (funds[i] != null) {
+            final int ideal = slotFor(funds[i], mask);
+            if (((i - ideal) & mask) >= ((i - gap) & mask)) {
+                funds[gap] = funds[i];
+                units[gap] = units[i];
+                gap = i;
+            }
+            i = (i + 1) & mask;
+        }
+        funds[gap] = null;
+        units[gap] = 0L;
+        size--;
+    }
+
+    private void resize(int capacity) {
+        final String[] oldFunds = funds;
+        final long[] oldUnits = units;
+        funds = new String[capacity];
+        units = new long[capacity];
+        for (int i = 0; i < oldFunds.length; i++) {
+            if (oldFunds[i] != null) {
+                final int slot = -1 - find(oldFunds[i]);
+                funds[slot] = oldFunds[i];
+                units[slot] = oldUnits[i];
+            }
+        }
+    }
+
+    private static int slotFor(String fundId, int mask) {
+        final int hash = fundId.hashCode();
+        return (hash ^ (hash >>> 16)) & mask;
+    }
+}
@@ -0,0 +1,198 @@
+package com.pluralsight.pension;
+
+import com.pluralsight.pension.setup.BackgroundCheckResults;
+
+import java.math.BigDecimal;
+import java.time.Clock;
+import java.time.LocalDate;
+import java.time.Period;
+import java.util.ArrayList;
+import java.util.Currency;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.function.Consumer;
+
+import static com.pluralsight.pension.withdrawal.AccountClosingService.RETIREMENT_AGE;
+
+// Keeps accounts in concurrent maps: a primary index by id, a unique index by tax id and sorted indexes by
+// date of birth and expected retirement for range scans. Reads never lock; saves of the same id are
+// serialised by the primary map so the secondary indexes always follow the last saved values.
+public class InMemoryAccountRepository implements AccountRepository {
+
+    private static final Currency DEFAULT_CCY = Currency.getInstance("USD");
+
+    private final Clock clock;
+    private final Period accountValidity;
+    private final ConcurrentHashMap<String, IndexedAccount> accountsById = new ConcurrentHashMap<>();
+    private final ConcurrentHashMap<String, String> idsByTaxId = new ConcurrentHashMap<>();
+    // Dates are a small key space, so emptied id sets are left in place rather than racing to remove them
+    private final ConcurrentSkipListMap<LocalDate, Set<String>> idsByDob = new ConcurrentSkipListMap<>();
+    private final ConcurrentSkipListMap<LocalDate, Set<String>> idsByExpectedRetirement = new ConcurrentSkipListMap<>();
+
+    public InMemoryAccountRepository(Clock clock, Period accountValidity) {
+        this.clock = clock;
+        this.accountValidity = accountValidity;
+    }
+
+    @Override
+    public boolean save(String id, String firstName, String lastName, String taxId, LocalDate dob,
+                        BackgroundCheckResults backgroundCheckResults) {
+        Account account = new Account();
+        account.setId(id);
+        account.setFistName(firstName);
+        account.setLastName(lastName);
+        account.setTaxId(taxId);
+        account.setDob(dob);
+        account.setOpeningDate(LocalDate.now(clock));
+        account.setExpectedRetirement(dob != null ? dob.plusYears(RETIREMENT_AGE) : null);
+        account.setCcy(DEFAULT_CCY);
+        account.setAvailableCash(BigDecimal.ZERO);
+        account.setTotalInvestmentValue(BigDecimal.ZERO);
+        account.setInvestments(new HashSet<>());
+        return save(account);
+    }
+
+    @Override
+    public boolean isExpired(Account account) {
+        return account.getOpeningDate() != null &&
+                !account.getOpeningDate().plus(accountValidity).isAfter(LocalDate.now(clock));
+    }
+
+    // Returns false without saving if another account already holds the same tax id
+    @Override
+    public boolean save(Account account) {
+        final String id = account.getId();
+        if (id == null) {
+            throw new IllegalArgumentException("Account must have an id to be saved.");
+        }
+        final boolean[] saved = {false};
+        accountsById.compute(id, (key, existing) -> {
+            final IndexedAccount updated = new IndexedAccount(account);
+            if (updated.taxId != null) {
+                final String owner = idsByTaxId.putIfAbsent(updated.taxId, id);
+                if (owner != null && !owner.equals(id)) {
+                    return existing;
+                }
+            }
+            if (existing != null) {
+                if (existing.taxId != null && !existing.taxId.equals(updated.taxId)) {
+                    idsByTaxId.remove(existing.taxId, id);
+                }
+                if (!Objects.equals(existing.dob, updated.dob)) {
+                    unindex(idsByDob, existing.dob, id);
+                }
+                if (!Objects.equals(existing.expectedRetirement, updated.expectedRetirement)) {
+                    unindex(idsByExpectedRetirement, existing.expectedRetirement, id);
+                }
+            }
+            index(idsByDob, updated.dob, id);
+            index(idsByExpectedRetirement, updated.expectedRetirement, id);
+            saved[0] = true;
+            return updated;
+        });
+        return saved[0];
+    }
+
+    @Override
+    public Optional<Account> findById(String id) {
+        final IndexedAccount indexed = accountsById.get(id);
+        return indexed != null ? Optional.of(indexed.account) : Optional.empty();
+    }
+
+    @Override
+    public Optional<Account> findByTaxId(String taxId) {
+        final String id = idsByTaxId.get(taxId);
+        return id != null ? findById(id) : Optional.empty();
+    }
+
+    @Override
+    public List<Account> findByDobBetween(LocalDate fromInclusive, LocalDate toInclusive) {
+        final List<Account> found = new ArrayList<>();
+        for (Set<String> ids : idsByDob.subMap(fromInclusive, true, toInclusive, true).values()) {
+            for (String id : ids) {
+                final IndexedAccount indexed = accountsById.get(id);
+                if (indexed != null && within(indexed.dob, fromInclusive, toInclusive)) {
+                    found.add(indexed.account);
+                }
+            }
+        }
+        return found;
+    }
+
+    @Override
+    public List<Account> findByExpectedRetirementBetween(LocalDate fromInclusive, LocalDate toInclusive) {
+        final List<Account> found = new ArrayList<>();
+        for (Set<String> ids : idsByExpectedRetirement.subMap(fromInclusive, true, toInclusive, true).values()) {
+            for (String id : ids) {
+                final IndexedAccount indexed = accountsById.get(id);
+                if (indexed != null && within(indexed.expectedRetirement, fromInclusive, toInclusive)) {
+                    found.add(indexed.account);
+                }
+            }
+        }
+        return found;
+    }
+
+    // Drops the account and its index entries; for undoing a save whose durable write failed
+    public boolean delete(String id) {
+        final boolean[] deleted = {false};
+        accountsById.computeIfPresent(id, (key, existing) -> {
+            if (existing.taxId != null) {
+                idsByTaxId.remove(existing.taxId, id);
+            }
+            unindex(idsByDob, existing.dob, id);
+            unindex(idsByExpectedRetirement, existing.expectedRetirement, id);
+            deleted[0] = true;
+            return null;
+        });
+        return deleted[0];
+    }
+
+    public int size() {
+        return accountsById.size();
+    }
+
+    public void forEach(Consumer<Account> action) {
+        accountsById.values().forEach(indexed -> action.accept(indexed.account));
+    }
+
+    private static void index(ConcurrentSkipListMap<LocalDate, Set<String>> index, LocalDate date, String id) {
+        if (date != null) {
+            index.computeIfAbsent(date, key -> ConcurrentHashMap.newKeySet()).add(id);
+        }
+    }
+
+    private static void unindex(ConcurrentSkipListMap<LocalDate, Set<String>> index, LocalDate date, String id) {
+        if (date != null) {
+            final Set<String> ids = index.get(date);
+            if (ids != null) {
+                ids.remove(id);
+            }
+        }
+    }
+
+    // A reader can race a save that moves an account between dates, so the indexed value is checked again
+    private static boolean within(LocalDate date, LocalDate fromInclusive, LocalDate toInclusive) {
+        return date != null && !date.isBefore(fromInclusive) && !date.isAfter(toInclusive);
+    }
+
+    // The values an account was indexed under, so a later save can remove exactly those entries
+    private static class IndexedAccount {
+        private final Account account;
+        private final String taxId;
+        private final LocalDate dob;
+        private final LocalDate expectedRetirement;
+
+        private IndexedAccount(Account account) {
+            this.account = account;
+            this.taxId = account.getTaxId();
+            this.dob = account.getDob();
+            this.expectedRetirement = account.getExpectedRetirement();
+        }
+    }
+}
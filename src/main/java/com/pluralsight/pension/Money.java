@@ -0,0 +1,121 @@
+package com.pluralsight.pension;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.Currency;
+import java.util.Objects;
+
+// Fixed-point amount held as a long count of minor units (cents for USD). The static helpers let hot paths
+// work on the raw long without allocating; instances are for API edges that want a value object.
+public final class Money implements Comparable<Money> {
+
+    public static final int DEFAULT_SCALE = 2;
+
+    private final long units;
+    private final int scale;
+    private final Currency currency;
+
+    private Money(long units, int scale, Currency currency) {
+        this.units = units;
+        this.scale = scale;
+        this.currency = currency;
+    }
+
+    public static Money ofMinorUnits(long units, Currency currency) {
+        return new Money(units, scaleOf(currency), currency);
+    }
+
+    public static Money of(BigDecimal amount, Currency currency) {
+        final int scale = scaleOf(currency);
+        return new Money(toMinorUnits(amount, scale), scale, currency);
+    }
+
+    public static int scaleOf(Currency currency) {
+        if (currency == null || currency.getDefaultFractionDigits() < 0) {
+            return DEFAULT_SCALE;
+        }
+        return currency.getDefaultFractionDigits();
+    }
+
+    // Throws ArithmeticException rather than silently dropping digits the scale cannot hold
+    public static long toMinorUnits(BigDecimal amount, int scale) {
+        return amount.setScale(scale, RoundingMode.UNNECESSARY).unscaledValue().longValueExact();
+    }
+
+    // For amounts worked out with MATH_CONTEXT: truncates toward zero as it does, so converting never adds money
+    public static long toMinorUnitsRoundingDown(BigDecimal amount, int scale) {
+        return amount.setScale(scale, RoundingMode.DOWN).unscaledValue().longValueExact();
+    }
+
+    public static BigDecimal toBigDecimal(long units, int scale) {
+        return BigDecimal.valueOf(units, scale);
+    }
+
+    public static long add(long units, long otherUnits) {
+        return Math.addExact(units, otherUnits);
+    }
+
+    public static long subtract(long units, long otherUnits) {
+        return Math.subtractExact(units, otherUnits);
+    }
+
+    public Money plus(Money other) {
+        checkSameCurrency(other);
+        return new Money(add(units, other.units), scale, currency);
+    }
+
+    public Money minus(Money other) {
+        checkSameCurrency(other);
+        return new Money(subtract(units, other.units), scale, currency);
+    }
+
+    public long getMinorUnits() {
+        return units;
+    }
+
+    public int getScale() {
+        return scale;
+    }
+
+    public Currency getCurrency() {
+        return currency;
+    }
+
+    public BigDecimal toBigDecimal() {
+        return toBigDecimal(units, scale);
+    }
+
+    @Override
+    public int compareTo(Money other) {
+        checkSameCurrency(other);
+        return Long.compare(units, other.units);
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (!(o instanceof Money)) {
+            return false;
+        }
+        Money money = (Money) o;
+        return units == money.units && scale == money.scale && Objects.equals(currency, money.currency);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(units, scale, currency);
+    }
+
+    @Override
+    public String toString() {
+        return toBigDecimal().toPlainString() + (currency != null ? " " + currency.getCurrencyCode() : "");
+    }
+
+    private void checkSameCurrency(Money other) {
+        if (!Objects.equals(currency, other.currency) || scale != other.scale) {
+            throw new IllegalArgumentException("Cannot combine " + currency + " with " + other.currency);
+        }
+    }
+}
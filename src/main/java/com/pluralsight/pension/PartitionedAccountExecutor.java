@@ -0,0 +1,79 @@
+package com.pluralsight.pension;
+
+import java.io.Closeable;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+
+// Routes every mutation of an account to one of a fixed number of single-threaded partitions, chosen by the
+// account id. Mutations of the same account run one at a time in submission order; mutations of accounts in
+// different partitions run in parallel without sharing a lock.
+public class PartitionedAccountExecutor implements Closeable {
+
+    private static final ThreadLocal<Integer> CURRENT_PARTITION = new ThreadLocal<>();
+
+    private final ExecutorService[] partitions;
+
+    public PartitionedAccountExecutor(int partitionCount) {
+        if (partitionCount < 1) {
+            throw new IllegalArgumentException("Partition count must be at least 1.");
+        }
+        this.partitions = new ExecutorService[partitionCount];
+        for (int i = 0; i < partitionCount; i++) {
+            final int partition = i;
+            partitions[i] = Executors.newSingleThreadExecutor(runnable -> {
+                Thread thread = new Thread(() -> {
+                    CURRENT_PARTITION.set(partition);
+                    runnable.run();
+                }, "account-partition-" + partition);
+                thread.setDaemon(true);
+                return thread;
+            });
+        }
+    }
+
+    public <T> CompletableFuture<T> submit(Account account, Callable<T> mutation) {
+        final int partition = partitionOf(account.getId());
+        final CompletableFuture<T> result = new CompletableFuture<>();
+        // A mutation that triggers another one on the same partition runs it in place rather than deadlocking
+        if (Integer.valueOf(partition).equals(CURRENT_PARTITION.get())) {
+            run(mutation, result);
+            return result;
+        }
+        try {
+            partitions[partition].execute(() -> run(mutation, result));
+        } catch (RejectedExecutionException e) {
+            result.completeExceptionally(e);
+        }
+        return result;
+    }
+
+    public int getPartitionCount() {
+        return partitions.length;
+    }
+
+    int partitionOf(String accountId) {
+        if (accountId == null) {
+            throw new IllegalArgumentException("Account must have an id to be partitioned.");
+        }
+        final int hash = accountId.hashCode();
+        return Math.floorMod(hash ^ (hash >>> 16), partitions.length);
+    }
+
+    @Override
+    public void close() {
+        for (ExecutorService partition : partitions) {
+            partition.shutdown();
+        }
+    }
+
+    private static <T> void run(Callable<T> mutation, CompletableFuture<T> result) {
+        try {
+            result.complete(mutation.call());
+        } catch (Throwable t) {
+            result.completeExceptionally(t);
+        }
+    }
+}
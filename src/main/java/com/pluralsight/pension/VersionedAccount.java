@@ -0,0 +1,53 @@
+package com.pluralsight.pension;
+
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Consumer;
+import java.util.function.Function;
+
+// Holds the latest AccountSnapshot of one account. Readers call get() and never block. The live Account stays the
+// single source of truth: whoever mutates it publishes a copy afterwards, and a later publish always supersedes an
+// earlier one. update is the optimistic alternative for changes worked out from a snapshot: the change is computed
+// without any lock and applied only if no other publish happened meanwhile, otherwise it is retried.
+public class VersionedAccount {
+
+    private final AtomicReference<AccountSnapshot> current;
+
+    public VersionedAccount(Account account) {
+        this.current = new AtomicReference<>(AccountSnapshot.of(account, 0));
+    }
+
+    public AccountSnapshot get() {
+        return current.get();
+    }
+
+    // For writers that mutate a live Account under their own serialisation, such as its AccountLocks stripe
+    public AccountSnapshot publish(Account account) {
+        while (true) {
+            final AccountSnapshot expected = current.get();
+            final AccountSnapshot next = AccountSnapshot.of(account, expected.getVersion() + 1);
+            if (current.compareAndSet(expected, next)) {
+                return next;
+            }
+        }
+    }
+
+    // lock must be the one every writer of the account publishes under, or a conflict can go unnoticed. The
+    // account monitor is taken inside it as well, as price ticks revalue the account under that.
+    public AccountSnapshot update(Account account, Object lock, Function<AccountSnapshot, Consumer<Account>> change) {
+        while (true) {
+            final AccountSnapshot expected = current.get();
+            final Consumer<Account> mutation = change.apply(expected);
+            synchronized (lock) {
+                synchronized (account) {
+                    if (current.get() != expected) {
+                        continue;
+                    }
+                    mutation.accept(account);
+                    final AccountSnapshot next = AccountSnapshot.of(account, expected.getVersion() + 1);
+                    current.set(next);
+                    return next;
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,27 @@
+package com.pluralsight.pension.investment;
+
+import com.pluralsight.pension.Account;
+
+// Striped booking locks shared by every service in this package. ExternalInvestmentManagementService holds the
+// account's stripe while it books a trade's cash and units, after the broker has answered, and decorators hold it
+// while they read or publish the account, so they only ever see whole trades. Never held across I/O. It is taken
+// before fund state and the account monitor, which PortfolioValuationEngine takes in that order.
+final class AccountLocks {
+
+    private static final int STRIPES = 1024;
+    private static final Object[] LOCKS = new Object[STRIPES];
+
+    static {
+        for (int i = 0; i < STRIPES; i++) {
+            LOCKS[i] = new Object();
+        }
+    }
+
+    private AccountLocks() {
+    }
+
+    // By identity, as the account monitor would be
+    static Object forAccount(Account account) {
+        return LOCKS[(System.identityHashCode(account) & 0x7fffffff) % STRIPES];
+    }
+}
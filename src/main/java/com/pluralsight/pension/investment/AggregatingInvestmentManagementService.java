@@ -0,0 +1,118 @@
+package com.pluralsight.pension.investment;
+
+import com.pluralsight.pension.Account;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.util.Currency;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+// Keeps AumAggregates in step with every trade. After each trade the account's cash and its position in the
+// traded fund are compared with what the aggregates last counted for that account, and only the difference is
+// applied; a failed or rejected trade leaves nothing to apply. The comparison runs under the account's booking
+// lock rather than around the delegate, so no lock is held across the broker call, and concurrent trades on one
+// account are each counted once whichever finishes first. The minor-unit overloads of
+// ExternalInvestmentManagementService are not part of InvestmentManagementService and so never pass through here:
+// what they change is only counted when a later trade here on the same account, and fund, catches up with it, and
+// reconcile reports the drift until then.
+public class AggregatingInvestmentManagementService implements InvestmentManagementService {
+
+    private final InvestmentManagementService delegate;
+    private final AumAggregates aggregates;
+    // By account id, so trades on different accounts share no lock; each entry is guarded by its account's stripe
+    private final Map<String, Counted> counted = new ConcurrentHashMap<>();
+
+    public AggregatingInvestmentManagementService(InvestmentManagementService delegate, AumAggregates aggregates) {
+        this.delegate = delegate;
+        this.aggregates = aggregates;
+    }
+
+    @Override
+    public void addFunds(Account account, BigDecimal investmentAmount, Currency investmentCcy) {
+        startCounting(account, null);
+        try {
+            delegate.addFunds(account, investmentAmount, investmentCcy);
+        } finally {
+            catchUp(account, null);
+        }
+    }
+
+    @Override
+    public boolean buyInvestmentFund(Account account, String fundId, BigDecimal investmentAmount) throws IOException {
+        startCounting(account, fundId);
+        try {
+            return delegate.buyInvestmentFund(account, fundId, investmentAmount);
+        } finally {
+            catchUp(account, fundId);
+        }
+    }
+
+    @Override
+    public boolean sellInvestmentFund(Account account, String fundId, BigDecimal investmentAmount) throws IOException {
+        startCounting(account, fundId);
+        try {
+            return delegate.sellInvestmentFund(account, fundId, investmentAmount);
+        } finally {
+            catchUp(account, fundId);
+        }
+    }
+
+    // The first trade seen on an account, or on a fund within it, takes the state before it as already counted
+    private void startCounting(Account account, String fundId) {
+        synchronized (AccountLocks.forAccount(account)) {
+            final Counted state = counted.computeIfAbsent(account.getId(), id -> new Counted(Position.of(account, null)));
+            if (fundId != null && !state.funds.containsKey(fundId)) {
+                state.funds.put(fundId, Position.of(account, fundId));
+            }
+        }
+    }
+
+    private void catchUp(Account account, String fundId) {
+        synchronized (AccountLocks.forAccount(account)) {
+            final Counted state = counted.get(account.getId());
+            final Position now = Position.of(account, fundId);
+            aggregates.onCashChange(AumAggregates.ccyOf(account), now.cashUnits - state.cashUnits);
+            state.cashUnits = now.cashUnits;
+            if (fundId != null) {
+                final Position last = state.funds.put(fundId, now);
+                aggregates.onHoldingChange(fundId, now.fundUnits - last.fundUnits,
+                        (now.holder ? 1 : 0) - (last.holder ? 1 : 0));
+            }
+        }
+    }
+
+    private static class Counted {
+        private long cashUnits;
+        private final Map<String, Position> funds = new HashMap<>();
+
+        private Counted(Position position) {
+            this.cashUnits = position.cashUnits;
+        }
+    }
+
+    private static class Position {
+        private final long cashUnits;
+        private final long fundUnits;
+        private final boolean holder;
+
+        private Position(long cashUnits, long fundUnits, boolean holder) {
+            this.cashUnits = cashUnits;
+            this.fundUnits = fundUnits;
+            this.holder = holder;
+        }
+
+        // Read under the account monitor, which price ticks take while revaluing the account
+        private static Position of(Account account, String fundId) {
+            synchronized (account) {
+                if (fundId == null) {
+                    return new Position(AumAggregates.cashUnitsOf(account), 0L, false);
+                }
+                return new Position(AumAggregates.cashUnitsOf(account),
+                        account.getHoldings().getUnits(fundId),
+                        account.getInvestments() != null && account.getInvestments().contains(fundId));
+            }
+        }
+    }
+}
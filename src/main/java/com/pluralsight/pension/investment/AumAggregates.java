@@ -0,0 +1,157 @@
+package com.pluralsight.pension.investment;
+
+import com.pluralsight.pension.Account;
+import com.pluralsight.pension.Money;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Currency;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+// Running totals of assets under management: cash per currency, and units held and holder count per fund.
+// Trades add their deltas to striped LongAdders, so concurrent trades on different accounts never contend on a
+// shared total, and every query is a single sum over the stripes.
+public class AumAggregates {
+
+    private final Map<Currency, LongAdder> cashUnits = new ConcurrentHashMap<>();
+    private final Map<String, FundTotals> funds = new ConcurrentHashMap<>();
+
+    // Adds an account that existed before the aggregates were started
+    public void track(Account account) {
+        synchronized (account) {
+            add(cashUnits, ccyOf(account), cashUnitsOf(account));
+            if (account.getInvestments() != null) {
+                for (String fundId : account.getInvestments()) {
+                    fund(fundId).holders.increment();
+                }
+            }
+            account.getHoldings().forEach((fundId, units) -> fund(fundId).units.add(units));
+        }
+    }
+
+    // Minor units of the currency, with each account's cash rounded to the currency scale
+    public long getTotalCashUnits(Currency ccy) {
+        final LongAdder total = cashUnits.get(ccy);
+        return total != null ? total.sum() : 0L;
+    }
+
+    public BigDecimal getTotalCash(Currency ccy) {
+        return Money.toBigDecimal(getTotalCashUnits(ccy), Money.scaleOf(ccy));
+    }
+
+    // Fund units in millionths, as in Holdings; only trades booked through a valuation engine carry units
+    public long getFundUnits(String fundId) {
+        final FundTotals fund = funds.get(fundId);
+        return fund != null ? fund.units.sum() : 0L;
+    }
+
+    public long getHolderCount(String fundId) {
+        final FundTotals fund = funds.get(fundId);
+        return fund != null ? fund.holders.sum() : 0L;
+    }
+
+    public Set<String> getFundIds() {
+        return Collections.unmodifiableSet(funds.keySet());
+    }
+
+    // Recomputes every total from the accounts in parallel and lists where the running totals differ. Trades that
+    // are in flight while this runs can show up as differences, so run it while quiet or recheck what it reports.
+    public AumReconciliation reconcile(Collection<Account> accounts) {
+        final Tally scanned = accounts.parallelStream().collect(Tally::new, Tally::add, Tally::merge);
+        final List<String> mismatches = new ArrayList<>();
+        final Set<Currency> currencies = new HashSet<>(cashUnits.keySet());
+        currencies.addAll(scanned.cashUnits.keySet());
+        for (Currency ccy : currencies) {
+            compare(mismatches, "cash " + ccy, getTotalCashUnits(ccy), scanned.cashUnits.getOrDefault(ccy, 0L));
+        }
+        final Set<String> fundIds = new HashSet<>(funds.keySet());
+        fundIds.addAll(scanned.fundUnits.keySet());
+        fundIds.addAll(scanned.holders.keySet());
+        for (String fundId : fundIds) {
+            compare(mismatches, "units " + fundId, getFundUnits(fundId), scanned.fundUnits.getOrDefault(fundId, 0L));
+            compare(mismatches, "holders " + fundId, getHolderCount(fundId), scanned.holders.getOrDefault(fundId, 0L));
+        }
+        return new AumReconciliation(accounts.size(), mismatches);
+    }
+
+    void onCashChange(Currency ccy, long deltaUnits) {
+        if (deltaUnits != 0) {
+            add(cashUnits, ccy, deltaUnits);
+        }
+    }
+
+    void onHoldingChange(String fundId, long unitsDelta, int holdersDelta) {
+        if (unitsDelta != 0 || holdersDelta != 0) {
+            final FundTotals fund = fund(fundId);
+            fund.units.add(unitsDelta);
+            fund.holders.add(holdersDelta);
+        }
+    }
+
+    // Accounts opened before currencies were recorded are USD, as in ExternalInvestmentManagementService
+    static Currency ccyOf(Account account) {
+        return account.getCcy() != null ? account.getCcy() : ExternalInvestmentManagementService.USD;
+    }
+
+    static long cashUnitsOf(Account account) {
+        final BigDecimal cash = account.getAvailableCash();
+        if (cash == null) {
+            return 0L;
+        }
+        final int scale = Money.scaleOf(ccyOf(account));
+        return Money.toMinorUnits(cash.setScale(scale, RoundingMode.HALF_EVEN), scale);
+    }
+
+    private FundTotals fund(String fundId) {
+        return funds.computeIfAbsent(fundId, id -> new FundTotals());
+    }
+
+    private static void add(Map<Currency, LongAdder> totals, Currency ccy, long units) {
+        totals.computeIfAbsent(ccy, key -> new LongAdder()).add(units);
+    }
+
+    private static void compare(List<String> mismatches, String name, long aggregate, long scanned) {
+        if (aggregate != scanned) {
+            mismatches.add(name + ": aggregate " + aggregate + ", scan " + scanned);
+        }
+    }
+
+    private static class FundTotals {
+        private final LongAdder units = new LongAdder();
+        private final LongAdder holders = new LongAdder();
+    }
+
+    // Per-thread partial totals of the reconciliation scan
+    private static class Tally {
+        private final Map<Currency, Long> cashUnits = new HashMap<>();
+        private final Map<String, Long> fundUnits = new HashMap<>();
+        private final Map<String, Long> holders = new HashMap<>();
+
+        private void add(Account account) {
+            synchronized (account) {
+                cashUnits.merge(ccyOf(account), cashUnitsOf(account), Long::sum);
+                if (account.getInvestments() != null) {
+                    for (String fundId : account.getInvestments()) {
+                        holders.merge(fundId, 1L, Long::sum);
+                    }
+                }
+                account.getHoldings().forEach((fundId, units) -> fundUnits.merge(fundId, units, Long::sum));
+            }
+        }
+
+        private void merge(Tally other) {
+            other.cashUnits.forEach((ccy, units) -> cashUnits.merge(ccy, units, Long::sum));
+            other.fundUnits.forEach((fundId, units) -> fundUnits.merge(fundId, units, Long::sum));
+            other.holders.forEach((fundId, count) -> holders.merge(fundId, count, Long::sum));
+        }
+    }
+}
@@ -0,0 +1,28 @@
+package com.pluralsight.pension.investment;
+
+import java.util.Collections;
+import java.util.List;
+
+public class AumReconciliation {
+
+    private final int accountCount;
+    private final List<String> mismatches;
+
+    public AumReconciliation(int accountCount, List<String> mismatches) {
+        this.accountCount = accountCount;
+        this.mismatches = Collections.unmodifiableList(mismatches);
+    }
+
+    public boolean isConsistent() {
+        return mismatches.isEmpty();
+    }
+
+    public int getAccountCount() {
+        return accountCount;
+    }
+
+    // One line per total that differs, naming the total and both values
+    public List<String> getMismatches() {
+        return mismatches;
+    }
+}
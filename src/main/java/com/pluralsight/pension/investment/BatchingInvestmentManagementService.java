@@ -0,0 +1,204 @@
+package com.pluralsight.pension.investment;
+
+import com.pluralsight.pension.Account;
+import com.pluralsight.pension.BlockingServiceAdapter;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Currency;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+import static com.pluralsight.pension.investment.ExternalInvestmentManagementService.MATH_CONTEXT;
+
+// Collects buy and sell orders for a short window (or until enough have arrived), nets them per fund and sends
+// one order per fund to the broker. Each caller still blocks for, and gets, the outcome of its own order.
+// A buy's cash is taken from the account when it is submitted and given back if the order fails, so orders
+// waiting in the same batch cannot spend the same cash twice.
+public class BatchingInvestmentManagementService implements InvestmentManagementService, Closeable {
+
+    private static final String BUY = "BUY";
+    private static final String SELL = "SELL";
+
+    private final BrokerClient brokerClient;
+    private final InvestmentManagementService fundsService;
+    private final int maxBatchSize;
+    private final ScheduledExecutorService scheduler;
+    private final Object lock = new Object();
+    private List<PendingOrder> pending = new ArrayList<>();
+    private boolean closed;
+
+    public BatchingInvestmentManagementService(BrokerClient brokerClient, Duration window, int maxBatchSize) {
+        this.brokerClient = brokerClient;
+        this.fundsService = new ExternalInvestmentManagementService(brokerClient);
+        this.maxBatchSize = maxBatchSize;
+        this.scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "order-batcher");
+            thread.setDaemon(true);
+            return thread;
+        });
+        this.scheduler.scheduleAtFixedRate(this::flushOnSchedule, window.toNanos(), window.toNanos(),
+                TimeUnit.NANOSECONDS);
+    }
+
+    @Override
+    public void addFunds(Account account, BigDecimal investmentAmount, Currency investmentCcy) {
+        fundsService.addFunds(account, investmentAmount, investmentCcy);
+    }
+
+    @Override
+    public boolean buyInvestmentFund(Account account, String fundId, BigDecimal investmentAmount) throws IOException {
+        return BlockingServiceAdapter.await(submit(account, fundId, investmentAmount, BUY));
+    }
+
+    @Override
+    public boolean sellInvestmentFund(Account account, String fundId, BigDecimal investmentAmount) throws IOException {
+        return BlockingServiceAdapter.await(submit(account, fundId, investmentAmount, SELL));
+    }
+
+    // Throws IllegalArgumentException, as the blocking methods do, for an unknown direction, a buy without enough
+    // cash or a sale of a fund the account does not hold; fails the future once the service is closed
+    public CompletableFuture<Boolean> submit(Account account, String fundId, BigDecimal investmentAmount,
+                                             String direction) {
+        if (!BUY.equals(direction) && !SELL.equals(direction)) {
+            throw new IllegalArgumentException("Direction must be BUY or SELL, not " + direction);
+        }
+        final PendingOrder order = new PendingOrder(account, fundId, investmentAmount, direction);
+        final boolean full;
+        synchronized (lock) {
+            if (closed) {
+                return CompletableFuture.failedFuture(new IOException("Order batcher is closed"));
+            }
+            synchronized (AccountLocks.forAccount(account)) {
+                if (order.direction.equals(BUY)) {
+                    if (account.getAvailableCash().compareTo(investmentAmount) < 0) {
+                        throw new IllegalArgumentException("Not enough cash in account.");
+                    }
+                    account.setAvailableCash(account.getAvailableCash().subtract(investmentAmount, MATH_CONTEXT));
+                } else if (!account.getInvestments().contains(fundId)) {
+                    throw new IllegalArgumentException("Account doesn't have any holdings in " + fundId);
+                }
+            }
+            pending.add(order);
+            full = pending.size() >= maxBatchSize;
+        }
+        if (full) {
+            flush();
+        }
+        return order.result;
+    }
+
+    public void flush() {
+        final List<PendingOrder> batch;
+        synchronized (lock) {
+            if (pending.isEmpty()) {
+                return;
+            }
+            batch = pending;
+            pending = new ArrayList<>();
+        }
+
+        final Map<String, List<PendingOrder>> ordersByFund = new LinkedHashMap<>();
+        for (PendingOrder order : batch) {
+            ordersByFund.computeIfAbsent(order.fundId, fundId -> new ArrayList<>()).add(order);
+        }
+        ordersByFund.forEach(this::execute);
+    }
+
+    // A task that throws is never run again, so a failure here must not escape to the scheduler
+    private void flushOnSchedule() {
+        try {
+            flush();
+        } catch (RuntimeException e) {
+            // the batch's orders have already been failed and refunded
+        }
+    }
+
+    @Override
+    public void close() {
+        synchronized (lock) {
+            closed = true;
+        }
+        scheduler.shutdown();
+        flush();
+    }
+
+    private void execute(String fundId, List<PendingOrder> orders) {
+        BigDecimal netAmount = BigDecimal.ZERO;
+        for (PendingOrder order : orders) {
+            netAmount = order.direction.equals(BUY)
+                    ? netAmount.add(order.amount, MATH_CONTEXT)
+                    : netAmount.subtract(order.amount, MATH_CONTEXT);
+        }
+
+        CompletableFuture<Boolean> fill;
+        try {
+            fill = netAmount.signum() == 0
+                    ? CompletableFuture.completedFuture(true)
+                    : brokerClient.executeInvestmentTransactionAsync(fundId, netAmount.abs(),
+                    netAmount.signum() > 0 ? BUY : SELL);
+        } catch (RuntimeException e) {
+            // Thrown before an order was placed: fail the batch like a rejected fill so its callers are released
+            fill = CompletableFuture.failedFuture(e);
+        }
+        fill.whenComplete((accepted, failure) -> {
+            for (PendingOrder order : orders) {
+                if (failure != null) {
+                    refund(order);
+                    order.result.completeExceptionally(failure);
+                } else if (accepted) {
+                    allocate(order);
+                    order.result.complete(true);
+                } else {
+                    refund(order);
+                    order.result.complete(false);
+                }
+            }
+        });
+    }
+
+    private static void allocate(PendingOrder order) {
+        final Account account = order.account;
+        synchronized (AccountLocks.forAccount(account)) {
+            if (order.direction.equals(BUY)) {
+                account.getInvestments().add(order.fundId);
+            } else {
+                account.getInvestments().remove(order.fundId);
+                account.setAvailableCash(account.getAvailableCash().add(order.amount, MATH_CONTEXT));
+            }
+        }
+    }
+
+    // Returns the cash a buy took at submit time
+    private static void refund(PendingOrder order) {
+        if (order.direction.equals(BUY)) {
+            final Account account = order.account;
+            synchronized (AccountLocks.forAccount(account)) {
+                account.setAvailableCash(account.getAvailableCash().add(order.amount, MATH_CONTEXT));
+            }
+        }
+    }
+
+    private static class PendingOrder {
+        private final Account account;
+        private final String fundId;
+        private final BigDecimal amount;
+        private final String direction;
+        private final CompletableFuture<Boolean> result = new CompletableFuture<>();
+
+        private PendingOrder(Account account, String fundId, BigDecimal amount, String direction) {
+            this.account = account;
+            this.fundId = fundId;
+            this.amount = amount;
+            this.direction = direction;
+        }
+    }
+}
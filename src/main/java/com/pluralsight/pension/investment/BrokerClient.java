@@ -0,0 +1,15 @@
+package com.pluralsight.pension.investment;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.util.concurrent.CompletableFuture;
+
+public interface BrokerClient {
+
+    boolean executeInvestmentTransaction(String fundId, BigDecimal investmentAmount, String direction)
+            throws IOException;
+
+    CompletableFuture<Boolean> executeInvestmentTransactionAsync(String fundId,
+                                                                 BigDecimal investmentAmount,
+                                                                 String direction);
+}
@@ -1,6 +1,7 @@
 package com.pluralsight.pension.investment;
 
 import com.pluralsight.pension.Account;
+import com.pluralsight.pension.Money;
 
 import java.io.IOException;
 import java.math.BigDecimal;
@@ -11,16 +12,43 @@ import java.util.Currency;
 public class ExternalInvestmentManagementService implements InvestmentManagementService {
 
     public static final MathContext MATH_CONTEXT = new MathContext(34, RoundingMode.DOWN);
+    public static final Currency USD = Currency.getInstance("USD");
+
+    private final BrokerClient brokerClient;
+    // Optional; when present, trades are booked as fund units so partial sales keep the remaining holding
+    private final PortfolioValuationEngine valuationEngine;
+    // Optional; when present, deposits in other currencies are converted into the account currency
+    private final FxRateTable fxRates;
 
     public ExternalInvestmentManagementService() {
+        this(HttpBrokerClient.defaultClient());
+    }
+
+    public ExternalInvestmentManagementService(BrokerClient brokerClient) {
+        this(brokerClient, null);
+    }
+
+    public ExternalInvestmentManagementService(BrokerClient brokerClient, PortfolioValuationEngine valuationEngine) {
+        this(brokerClient, valuationEngine, null);
+    }
+
+    public ExternalInvestmentManagementService(BrokerClient brokerClient,
+                                               PortfolioValuationEngine valuationEngine,
+                                               FxRateTable fxRates) {
+        this.brokerClient = brokerClient;
+        this.valuationEngine = valuationEngine;
+        this.fxRates = fxRates;
     }
 
     @Override
     public void addFunds(Account account, BigDecimal investmentAmount, Currency investmentCcy) {
-        if (investmentCcy != Currency.getInstance("USD")) {
-            throw new IllegalArgumentException("Only USD accounts are supported.");
+        final Currency accountCcy = accountCcy(account);
+        if (investmentCcy != accountCcy) {
+            investmentAmount = fxRates(investmentCcy).convert(investmentAmount, investmentCcy, accountCcy);
+        }
+        synchronized (AccountLocks.forAccount(account)) {
+            account.setAvailableCash(account.getAvailableCash().add(investmentAmount, MATH_CONTEXT));
         }
-        account.setAvailableCash(account.getAvailableCash().add(investmentAmount, MATH_CONTEXT));
     }
 
     @Override
@@ -28,9 +56,12 @@ public class ExternalInvestmentManagementService implements InvestmentManagement
         if (account.getAvailableCash().compareTo(investmentAmount) < 0) {
             throw new IllegalArgumentException("Not enough cash in account.");
         }
+        final long fundUnits = fundUnits(fundId, investmentAmount);
         if (executeInvestmentTransaction(fundId, investmentAmount, "BUY")) {
-            account.setAvailableCash(account.getAvailableCash().subtract(investmentAmount, MATH_CONTEXT));
-            account.getInvestments().add(fundId);
+            synchronized (AccountLocks.forAccount(account)) {
+                account.setAvailableCash(account.getAvailableCash().subtract(investmentAmount, MATH_CONTEXT));
+                bookPurchase(account, fundId, fundUnits);
+            }
             return true;
         } else {
             return false;
@@ -43,18 +74,99 @@ public class ExternalInvestmentManagementService implements InvestmentManagement
             throw new IllegalArgumentException("Account doesn't have any holdings in " + fundId);
         }
         //if a holding in this fund already exists, short-selling is allowed too
+        final long fundUnits = fundUnits(fundId, investmentAmount);
         if (executeInvestmentTransaction(fundId, investmentAmount, "SELL")) {
-            account.getInvestments().remove(fundId);
-            account.setAvailableCash(account.getAvailableCash().add(investmentAmount, MATH_CONTEXT));
+            synchronized (AccountLocks.forAccount(account)) {
+                bookSale(account, fundId, fundUnits);
+                account.setAvailableCash(account.getAvailableCash().add(investmentAmount, MATH_CONTEXT));
+            }
+            return true;
+        } else {
+            return false;
+        }
+    }
+
+    // Fixed-point variants of the methods above: amounts are minor units at the account currency's scale
+    // A deposit in another currency is given in that currency's minor units
+    public void addFunds(Account account, long investmentUnits, Currency investmentCcy) {
+        final Currency accountCcy = accountCcy(account);
+        if (investmentCcy != accountCcy) {
+            investmentUnits = fxRates(investmentCcy).convertUnits(investmentUnits, investmentCcy, accountCcy);
+        }
+        synchronized (AccountLocks.forAccount(account)) {
+            account.setAvailableCashUnits(Money.add(account.getAvailableCashUnits(), investmentUnits));
+        }
+    }
+
+    public boolean buyInvestmentFund(Account account, String fundId, long investmentUnits) throws IOException {
+        if (account.getAvailableCashUnits() < investmentUnits) {
+            throw new IllegalArgumentException("Not enough cash in account.");
+        }
+        final BigDecimal investmentAmount = Money.toBigDecimal(investmentUnits, Money.scaleOf(account.getCcy()));
+        final long fundUnits = fundUnits(fundId, investmentAmount);
+        if (executeInvestmentTransaction(fundId, investmentAmount, "BUY")) {
+            synchronized (AccountLocks.forAccount(account)) {
+                account.setAvailableCashUnits(Money.subtract(account.getAvailableCashUnits(), investmentUnits));
+                bookPurchase(account, fundId, fundUnits);
+            }
+            return true;
+        } else {
+            return false;
+        }
+    }
+
+    public boolean sellInvestmentFund(Account account, String fundId, long investmentUnits) throws IOException {
+        if (!account.getInvestments().contains(fundId)) {
+            throw new IllegalArgumentException("Account doesn't have any holdings in " + fundId);
+        }
+        final BigDecimal investmentAmount = Money.toBigDecimal(investmentUnits, Money.scaleOf(account.getCcy()));
+        final long fundUnits = fundUnits(fundId, investmentAmount);
+        if (executeInvestmentTransaction(fundId, investmentAmount, "SELL")) {
+            synchronized (AccountLocks.forAccount(account)) {
+                bookSale(account, fundId, fundUnits);
+                account.setAvailableCashUnits(Money.add(account.getAvailableCashUnits(), investmentUnits));
+            }
             return true;
         } else {
             return false;
         }
     }
 
+    // Accounts opened before currencies were recorded are USD
+    private static Currency accountCcy(Account account) {
+        return account.getCcy() != null ? account.getCcy() : USD;
+    }
+
+    private FxRateTable fxRates(Currency investmentCcy) {
+        if (fxRates == null) {
+            throw new IllegalArgumentException("Cannot accept " + investmentCcy + " without an FX rate table.");
+        }
+        return fxRates;
+    }
+
+    // Resolved before the order is sent so a missing price fails the trade rather than the booking
+    private long fundUnits(String fundId, BigDecimal investmentAmount) {
+        return valuationEngine == null ? 0L : valuationEngine.toFundUnits(fundId, investmentAmount);
+    }
+
+    private void bookPurchase(Account account, String fundId, long fundUnits) {
+        if (valuationEngine == null || valuationEngine.applyTrade(account, fundId, fundUnits) != 0) {
+            account.getInvestments().add(fundId);
+        } else {
+            account.getInvestments().remove(fundId);
+        }
+    }
+
+    // Without a valuation engine there are no quantities, so any sale closes the holding as before
+    private void bookSale(Account account, String fundId, long fundUnits) {
+        if (valuationEngine == null || valuationEngine.applyTrade(account, fundId, -fundUnits) == 0) {
+            account.getInvestments().remove(fundId);
+        }
+    }
+
     boolean executeInvestmentTransaction(String fundId,
                                          BigDecimal investmentAmount,
                                          String direction) throws IOException {
-        return new ExternalBrokerLink().executeInvestmentTransaction(fundId, investmentAmount, direction);
+        return brokerClient.executeInvestmentTransaction(fundId, investmentAmount, direction);
     }
 }
@@ -0,0 +1,33 @@
+package com.pluralsight.pension.investment;
+
+import java.math.BigDecimal;
+import java.util.Currency;
+
+// Units of the target currency bought by one unit of the source currency
+public class FxRate {
+
+    private final Currency from;
+    private final Currency to;
+    private final BigDecimal rate;
+
+    public FxRate(Currency from, Currency to, BigDecimal rate) {
+        if (rate.signum() <= 0) {
+            throw new IllegalArgumentException("FX rate must be positive: " + from + "/" + to + " " + rate);
+        }
+        this.from = from;
+        this.to = to;
+        this.rate = rate;
+    }
+
+    public Currency getFrom() {
+        return from;
+    }
+
+    public Currency getTo() {
+        return to;
+    }
+
+    public BigDecimal getRate() {
+        return rate;
+    }
+}
@@ -0,0 +1,8 @@
+package com.pluralsight.pension.investment;
+
+import java.util.Collection;
+
+// Callback for a rate feed; each call is one consistent batch of rates
+public interface FxRateListener {
+    void onRates(Collection<FxRate> rates);
+}
@@ -0,0 +1,176 @@
+package com.pluralsight.pension.investment;
+
+import com.pluralsight.pension.Money;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.math.MathContext;
+import java.math.RoundingMode;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Currency;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+// In-memory FX rates keyed by an int built from the two ISO 4217 numeric codes. Readers go through a volatile
+// reference to an immutable snapshot, so a conversion is an array probe and a multiply with no locking; updates
+// build a new snapshot and publish it in one write, so readers never see half a batch. A pair with no rate of
+// its own uses the inverse of the opposite pair when that is known.
+public class FxRateTable implements FxRateListener {
+
+    private static final MathContext INVERSE_CONTEXT = MathContext.DECIMAL64;
+
+    private final Object updateLock = new Object();
+    private volatile Snapshot snapshot = new Snapshot(Collections.emptyMap());
+
+    // Snapshot files hold one "FROM,TO,RATE" line per pair, e.g. "EUR,USD,1.0842"; blank lines and # comments
+    // are ignored
+    public static FxRateTable load(Path file) throws IOException {
+        final FxRateTable table = new FxRateTable();
+        table.reload(file);
+        return table;
+    }
+
+    // Replaces every rate with the file's contents
+    public void reload(Path file) throws IOException {
+        final List<FxRate> rates = read(file);
+        synchronized (updateLock) {
+            snapshot = new Snapshot(Snapshot.explicit(Collections.emptyMap(), rates));
+        }
+    }
+
+    @Override
+    public void onRates(Collection<FxRate> rates) {
+        synchronized (updateLock) {
+            snapshot = new Snapshot(Snapshot.explicit(snapshot.explicitRates, rates));
+        }
+    }
+
+    public void onRate(Currency from, Currency to, BigDecimal rate) {
+        onRates(Collections.singletonList(new FxRate(from, to, rate)));
+    }
+
+    // Returns null when the pair is unknown
+    public BigDecimal getRate(Currency from, Currency to) {
+        if (from.equals(to)) {
+            return BigDecimal.ONE;
+        }
+        return snapshot.get(key(from, to));
+    }
+
+    // Rounds half-even to the target currency's minor unit
+    public BigDecimal convert(BigDecimal amount, Currency from, Currency to) {
+        if (from.equals(to)) {
+            return amount;
+        }
+        final BigDecimal rate = snapshot.get(key(from, to));
+        if (rate == null) {
+            throw new IllegalArgumentException("No FX rate for " + from + "/" + to);
+        }
+        return amount.multiply(rate).setScale(Money.scaleOf(to), RoundingMode.HALF_EVEN);
+    }
+
+    // Minor units of the source currency to minor units of the target currency
+    public long convertUnits(long units, Currency from, Currency to) {
+        if (from.equals(to)) {
+            return units;
+        }
+        return Money.toMinorUnits(convert(Money.toBigDecimal(units, Money.scaleOf(from)), from, to),
+                Money.scaleOf(to));
+    }
+
+    public int size() {
+        return snapshot.size;
+    }
+
+    static int key(Currency from, Currency to) {
+        return ((from.getNumericCode() + 1) << 11) | (to.getNumericCode() + 1);
+    }
+
+    private static List<FxRate> read(Path file) throws IOException {
+        final List<FxRate> rates = new ArrayList<>();
+        try (BufferedReader reader = Files.newBufferedReader(file, StandardCharsets.UTF_8)) {
+            String line;
+            int lineNumber = 0;
+            while ((line = reader.readLine()) != null) {
+                lineNumber++;
+                line = line.trim();
+                if (line.isEmpty() || line.startsWith("#")) {
+                    continue;
+                }
+                final String[] fields = line.split(",");
+                try {
+                    rates.add(new FxRate(Currency.getInstance(fields[0].trim()), Currency.getInstance(fields[1].trim()),
+                            new BigDecimal(fields[2].trim())));
+                } catch (IllegalArgumentException | ArrayIndexOutOfBoundsException e) {
+                    throw new IOException("Invalid FX rate on line " + lineNumber + " of " + file, e);
+                }
+            }
+        }
+        return rates;
+    }
+
+    private static class Snapshot {
+        // Only the update path reads this; lookups use the arrays
+        private final Map<Integer, BigDecimal> explicitRates;
+        private final int[] keys;
+        private final BigDecimal[] rates;
+        private final int size;
+
+        private Snapshot(Map<Integer, BigDecimal> explicitRates) {
+            this.explicitRates = explicitRates;
+            final Map<Integer, BigDecimal> all = new HashMap<>(explicitRates);
+            explicitRates.forEach((key, rate) -> all.putIfAbsent(inverse(key),
+                    BigDecimal.ONE.divide(rate, INVERSE_CONTEXT)));
+            int capacity = 16;
+            while (capacity < all.size() * 2) {
+                capacity <<= 1;
+            }
+            this.keys = new int[capacity];
+            this.rates = new BigDecimal[capacity];
+            this.size = all.size();
+            final int mask = capacity - 1;
+            for (Map.Entry<Integer, BigDecimal> entry : all.entrySet()) {
+                int slot = spread(entry.getKey()) & mask;
+                while (keys[slot] != 0) {
+                    slot = (slot + 1) & mask;
+                }
+                keys[slot] = entry.getKey();
+                rates[slot] = entry.getValue();
+            }
+        }
+
+        private static Map<Integer, BigDecimal> explicit(Map<Integer, BigDecimal> current, Collection<FxRate> updates) {
+            final Map<Integer, BigDecimal> merged = new HashMap<>(current);
+            for (FxRate rate : updates) {
+                merged.put(key(rate.getFrom(), rate.getTo()), rate.getRate());
+            }
+            return merged;
+        }
+
+        private BigDecimal get(int key) {
+            final int mask = keys.length - 1;
+            for (int slot = spread(key) & mask; keys[slot] != 0; slot = (slot + 1) & mask) {
+                if (keys[slot] == key) {
+                    return rates[slot];
+                }
+            }
+            return null;
+        }
+
+        private static int inverse(int key) {
+            return ((key & 0x7FF) << 11) | (key >>> 11);
+        }
+
+        private static int spread(int key) {
+            final int hash = key * 0x9E3779B9;
+            return hash ^ (hash >>> 16);
+        }
+    }
+}
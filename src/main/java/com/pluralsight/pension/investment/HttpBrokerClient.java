@@ -0,0 +1,90 @@
+package com.pluralsight.pension.investment;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.math.BigDecimal;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+
+import static com.pluralsight.pension.investment.ExternalConnectionDetails.INTERNAL_PROXY_URL;
+
+// Talks to the broker proxy over a single shared HttpClient, which keeps connections alive between trades
+// and lets asynchronous orders be in flight at the same time without holding a thread each.
+public class HttpBrokerClient implements BrokerClient {
+
+    public static final Duration DEFAULT_CONNECT_TIMEOUT = Duration.ofSeconds(2);
+    public static final Duration DEFAULT_REQUEST_TIMEOUT = Duration.ofSeconds(10);
+
+    private final URI proxyUri;
+    private final Duration requestTimeout;
+    private final HttpClient httpClient;
+
+    public HttpBrokerClient() {
+        this(URI.create(INTERNAL_PROXY_URL), DEFAULT_CONNECT_TIMEOUT, DEFAULT_REQUEST_TIMEOUT);
+    }
+
+    public HttpBrokerClient(URI proxyUri, Duration connectTimeout, Duration requestTimeout) {
+        this.proxyUri = proxyUri;
+        this.requestTimeout = requestTimeout;
+        this.httpClient = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_1_1)
+                .connectTimeout(connectTimeout)
+                .build();
+    }
+
+    static HttpBrokerClient defaultClient() {
+        return DefaultClientHolder.INSTANCE;
+    }
+
+    @Override
+    public boolean executeInvestmentTransaction(String fundId, BigDecimal investmentAmount, String direction)
+            throws IOException {
+        try {
+            return parse(httpClient.send(request(fundId, investmentAmount, direction),
+                    HttpResponse.BodyHandlers.ofString()));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrupted while waiting for the broker");
+        }
+    }
+
+    @Override
+    public CompletableFuture<Boolean> executeInvestmentTransactionAsync(String fundId,
+                                                                        BigDecimal investmentAmount,
+                                                                        String direction) {
+        return httpClient.sendAsync(request(fundId, investmentAmount, direction), HttpResponse.BodyHandlers.ofString())
+                .thenApply(response -> {
+                    try {
+                        return parse(response);
+                    } catch (IOException e) {
+                        throw new CompletionException(e);
+                    }
+                });
+    }
+
+    private HttpRequest request(String fundId, BigDecimal investmentAmount, String direction) {
+        return HttpRequest.newBuilder(proxyUri)
+                .timeout(requestTimeout)
+                .header("DIRECTION", direction)
+                .header("FUND", fundId)
+                .header("AMOUNT", investmentAmount.toPlainString())
+                .GET()
+                .build();
+    }
+
+    private static boolean parse(HttpResponse<String> response) throws IOException {
+        if (response.statusCode() >= 400) {
+            throw new IOException("Broker responded with HTTP " + response.statusCode());
+        }
+        return Boolean.parseBoolean(response.body().strip());
+    }
+
+    private static class DefaultClientHolder {
+        private static final HttpBrokerClient INSTANCE = new HttpBrokerClient();
+    }
+}
@@ -0,0 +1,62 @@
+package com.pluralsight.pension.investment;
+
+import com.pluralsight.pension.Account;
+import com.pluralsight.pension.Money;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.Currency;
+
+// Enforces BackgroundCheckResults.upperAccountLimit on purchases: the order's value is reserved against the
+// account's exposure before the broker is called and handed back if the order is refused or fails. A sale by an
+// account with no registered limit has no exposure to hand back, so it goes straight to the delegate.
+public class LimitCheckedInvestmentManagementService implements InvestmentManagementService {
+
+    private final InvestmentManagementService delegate;
+    private final PreTradeLimitEngine limitEngine;
+
+    public LimitCheckedInvestmentManagementService(InvestmentManagementService delegate,
+                                                   PreTradeLimitEngine limitEngine) {
+        this.delegate = delegate;
+        this.limitEngine = limitEngine;
+    }
+
+    @Override
+    public void addFunds(Account account, BigDecimal investmentAmount, Currency investmentCcy) {
+        delegate.addFunds(account, investmentAmount, investmentCcy);
+    }
+
+    @Override
+    public boolean buyInvestmentFund(Account account, String fundId, BigDecimal investmentAmount) throws IOException {
+        final long units = toUnits(account, investmentAmount);
+        if (!limitEngine.tryReserve(account.getId(), units)) {
+            throw new IllegalArgumentException("Order would exceed the account's upper limit.");
+        }
+        boolean bought = false;
+        try {
+            bought = delegate.buyInvestmentFund(account, fundId, investmentAmount);
+            return bought;
+        } finally {
+            if (!bought) {
+                limitEngine.release(account.getId(), units);
+            }
+        }
+    }
+
+    @Override
+    public boolean sellInvestmentFund(Account account, String fundId, BigDecimal investmentAmount) throws IOException {
+        final boolean limited = limitEngine.isRegistered(account.getId());
+        final boolean sold = delegate.sellInvestmentFund(account, fundId, investmentAmount);
+        if (sold && limited) {
+            limitEngine.release(account.getId(), toUnits(account, investmentAmount));
+        }
+        return sold;
+    }
+
+    // Sub-minor-unit amounts round up so exposure is never understated
+    private static long toUnits(Account account, BigDecimal amount) {
+        final int scale = Money.scaleOf(account.getCcy());
+        return Money.toMinorUnits(amount.setScale(scale, RoundingMode.CEILING), scale);
+    }
+}
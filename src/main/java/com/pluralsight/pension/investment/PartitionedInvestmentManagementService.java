@@ -0,0 +1,97 @@
+package com.pluralsight.pension.investment;
+
+import com.pluralsight.pension.Account;
+import com.pluralsight.pension.BlockingServiceAdapter;
+import com.pluralsight.pension.PartitionedAccountExecutor;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.math.BigDecimal;
+import java.util.Currency;
+
+import static com.pluralsight.pension.investment.ExternalInvestmentManagementService.MATH_CONTEXT;
+
+// Makes trading safe to call concurrently by applying each account's mutations on that account's single-writer
+// partition. Only local work runs there: a trade first reserves what it spends on the partition (a buy's cash,
+// a sale's holding), the broker is called from the caller's thread, and the fill or the refund is applied back on
+// the partition. A slow order therefore never stalls the other accounts in its partition, and broker concurrency
+// is not capped at the partition count.
+public class PartitionedInvestmentManagementService implements InvestmentManagementService {
+
+    private static final String BUY = "BUY";
+    private static final String SELL = "SELL";
+
+    private final BrokerClient brokerClient;
+    private final InvestmentManagementService fundsService;
+    private final PartitionedAccountExecutor executor;
+
+    public PartitionedInvestmentManagementService(BrokerClient brokerClient, PartitionedAccountExecutor executor) {
+        this.brokerClient = brokerClient;
+        this.fundsService = new ExternalInvestmentManagementService(brokerClient);
+        this.executor = executor;
+    }
+
+    @Override
+    public void addFunds(Account account, BigDecimal investmentAmount, Currency investmentCcy) {
+        try {
+            BlockingServiceAdapter.await(executor.submit(account, () -> {
+                fundsService.addFunds(account, investmentAmount, investmentCcy);
+                return null;
+            }));
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    @Override
+    public boolean buyInvestmentFund(Account account, String fundId, BigDecimal investmentAmount) throws IOException {
+        BlockingServiceAdapter.await(executor.submit(account, () -> {
+            if (account.getAvailableCash().compareTo(investmentAmount) < 0) {
+                throw new IllegalArgumentException("Not enough cash in account.");
+            }
+            account.setAvailableCash(account.getAvailableCash().subtract(investmentAmount, MATH_CONTEXT));
+            return null;
+        }));
+        boolean bought = false;
+        try {
+            bought = brokerClient.executeInvestmentTransaction(fundId, investmentAmount, BUY);
+            return bought;
+        } finally {
+            final boolean filled = bought;
+            BlockingServiceAdapter.await(executor.submit(account, () -> {
+                if (filled) {
+                    account.getInvestments().add(fundId);
+                } else {
+                    account.setAvailableCash(account.getAvailableCash().add(investmentAmount, MATH_CONTEXT));
+                }
+                return null;
+            }));
+        }
+    }
+
+    // The holding is taken out while the sale is in flight, so two sales of it cannot both pass the check
+    @Override
+    public boolean sellInvestmentFund(Account account, String fundId, BigDecimal investmentAmount) throws IOException {
+        BlockingServiceAdapter.await(executor.submit(account, () -> {
+            if (!account.getInvestments().remove(fundId)) {
+                throw new IllegalArgumentException("Account doesn't have any holdings in " + fundId);
+            }
+            return null;
+        }));
+        boolean sold = false;
+        try {
+            sold = brokerClient.executeInvestmentTransaction(fundId, investmentAmount, SELL);
+            return sold;
+        } finally {
+            final boolean filled = sold;
+            BlockingServiceAdapter.await(executor.submit(account, () -> {
+                if (filled) {
+                    account.setAvailableCash(account.getAvailableCash().add(investmentAmount, MATH_CONTEXT));
+                } else {
+                    account.getInvestments().add(fundId);
+                }
+                return null;
+            }));
+        }
+    }
+}
@@ -0,0 +1,173 @@
+package com.pluralsight.pension.investment;
+
+import com.pluralsight.pension.Account;
+import com.pluralsight.pension.Holdings;
+import com.pluralsight.pension.Money;
+
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.math.RoundingMode;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Currency;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+// Keeps Account.totalInvestmentValue current as fund prices tick. Each fund keeps the set of accounts holding it,
+// so a tick only touches those accounts and adjusts their value by the difference the new price makes to that one
+// holding. Ticks and trades on a fund are serialised on the fund's state, then on the account, always in that order.
+// Prices are kept at PRICE_SCALE decimals rather than the currency's, so a NAV is not rounded to cents before it
+// is multiplied by the units held; only the resulting value is rounded, down, to minor units.
+public class PortfolioValuationEngine {
+
+    public static final int PRICE_SCALE = 6;
+
+    private final Currency ccy;
+    private final int scale;
+    // Price units per minor unit of the currency, and price units times fund units per minor unit of value
+    private final long pricePerMinorUnit;
+    private final long valueDivisor;
+    private final Map<String, FundState> funds = new ConcurrentHashMap<>();
+
+    public PortfolioValuationEngine(Currency ccy) {
+        this.ccy = ccy;
+        this.scale = Money.scaleOf(ccy);
+        if (scale > PRICE_SCALE) {
+            throw new IllegalArgumentException(ccy + " has more decimals than the price scale");
+        }
+        this.pricePerMinorUnit = BigDecimal.ONE.movePointRight(PRICE_SCALE - scale).longValueExact();
+        this.valueDivisor = Math.multiplyExact(pricePerMinorUnit, Holdings.UNITS_PER_FUND_UNIT);
+    }
+
+    // Prices with more than PRICE_SCALE decimals round half-even
+    public void onPrice(String fundId, BigDecimal price) {
+        updatePrice(fundId, Money.toMinorUnits(price.setScale(PRICE_SCALE, RoundingMode.HALF_EVEN), PRICE_SCALE));
+    }
+
+    // Price of one fund unit in minor units of the engine currency
+    public void onPrice(String fundId, long priceUnits) {
+        updatePrice(fundId, Math.multiplyExact(priceUnits, pricePerMinorUnit));
+    }
+
+    private void updatePrice(String fundId, long priceUnits) {
+        final FundState fund = fund(fundId);
+        synchronized (fund) {
+            final long oldPrice = fund.price;
+            fund.price = priceUnits;
+            fund.priced = true;
+            for (Account account : fund.holders) {
+                synchronized (account) {
+                    final long units = account.getHoldings().getUnits(fundId);
+                    revalue(account, valueOf(units, priceUnits) - valueOf(units, oldPrice));
+                }
+            }
+        }
+    }
+
+    public BigDecimal getPrice(String fundId) {
+        final FundState fund = funds.get(fundId);
+        if (fund == null) {
+            return null;
+        }
+        synchronized (fund) {
+            return fund.priced ? Money.toBigDecimal(fund.price, PRICE_SCALE) : null;
+        }
+    }
+
+    // Fund units, in millionths, that the given amount buys at the current price
+    public long toFundUnits(String fundId, BigDecimal amount) {
+        final BigDecimal price = getPrice(fundId);
+        if (price == null || price.signum() <= 0) {
+            throw new IllegalStateException("No price for fund " + fundId);
+        }
+        return amount.divide(price, Holdings.UNIT_SCALE, RoundingMode.DOWN).unscaledValue().longValueExact();
+    }
+
+    // Applies a bought (positive) or sold (negative) number of units and returns the resulting holding
+    public long applyTrade(Account account, String fundId, long unitsDelta) {
+        final FundState fund = fund(fundId);
+        synchronized (fund) {
+            synchronized (account) {
+                final Holdings holdings = account.getHoldings();
+                final long before = holdings.getUnits(fundId);
+                final long after = holdings.addUnits(fundId, unitsDelta);
+                if (after == 0) {
+                    fund.holders.remove(account);
+                } else {
+                    fund.holders.add(account);
+                }
+                revalue(account, valueOf(after, fund.price) - valueOf(before, fund.price));
+                return after;
+            }
+        }
+    }
+
+    // Indexes an account whose holdings were loaded from elsewhere and values it from scratch; call once per account
+    public void track(Account account) {
+        final List<String> fundIds = new ArrayList<>();
+        synchronized (account) {
+            account.getHoldings().forEach((fundId, units) -> fundIds.add(fundId));
+            account.getHoldings().setValueUnits(0L);
+            account.setTotalInvestmentValue(BigDecimal.ZERO.setScale(scale));
+        }
+        for (String fundId : fundIds) {
+            final FundState fund = fund(fundId);
+            synchronized (fund) {
+                synchronized (account) {
+                    final long units = account.getHoldings().getUnits(fundId);
+                    if (units != 0) {
+                        fund.holders.add(account);
+                        revalue(account, valueOf(units, fund.price));
+                    }
+                }
+            }
+        }
+    }
+
+    public int getHolderCount(String fundId) {
+        final FundState fund = funds.get(fundId);
+        if (fund == null) {
+            return 0;
+        }
+        synchronized (fund) {
+            return fund.holders.size();
+        }
+    }
+
+    public Currency getCcy() {
+        return ccy;
+    }
+
+    private void revalue(Account account, long valueDelta) {
+        final Holdings holdings = account.getHoldings();
+        final long value = Math.addExact(holdings.getValueUnits(), valueDelta);
+        holdings.setValueUnits(value);
+        if (valueDelta != 0 || account.getTotalInvestmentValue() == null) {
+            account.setTotalInvestmentValue(Money.toBigDecimal(value, scale));
+        }
+    }
+
+    private FundState fund(String fundId) {
+        return funds.computeIfAbsent(fundId, id -> new FundState());
+    }
+
+    // Value in minor units, rounded down; large holdings at fine-grained prices overflow a long before the divide
+    private long valueOf(long units, long priceUnits) {
+        final long low = units * priceUnits;
+        if (Math.multiplyHigh(units, priceUnits) == low >> 63) {
+            return Math.floorDiv(low, valueDivisor);
+        }
+        return new BigDecimal(BigInteger.valueOf(units).multiply(BigInteger.valueOf(priceUnits)))
+                .divide(BigDecimal.valueOf(valueDivisor), 0, RoundingMode.FLOOR)
+                .longValueExact();
+    }
+
+    private static class FundState {
+        private long price;
+        private boolean priced;
+        private final Set<Account> holders = Collections.newSetFromMap(new IdentityHashMap<>());
+    }
+}
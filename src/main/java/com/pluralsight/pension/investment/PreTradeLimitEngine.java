@@ -0,0 +1,203 @@
+package com.pluralsight.pension.investment;
+
+import com.pluralsight.pension.Account;
+import com.pluralsight.pension.AccountRepository;
+import com.pluralsight.pension.Money;
+import com.pluralsight.pension.setup.BackgroundCheckResults;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+// Per-account upper limit and open exposure, in minor units, kept in one AtomicLongArray. Each account owns a
+// cache-line-sized stride of the array, so reserving for one account never contends with another; a reservation
+// is a single CAS loop that fails the order instead of overshooting the limit. The engine itself is not durable:
+// limits are kept on the account, so after a restart they are registered again from the recovered accounts, and
+// the slot of a closed account is given back with unregister for the next registration to reuse.
+public class PreTradeLimitEngine {
+
+    private static final int STRIDE = 8;
+    private static final int LIMIT = 0;
+    private static final int EXPOSURE = 1;
+
+    private final AtomicLongArray slots;
+    private final int capacity;
+    private final Map<String, Integer> slotsByAccountId = new ConcurrentHashMap<>();
+    private final AtomicInteger nextSlot = new AtomicInteger();
+    private final Queue<Integer> freeSlots = new ConcurrentLinkedQueue<>();
+
+    public PreTradeLimitEngine(int capacity) {
+        this.capacity = capacity;
+        this.slots = new AtomicLongArray(capacity * STRIDE);
+    }
+
+    // The background check gives the limit in whole units of the account currency
+    public void register(String accountId, long upperAccountLimit, int scale) {
+        registerUnits(accountId, toLimitUnits(upperAccountLimit, scale));
+    }
+
+    // Registers the limit an account carries, as recovered from storage; one that carries none and is not
+    // registered yet gets a zero limit, so it can sell but cannot buy until its background check is run again
+    public void register(Account account) {
+        final Long limitUnits = account.getUpperAccountLimitUnits();
+        if (limitUnits != null) {
+            registerUnits(account.getId(), limitUnits);
+        } else if (!isRegistered(account.getId())) {
+            registerUnits(account.getId(), 0L);
+        }
+    }
+
+    // For a closed account: its slot is cleared and reused by the next account registered
+    public void unregister(String accountId) {
+        final Integer slot = slotsByAccountId.remove(accountId);
+        if (slot != null) {
+            slots.set(slot * STRIDE + LIMIT, 0L);
+            slots.set(slot * STRIDE + EXPOSURE, 0L);
+            freeSlots.add(slot);
+        }
+    }
+
+    public boolean isRegistered(String accountId) {
+        return slotsByAccountId.containsKey(accountId);
+    }
+
+    // Returns false, leaving exposure untouched, if the reservation would take the account over its limit
+    public boolean tryReserve(String accountId, long units) {
+        final int base = slotOf(accountId) * STRIDE;
+        final long limit = slots.get(base + LIMIT);
+        long exposure;
+        do {
+            exposure = slots.get(base + EXPOSURE);
+            if (units > limit - exposure) {
+                return false;
+            }
+        } while (!slots.compareAndSet(base + EXPOSURE, exposure, exposure + units));
+        return true;
+    }
+
+    // Exposure never goes below zero, so selling more than was bought through the engine frees only what is held
+    public void release(String accountId, long units) {
+        final int base = slotOf(accountId) * STRIDE;
+        long exposure;
+        do {
+            exposure = slots.get(base + EXPOSURE);
+        } while (!slots.compareAndSet(base + EXPOSURE, exposure, Math.max(0L, exposure - units)));
+    }
+
+    public long getExposure(String accountId) {
+        return slots.get(slotOf(accountId) * STRIDE + EXPOSURE);
+    }
+
+    public long getLimit(String accountId) {
+        return slots.get(slotOf(accountId) * STRIDE + LIMIT);
+    }
+
+    // Wraps a repository so every successfully opened account has its background-check limit registered, in the
+    // account currency's minor units, and stored on the account so it is persisted with it. Accounts saved whole,
+    // as restores do, are registered with the limit they carry, as in register(Account).
+    public AccountRepository registeringLimits(AccountRepository delegate) {
+        return new AccountRepository() {
+            @Override
+            public boolean save(String id, String firstName, String lastName, String taxId, LocalDate dob,
+                                BackgroundCheckResults backgroundCheckResults) {
+                final boolean saved = delegate.save(id, firstName, lastName, taxId, dob, backgroundCheckResults);
+                if (saved && backgroundCheckResults != null) {
+                    final Optional<Account> account = findSaved(delegate, id);
+                    final int scale = account.map(found -> Money.scaleOf(found.getCcy())).orElse(Money.DEFAULT_SCALE);
+                    final long limitUnits = toLimitUnits(backgroundCheckResults.getUpperAccountLimit(), scale);
+                    if (account.isPresent()) {
+                        account.get().setUpperAccountLimitUnits(limitUnits);
+                        delegate.save(account.get());
+                    }
+                    registerUnits(id, limitUnits);
+                }
+                return saved;
+            }
+
+            @Override
+            public boolean save(Account account) {
+                final boolean saved = delegate.save(account);
+                if (saved) {
+                    register(account);
+                }
+                return saved;
+            }
+
+            @Override
+            public boolean isExpired(Account account) {
+                return delegate.isExpired(account);
+            }
+
+            @Override
+            public Optional<Account> findById(String id) {
+                return delegate.findById(id);
+            }
+
+            @Override
+            public Optional<Account> findByTaxId(String taxId) {
+                return delegate.findByTaxId(taxId);
+            }
+
+            @Override
+            public List<Account> findByDobBetween(LocalDate fromInclusive, LocalDate toInclusive) {
+                return delegate.findByDobBetween(fromInclusive, toInclusive);
+            }
+
+            @Override
+            public List<Account> findByExpectedRetirementBetween(LocalDate fromInclusive, LocalDate toInclusive) {
+                return delegate.findByExpectedRetirementBetween(fromInclusive, toInclusive);
+            }
+        };
+    }
+
+    // A repository that cannot be queried still has the limit registered, at the default scale, but not stored
+    private static Optional<Account> findSaved(AccountRepository repository, String id) {
+        try {
+            return repository.findById(id);
+        } catch (UnsupportedOperationException e) {
+            return Optional.empty();
+        }
+    }
+
+    private void registerUnits(String accountId, long limitUnits) {
+        final int slot = slotsByAccountId.computeIfAbsent(accountId, id -> {
+            final Integer free = freeSlots.poll();
+            if (free != null) {
+                return free;
+            }
+            final int next = nextSlot.getAndIncrement();
+            if (next >= capacity) {
+                nextSlot.decrementAndGet();
+                throw new IllegalStateException("Limit engine is full at " + capacity + " accounts");
+            }
+            return next;
+        });
+        slots.set(slot * STRIDE + LIMIT, limitUnits);
+    }
+
+    private static long toLimitUnits(long upperAccountLimit, int scale) {
+        return Math.multiplyExact(upperAccountLimit, pow10(scale));
+    }
+
+    private int slotOf(String accountId) {
+        final Integer slot = slotsByAccountId.get(accountId);
+        if (slot == null) {
+            throw new IllegalArgumentException("No trading limit registered for account " + accountId);
+        }
+        return slot;
+    }
+
+    private static long pow10(int scale) {
+        long result = 1;
+        for (int i = 0; i < scale; i++) {
+            result *= 10;
+        }
+        return result;
+    }
+}
@@ -0,0 +1,87 @@
+package com.pluralsight.pension.investment;
+
+import com.pluralsight.pension.Account;
+import com.pluralsight.pension.AccountSnapshot;
+import com.pluralsight.pension.VersionedAccount;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.util.Currency;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Consumer;
+import java.util.function.Function;
+
+// Publishes the account's state as an immutable snapshot after each mutation, so statements and dashboards read
+// whole trades (cash and investments together) without locking. The delegate books under the account's booking
+// lock and the copy is taken under it too, so no lock is held across the broker call. Publishes of concurrent
+// trades may finish in either order; each copies the live account, so the latest version is always current.
+// Only changes made through this service, or through update, publish a snapshot. Trades placed through the batching
+// or partitioned services and price ticks from PortfolioValuationEngine do not, so a snapshot can lag them until
+// the account's next trade here.
+public class SnapshotPublishingInvestmentManagementService implements InvestmentManagementService {
+
+    private final InvestmentManagementService delegate;
+    private final Map<String, VersionedAccount> versions = new ConcurrentHashMap<>();
+
+    public SnapshotPublishingInvestmentManagementService(InvestmentManagementService delegate) {
+        this.delegate = delegate;
+    }
+
+    @Override
+    public void addFunds(Account account, BigDecimal investmentAmount, Currency investmentCcy) {
+        delegate.addFunds(account, investmentAmount, investmentCcy);
+        publish(account);
+    }
+
+    @Override
+    public boolean buyInvestmentFund(Account account, String fundId, BigDecimal investmentAmount) throws IOException {
+        final boolean bought = delegate.buyInvestmentFund(account, fundId, investmentAmount);
+        if (bought) {
+            publish(account);
+        }
+        return bought;
+    }
+
+    @Override
+    public boolean sellInvestmentFund(Account account, String fundId, BigDecimal investmentAmount) throws IOException {
+        final boolean sold = delegate.sellInvestmentFund(account, fundId, investmentAmount);
+        if (sold) {
+            publish(account);
+        }
+        return sold;
+    }
+
+    // Starts tracking on first use, taking the account's current state as version 0, under the same locks as a
+    // publish so the first copy cannot catch a trade half booked
+    public VersionedAccount versionOf(Account account) {
+        return versions.computeIfAbsent(account.getId(), id -> {
+            synchronized (AccountLocks.forAccount(account)) {
+                synchronized (account) {
+                    return new VersionedAccount(account);
+                }
+            }
+        });
+    }
+
+    // Optimistic change worked out from the latest snapshot, retried if a trade publishes in the meantime
+    public AccountSnapshot update(Account account, Function<AccountSnapshot, Consumer<Account>> change) {
+        return versionOf(account).update(account, AccountLocks.forAccount(account), change);
+    }
+
+    // Null for an account this service has not seen
+    public AccountSnapshot snapshotOf(String accountId) {
+        final VersionedAccount version = versions.get(accountId);
+        return version != null ? version.get() : null;
+    }
+
+    // The account monitor also keeps out price ticks revaluing the account while it is copied
+    private void publish(Account account) {
+        final VersionedAccount version = versionOf(account);
+        synchronized (AccountLocks.forAccount(account)) {
+            synchronized (account) {
+                version.publish(account);
+            }
+        }
+    }
+}
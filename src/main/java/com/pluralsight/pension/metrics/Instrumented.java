@@ -0,0 +1,266 @@
+package com.pluralsight.pension.metrics;
+
+import com.pluralsight.pension.Account;
+import com.pluralsight.pension.AccountRepository;
+import com.pluralsight.pension.investment.BrokerClient;
+import com.pluralsight.pension.investment.InvestmentManagementService;
+import com.pluralsight.pension.setup.AccountApplication;
+import com.pluralsight.pension.setup.AccountOpeningEventPublisher;
+import com.pluralsight.pension.setup.BackgroundCheckResults;
+import com.pluralsight.pension.setup.BackgroundCheckService;
+import com.pluralsight.pension.setup.ReferenceIdsManager;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.Collection;
+import java.util.Currency;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+
+// Decorators that time every call to an external dependency and count its outcomes. Metric objects are looked
+// up once per decorator, so a call costs a nanoTime pair and a few atomic increments.
+public final class Instrumented {
+
+    private Instrumented() {
+    }
+
+    public static BackgroundCheckService backgroundCheckService(BackgroundCheckService delegate,
+                                                                MetricsRegistry registry) {
+        final LatencyHistogram latency = registry.histogram("backgroundCheck.confirm");
+        final Counter confirmed = registry.counter("backgroundCheck.confirm.results");
+        final Counter pending = registry.counter("backgroundCheck.confirm.pending");
+        final Counter errors = registry.counter("backgroundCheck.confirm.errors");
+        return (firstName, lastName, taxId, dob) -> {
+            final long start = System.nanoTime();
+            try {
+                final BackgroundCheckResults results = delegate.confirm(firstName, lastName, taxId, dob);
+                (results != null ? confirmed : pending).increment();
+                return results;
+            } catch (IOException | RuntimeException e) {
+                errors.increment();
+                throw e;
+            } finally {
+                latency.recordSince(start);
+            }
+        };
+    }
+
+    public static ReferenceIdsManager referenceIdsManager(ReferenceIdsManager delegate, MetricsRegistry registry) {
+        final LatencyHistogram latency = registry.histogram("referenceIds.obtainId");
+        final Counter missing = registry.counter("referenceIds.obtainId.missing");
+        final Counter errors = registry.counter("referenceIds.obtainId.errors");
+        return (firstName, middleName, lastName, taxId, dob) -> {
+            final long start = System.nanoTime();
+            try {
+                final String id = delegate.obtainId(firstName, middleName, lastName, taxId, dob);
+                if (id == null) {
+                    missing.increment();
+                }
+                return id;
+            } catch (RuntimeException e) {
+                errors.increment();
+                throw e;
+            } finally {
+                latency.recordSince(start);
+            }
+        };
+    }
+
+    public static AccountRepository accountRepository(AccountRepository delegate, MetricsRegistry registry) {
+        final LatencyHistogram latency = registry.histogram("accountRepository.save");
+        final Counter rejected = registry.counter("accountRepository.save.rejected");
+        final Counter errors = registry.counter("accountRepository.save.errors");
+        final LatencyHistogram batchLatency = registry.histogram("accountRepository.saveAll");
+        return new AccountRepository() {
+            @Override
+            public boolean save(String id, String firstName, String lastName, String taxId, LocalDate dob,
+                                BackgroundCheckResults backgroundCheckResults) {
+                final long start = System.nanoTime();
+                try {
+                    return counted(delegate.save(id, firstName, lastName, taxId, dob, backgroundCheckResults));
+                } catch (RuntimeException e) {
+                    errors.increment();
+                    throw e;
+                } finally {
+                    latency.recordSince(start);
+                }
+            }
+
+            @Override
+            public boolean save(Account account) {
+                final long start = System.nanoTime();
+                try {
+                    return counted(delegate.save(account));
+                } catch (RuntimeException e) {
+                    errors.increment();
+                    throw e;
+                } finally {
+                    latency.recordSince(start);
+                }
+            }
+
+            // Forwarded whole so a delegate that saves a batch in one go keeps doing so
+            @Override
+            public List<AccountApplication> saveAll(Collection<AccountApplication> applications) {
+                final long start = System.nanoTime();
+                try {
+                    final List<AccountApplication> refused = delegate.saveAll(applications);
+                    rejected.add(refused.size());
+                    return refused;
+                } catch (RuntimeException e) {
+                    errors.increment();
+                    throw e;
+                } finally {
+                    batchLatency.recordSince(start);
+                }
+            }
+
+            @Override
+            public boolean isExpired(Account account) {
+                return delegate.isExpired(account);
+            }
+
+            @Override
+            public Optional<Account> findById(String id) {
+                return delegate.findById(id);
+            }
+
+            @Override
+            public Optional<Account> findByTaxId(String taxId) {
+                return delegate.findByTaxId(taxId);
+            }
+
+            @Override
+            public List<Account> findByDobBetween(LocalDate fromInclusive, LocalDate toInclusive) {
+                return delegate.findByDobBetween(fromInclusive, toInclusive);
+            }
+
+            @Override
+            public List<Account> findByExpectedRetirementBetween(LocalDate fromInclusive, LocalDate toInclusive) {
+                return delegate.findByExpectedRetirementBetween(fromInclusive, toInclusive);
+            }
+
+            private boolean counted(boolean saved) {
+                if (!saved) {
+                    rejected.increment();
+                }
+                return saved;
+            }
+        };
+    }
+
+    public static AccountOpeningEventPublisher eventPublisher(AccountOpeningEventPublisher delegate,
+                                                              MetricsRegistry registry) {
+        final LatencyHistogram latency = registry.histogram("eventPublisher.notify");
+        final Counter errors = registry.counter("eventPublisher.notify.errors");
+        return new AccountOpeningEventPublisher() {
+            @Override
+            public void notify(String accountId) {
+                final long start = System.nanoTime();
+                try {
+                    delegate.notify(accountId);
+                } catch (RuntimeException e) {
+                    errors.increment();
+                    throw e;
+                } finally {
+                    latency.recordSince(start);
+                }
+            }
+
+            @Override
+            public void notifyBatch(List<String> accountIds) {
+                final long start = System.nanoTime();
+                try {
+                    delegate.notifyBatch(accountIds);
+                } catch (RuntimeException e) {
+                    errors.increment();
+                    throw e;
+                } finally {
+                    latency.recordSince(start);
+                }
+            }
+        };
+    }
+
+    public static BrokerClient brokerClient(BrokerClient delegate, MetricsRegistry registry) {
+        final LatencyHistogram latency = registry.histogram("broker.execute");
+        final Counter accepted = registry.counter("broker.execute.true");
+        final Counter refused = registry.counter("broker.execute.false");
+        final Counter ioErrors = registry.counter("broker.execute.ioException");
+        return new BrokerClient() {
+            @Override
+            public boolean executeInvestmentTransaction(String fundId, BigDecimal investmentAmount, String direction)
+                    throws IOException {
+                final long start = System.nanoTime();
+                try {
+                    final boolean result = delegate.executeInvestmentTransaction(fundId, investmentAmount, direction);
+                    (result ? accepted : refused).increment();
+                    return result;
+                } catch (IOException e) {
+                    ioErrors.increment();
+                    throw e;
+                } finally {
+                    latency.recordSince(start);
+                }
+            }
+
+            @Override
+            public CompletableFuture<Boolean> executeInvestmentTransactionAsync(String fundId,
+                                                                                BigDecimal investmentAmount,
+                                                                                String direction) {
+                final long start = System.nanoTime();
+                return delegate.executeInvestmentTransactionAsync(fundId, investmentAmount, direction)
+                        .whenComplete((result, failure) -> {
+                            latency.recordSince(start);
+                            if (failure != null) {
+                                ioErrors.increment();
+                            } else {
+                                (result ? accepted : refused).increment();
+                            }
+                        });
+            }
+        };
+    }
+
+    public static InvestmentManagementService investmentManagementService(InvestmentManagementService delegate,
+                                                                          MetricsRegistry registry) {
+        final LatencyHistogram addFunds = registry.histogram("investment.addFunds");
+        final LatencyHistogram buy = registry.histogram("investment.buyInvestmentFund");
+        final LatencyHistogram sell = registry.histogram("investment.sellInvestmentFund");
+        return new InvestmentManagementService() {
+            @Override
+            public void addFunds(Account account, BigDecimal investmentAmount, Currency investmentCcy) {
+                final long start = System.nanoTime();
+                try {
+                    delegate.addFunds(account, investmentAmount, investmentCcy);
+                } finally {
+                    addFunds.recordSince(start);
+                }
+            }
+
+            @Override
+            public boolean buyInvestmentFund(Account account, String fundId, BigDecimal investmentAmount)
+                    throws IOException {
+                final long start = System.nanoTime();
+                try {
+                    return delegate.buyInvestmentFund(account, fundId, investmentAmount);
+                } finally {
+                    buy.recordSince(start);
+                }
+            }
+
+            @Override
+            public boolean sellInvestmentFund(Account account, String fundId, BigDecimal investmentAmount)
+                    throws IOException {
+                final long start = System.nanoTime();
+                try {
+                    return delegate.sellInvestmentFund(account, fundId, investmentAmount);
+                } finally {
+                    sell.recordSince(start);
+                }
+            }
+        };
+    }
+}
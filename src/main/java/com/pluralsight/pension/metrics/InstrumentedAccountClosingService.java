@@ -0,0 +1,44 @@
+package com.pluralsight.pension.metrics;
+
+import com.pluralsight.pension.Account;
+import com.pluralsight.pension.setup.BackgroundCheckService;
+import com.pluralsight.pension.withdrawal.AccountClosingResponse;
+import com.pluralsight.pension.withdrawal.AccountClosingService;
+import com.pluralsight.pension.withdrawal.AccountClosingStatus;
+
+import java.io.IOException;
+import java.time.Clock;
+import java.util.EnumMap;
+import java.util.Map;
+
+public class InstrumentedAccountClosingService extends AccountClosingService {
+
+    private final LatencyHistogram latency;
+    private final Map<AccountClosingStatus, Counter> outcomes = new EnumMap<>(AccountClosingStatus.class);
+    private final Counter errors;
+
+    public InstrumentedAccountClosingService(BackgroundCheckService backgroundCheckService, Clock clock,
+                                             MetricsRegistry registry) {
+        super(backgroundCheckService, clock);
+        this.latency = registry.histogram("accountClosing.closeAccount");
+        for (AccountClosingStatus status : AccountClosingStatus.values()) {
+            outcomes.put(status, registry.counter("accountClosing.closeAccount." + status));
+        }
+        this.errors = registry.counter("accountClosing.closeAccount.errors");
+    }
+
+    @Override
+    public AccountClosingResponse closeAccount(Account account) throws IOException {
+        final long start = System.nanoTime();
+        try {
+            final AccountClosingResponse response = super.closeAccount(account);
+            outcomes.get(response.getStatus()).increment();
+            return response;
+        } catch (IOException | RuntimeException e) {
+            errors.increment();
+            throw e;
+        } finally {
+            latency.recordSince(start);
+        }
+    }
+}
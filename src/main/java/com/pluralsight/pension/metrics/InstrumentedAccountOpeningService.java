@@ -0,0 +1,49 @@
+package com.pluralsight.pension.metrics;
+
+import com.pluralsight.pension.AccountRepository;
+import com.pluralsight.pension.setup.AccountOpeningEventPublisher;
+import com.pluralsight.pension.setup.AccountOpeningService;
+import com.pluralsight.pension.setup.AccountOpeningStatus;
+import com.pluralsight.pension.setup.BackgroundCheckService;
+import com.pluralsight.pension.setup.ReferenceIdsManager;
+
+import java.io.IOException;
+import java.time.LocalDate;
+import java.util.EnumMap;
+import java.util.Map;
+
+public class InstrumentedAccountOpeningService extends AccountOpeningService {
+
+    private final LatencyHistogram latency;
+    private final Map<AccountOpeningStatus, Counter> outcomes = new EnumMap<>(AccountOpeningStatus.class);
+    private final Counter errors;
+
+    public InstrumentedAccountOpeningService(BackgroundCheckService backgroundCheckService,
+                                             ReferenceIdsManager referenceIdsManager,
+                                             AccountRepository accountRepository,
+                                             AccountOpeningEventPublisher eventPublisher,
+                                             MetricsRegistry registry) {
+        super(backgroundCheckService, referenceIdsManager, accountRepository, eventPublisher);
+        this.latency = registry.histogram("accountOpening.openAccount");
+        for (AccountOpeningStatus status : AccountOpeningStatus.values()) {
+            outcomes.put(status, registry.counter("accountOpening.openAccount." + status));
+        }
+        this.errors = registry.counter("accountOpening.openAccount.errors");
+    }
+
+    @Override
+    public AccountOpeningStatus openAccount(String firstName, String lastName, String taxId, LocalDate dob)
+            throws IOException {
+        final long start = System.nanoTime();
+        try {
+            final AccountOpeningStatus status = super.openAccount(firstName, lastName, taxId, dob);
+            outcomes.get(status).increment();
+            return status;
+        } catch (IOException | RuntimeException e) {
+            errors.increment();
+            throw e;
+        } finally {
+            latency.recordSince(start);
+        }
+    }
+}
@@ -0,0 +1,102 @@
+package com.pluralsight.pension.metrics;
+
+import javax.management.Attribute;
+import javax.management.AttributeList;
+import javax.management.AttributeNotFoundException;
+import javax.management.DynamicMBean;
+import javax.management.JMException;
+import javax.management.MBeanAttributeInfo;
+import javax.management.MBeanInfo;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.function.LongSupplier;
+
+// Read-only JMX view of a registry. Attributes are computed when read, so metrics registered after the bean
+// show up on the next refresh. Histograms expose count, p50, p99, p99.9 and max in microseconds.
+public class JmxMetricsExporter implements DynamicMBean {
+
+    private final MetricsRegistry registry;
+
+    public JmxMetricsExporter(MetricsRegistry registry) {
+        this.registry = registry;
+    }
+
+    public ObjectName register(String name) throws JMException {
+        final ObjectName objectName = new ObjectName("com.pluralsight.pension:type=Metrics,name=" + name);
+        ManagementFactory.getPlatformMBeanServer().registerMBean(this, objectName);
+        return objectName;
+    }
+
+    public static void unregister(ObjectName objectName) throws JMException {
+        final MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+        if (server.isRegistered(objectName)) {
+            server.unregisterMBean(objectName);
+        }
+    }
+
+    @Override
+    public Object getAttribute(String attribute) throws AttributeNotFoundException {
+        final LongSupplier value = attributes().get(attribute);
+        if (value == null) {
+            throw new AttributeNotFoundException(attribute);
+        }
+        return value.getAsLong();
+    }
+
+    @Override
+    public AttributeList getAttributes(String[] names) {
+        final Map<String, LongSupplier> attributes = attributes();
+        final AttributeList list = new AttributeList();
+        for (String name : names) {
+            final LongSupplier value = attributes.get(name);
+            if (value != null) {
+                list.add(new Attribute(name, value.getAsLong()));
+            }
+        }
+        return list;
+    }
+
+    @Override
+    public void setAttribute(Attribute attribute) {
+        throw new UnsupportedOperationException("Metrics are read-only.");
+    }
+
+    @Override
+    public AttributeList setAttributes(AttributeList attributes) {
+        return new AttributeList();
+    }
+
+    @Override
+    public Object invoke(String actionName, Object[] params, String[] signature) {
+        throw new UnsupportedOperationException("Metrics have no operations.");
+    }
+
+    @Override
+    public MBeanInfo getMBeanInfo() {
+        final List<MBeanAttributeInfo> infos = new ArrayList<>();
+        for (String name : attributes().keySet()) {
+            infos.add(new MBeanAttributeInfo(name, "long", name, true, false, false));
+        }
+        return new MBeanInfo(getClass().getName(), "Pension service metrics",
+                infos.toArray(new MBeanAttributeInfo[0]), null, null, null);
+    }
+
+    private Map<String, LongSupplier> attributes() {
+        final Map<String, LongSupplier> attributes = new TreeMap<>();
+        registry.getHistograms().forEach((name, histogram) -> {
+            attributes.put(name + ".count", histogram::getCount);
+            attributes.put(name + ".p50Micros", () -> histogram.getValueAtPercentile(50.0) / 1_000);
+            attributes.put(name + ".p99Micros", () -> histogram.getValueAtPercentile(99.0) / 1_000);
+            attributes.put(name + ".p999Micros", () -> histogram.getValueAtPercentile(99.9) / 1_000);
+            attributes.put(name + ".maxMicros", () -> histogram.getMax() / 1_000);
+        });
+        registry.getCounters().forEach((name, counter) -> attributes.put(name, counter::getCount));
+        attributes.putAll(registry.getGauges());
+        return attributes;
+    }
+}
@@ -0,0 +1,20 @@
+package com.pluralsight.pension.metrics;
+
+import java.util.Map;
+import java.util.function.LongSupplier;
+
+// Names are resolved to metric objects once, when a component is wired up, so recording never touches the registry
+public interface MetricsRegistry {
+
+    LatencyHistogram histogram(String name);
+
+    Counter counter(String name);
+
+    void gauge(String name, LongSupplier value);
+
+    Map<String, LatencyHistogram> getHistograms();
+
+    Map<String, Counter> getCounters();
+
+    Map<String, LongSupplier> getGauges();
+}
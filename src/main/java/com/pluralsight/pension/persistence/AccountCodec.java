@@ -0,0 +1,160 @@
+package com.pluralsight.pension.persistence;
+
+import com.pluralsight.pension.Account;
+import com.pluralsight.pension.Holdings;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInput;
+import java.io.DataInputStream;
+import java.io.DataOutput;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.time.LocalDate;
+import java.util.Currency;
+import java.util.HashSet;
+import java.util.Set;
+
+// Compact binary form of an Account used by both the journal and the snapshots. The id is written first so
+// recovery can partition records without decoding them fully. Holdings and then the trading limit come last, so
+// records written before they were persisted still decode, as accounts without them.
+class AccountCodec {
+
+    private AccountCodec() {
+    }
+
+    static byte[] encode(Account account) {
+        final ByteArrayOutputStream bytes = new ByteArrayOutputStream(128);
+        try (DataOutputStream out = new DataOutputStream(bytes)) {
+            out.writeUTF(account.getId());
+            writeString(out, account.getFistName());
+            writeString(out, account.getLastName());
+            writeDate(out, account.getDob());
+            writeString(out, account.getTaxId());
+            writeDecimal(out, account.getTotalInvestmentValue());
+            writeString(out, account.getCcy() != null ? account.getCcy().getCurrencyCode() : null);
+            final Set<String> investments = account.getInvestments();
+            if (investments == null) {
+                out.writeInt(-1);
+            } else {
+                out.writeInt(investments.size());
+                for (String fundId : investments) {
+                    out.writeUTF(fundId);
+                }
+            }
+            writeDecimal(out, account.getAvailableCash());
+            writeDate(out, account.getExpectedRetirement());
+            writeDate(out, account.getOpeningDate());
+            final Holdings holdings = account.getHoldingsIfCreated();
+            if (holdings == null) {
+                out.writeInt(0);
+                out.writeLong(0L);
+            } else {
+                out.writeInt(holdings.size());
+                holdings.forEach((fundId, units) -> {
+                    try {
+                        out.writeUTF(fundId);
+                        out.writeLong(units);
+                    } catch (IOException e) {
+                        throw new UncheckedIOException(e);
+                    }
+                });
+                out.writeLong(holdings.getValueUnits());
+            }
+            final Long limitUnits = account.getUpperAccountLimitUnits();
+            out.writeBoolean(limitUnits != null);
+            if (limitUnits != null) {
+                out.writeLong(limitUnits);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return bytes.toByteArray();
+    }
+
+    static Account decode(byte[] record) throws IOException {
+        final DataInputStream in = new DataInputStream(new ByteArrayInputStream(record));
+        final Account account = new Account();
+        account.setId(in.readUTF());
+        account.setFistName(readString(in));
+        account.setLastName(readString(in));
+        account.setDob(readDate(in));
+        account.setTaxId(readString(in));
+        account.setTotalInvestmentValue(readDecimal(in));
+        final String ccy = readString(in);
+        account.setCcy(ccy != null ? Currency.getInstance(ccy) : null);
+        final int investmentCount = in.readInt();
+        if (investmentCount >= 0) {
+            final Set<String> investments = new HashSet<>();
+            for (int i = 0; i < investmentCount; i++) {
+                investments.add(in.readUTF());
+            }
+            account.setInvestments(investments);
+        }
+        account.setAvailableCash(readDecimal(in));
+        account.setExpectedRetirement(readDate(in));
+        account.setOpeningDate(readDate(in));
+        if (in.available() > 0) {
+            final Holdings holdings = new Holdings();
+            final int holdingCount = in.readInt();
+            for (int i = 0; i < holdingCount; i++) {
+                holdings.addUnits(in.readUTF(), in.readLong());
+            }
+            holdings.setValueUnits(in.readLong());
+            account.setHoldings(holdings);
+        }
+        if (in.available() > 0 && in.readBoolean()) {
+            account.setUpperAccountLimitUnits(in.readLong());
+        }
+        return account;
+    }
+
+    static String readId(byte[] record) throws IOException {
+        return new DataInputStream(new ByteArrayInputStream(record)).readUTF();
+    }
+
+    private static void writeString(DataOutput out, String value) throws IOException {
+        out.writeBoolean(value != null);
+        if (value != null) {
+            out.writeUTF(value);
+        }
+    }
+
+    private static String readString(DataInput in) throws IOException {
+        return in.readBoolean() ? in.readUTF() : null;
+    }
+
+    private static void writeDate(DataOutput out, LocalDate value) throws IOException {
+        out.writeBoolean(value != null);
+        if (value != null) {
+            out.writeInt((int) value.toEpochDay());
+        }
+    }
+
+    private static LocalDate readDate(DataInput in) throws IOException {
+        return in.readBoolean() ? LocalDate.ofEpochDay(in.readInt()) : null;
+    }
+
+    private static void writeDecimal(DataOutput out, BigDecimal value) throws IOException {
+        out.writeBoolean(value != null);
+        if (value != null) {
+            final byte[] unscaled = value.unscaledValue().toByteArray();
+            out.writeInt(value.scale());
+            out.writeShort(unscaled.length);
+            out.write(unscaled);
+        }
+    }
+
+    private static BigDecimal readDecimal(DataInput in) throws IOException {
+        if (!in.readBoolean()) {
+            return null;
+        }
+        final int scale = in.readInt();
+        final byte[] unscaled = new byte[in.readUnsignedShort()];
+        in.readFully(unscaled);
+        return new BigDecimal(new BigInteger(unscaled), scale);
+    }
+}
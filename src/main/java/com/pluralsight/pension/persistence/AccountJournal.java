@@ -0,0 +1,213 @@
+package com.pluralsight.pension.persistence;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.zip.CRC32;
+
+// Append-only log of encoded accounts. A single writer thread drains every record queued since its last
+// write, writes them together and syncs once, so concurrent appends share one fsync (group commit).
+// Each record is [length][crc32][payload]; replay stops at the first torn or corrupt record.
+class AccountJournal implements Closeable {
+
+    private static final int HEADER_BYTES = 8;
+    private static final Entry SHUTDOWN = new Entry(null, -1);
+
+    private final Path directory;
+    private final BlockingQueue<Entry> queue = new LinkedBlockingQueue<>();
+    private final Thread writer;
+    // Guards closed together with the enqueue, so nothing can be queued behind SHUTDOWN
+    private final Object queueLock = new Object();
+    private FileChannel channel;
+    private boolean closed;
+
+    AccountJournal(Path directory, long generation, long validLength) throws IOException {
+        this.directory = directory;
+        this.channel = open(directory, generation);
+        channel.truncate(validLength);
+        channel.position(validLength);
+        this.writer = new Thread(this::writeLoop, "account-journal-writer");
+        this.writer.setDaemon(true);
+        this.writer.start();
+    }
+
+    static Path path(Path directory, long generation) {
+        return directory.resolve("journal-" + generation + ".log");
+    }
+
+    CompletableFuture<Void> append(byte[] payload) {
+        return enqueue(new Entry(payload, -1));
+    }
+
+    // Completes once every record appended before the call is durable in the old file
+    CompletableFuture<Void> rotate(long generation) {
+        return enqueue(new Entry(null, generation));
+    }
+
+    private CompletableFuture<Void> enqueue(Entry entry) {
+        synchronized (queueLock) {
+            if (closed) {
+                return CompletableFuture.failedFuture(new IOException("Journal is closed"));
+            }
+            queue.add(entry);
+        }
+        return entry.done;
+    }
+
+    static Replay replay(Path file) throws IOException {
+        final List<byte[]> records = new ArrayList<>();
+        long validLength = 0;
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            final long size = channel.size();
+            final ByteBuffer header = ByteBuffer.allocate(HEADER_BYTES);
+            while (validLength + HEADER_BYTES <= size) {
+                header.clear();
+                channel.read(header, validLength);
+                header.flip();
+                final int length = header.getInt();
+                final int checksum = header.getInt();
+                if (length < 0 || validLength + HEADER_BYTES + length > size) {
+                    break;
+                }
+                final ByteBuffer payload = ByteBuffer.allocate(length);
+                channel.read(payload, validLength + HEADER_BYTES);
+                if (checksum != checksum(payload.array())) {
+                    break;
+                }
+                records.add(payload.array());
+                validLength += HEADER_BYTES + length;
+            }
+        }
+        return new Replay(records, validLength);
+    }
+
+    @Override
+    public void close() throws IOException {
+        synchronized (queueLock) {
+            if (!closed) {
+                closed = true;
+                queue.add(SHUTDOWN);
+            }
+        }
+        try {
+            writer.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        channel.close();
+    }
+
+    private void writeLoop() {
+        final List<Entry> batch = new ArrayList<>();
+        while (true) {
+            try {
+                batch.add(queue.take());
+            } catch (InterruptedException e) {
+                return;
+            }
+            queue.drainTo(batch);
+            final List<Entry> writes = new ArrayList<>(batch.size());
+            for (int i = 0; i < batch.size(); i++) {
+                final Entry entry = batch.get(i);
+                if (entry.payload != null) {
+                    writes.add(entry);
+                    continue;
+                }
+                flush(writes);
+                writes.clear();
+                if (entry == SHUTDOWN) {
+                    failRemaining(batch.subList(i + 1, batch.size()));
+                    return;
+                }
+                try {
+                    channel.close();
+                    channel = open(directory, entry.rotateTo);
+                    entry.done.complete(null);
+                } catch (IOException e) {
+                    entry.done.completeExceptionally(e);
+                }
+            }
+            flush(writes);
+            batch.clear();
+        }
+    }
+
+    private void flush(List<Entry> writes) {
+        if (writes.isEmpty()) {
+            return;
+        }
+        try {
+            final ByteBuffer[] buffers = new ByteBuffer[writes.size() * 2];
+            for (int i = 0; i < writes.size(); i++) {
+                final byte[] payload = writes.get(i).payload;
+                buffers[2 * i] = ByteBuffer.allocate(HEADER_BYTES).putInt(payload.length).putInt(checksum(payload)).flip();
+                buffers[2 * i + 1] = ByteBuffer.wrap(payload);
+            }
+            long remaining = 0;
+            for (ByteBuffer buffer : buffers) {
+                remaining += buffer.remaining();
+            }
+            while (remaining > 0) {
+                remaining -= channel.write(buffers);
+            }
+            channel.force(false);
+            for (Entry entry : writes) {
+                entry.done.complete(null);
+            }
+        } catch (IOException e) {
+            for (Entry entry : writes) {
+                entry.done.completeExceptionally(e);
+            }
+        }
+    }
+
+    private void failRemaining(List<Entry> drained) {
+        final List<Entry> remaining = new ArrayList<>(drained);
+        queue.drainTo(remaining);
+        for (Entry entry : remaining) {
+            entry.done.completeExceptionally(new IOException("Journal is closed"));
+        }
+    }
+
+    private static FileChannel open(Path directory, long generation) throws IOException {
+        Files.createDirectories(directory);
+        return FileChannel.open(path(directory, generation),
+                StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.READ);
+    }
+
+    static int checksum(byte[] payload) {
+        final CRC32 crc = new CRC32();
+        crc.update(payload);
+        return (int) crc.getValue();
+    }
+
+    static class Replay {
+        final List<byte[]> records;
+        final long validLength;
+
+        private Replay(List<byte[]> records, long validLength) {
+            this.records = records;
+            this.validLength = validLength;
+        }
+    }
+
+    private static class Entry {
+        private final byte[] payload;
+        private final long rotateTo;
+        private final CompletableFuture<Void> done = new CompletableFuture<>();
+
+        private Entry(byte[] payload, long rotateTo) {
+            this.payload = payload;
+            this.rotateTo = rotateTo;
+        }
+    }
+}
@@ -0,0 +1,126 @@
+package com.pluralsight.pension.persistence;
+
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+
+// Point-in-time copy of every account, written through a memory-mapped file and published with an atomic
+// rename so a crash mid-write never leaves a half-written snapshot behind. The file is mapped a window at a time,
+// so its size is not capped at the 2 GB a single mapping can hold.
+class AccountSnapshotFile {
+
+    private static final int MAGIC = 0x50454E53;
+    private static final int VERSION = 1;
+    private static final int FILE_HEADER_BYTES = 16;
+    private static final int RECORD_HEADER_BYTES = 8;
+    private static final int WINDOW_BYTES = 1 << 28;
+
+    private AccountSnapshotFile() {
+    }
+
+    static Path path(Path directory, long generation) {
+        return directory.resolve("snapshot-" + generation + ".bin");
+    }
+
+    static void write(Path directory, long generation, List<byte[]> records) throws IOException {
+        write(directory, generation, records, WINDOW_BYTES);
+    }
+
+    static void write(Path directory, long generation, List<byte[]> records, int windowBytes) throws IOException {
+        long size = FILE_HEADER_BYTES;
+        for (byte[] record : records) {
+            size += RECORD_HEADER_BYTES + record.length;
+        }
+        final Path temporary = directory.resolve("snapshot-" + generation + ".tmp");
+        try (FileChannel channel = FileChannel.open(temporary, StandardOpenOption.CREATE,
+                StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            final MappedWindow window = new MappedWindow(channel, FileChannel.MapMode.READ_WRITE, size, windowBytes);
+            window.ensure(FILE_HEADER_BYTES).putInt(MAGIC).putInt(VERSION).putLong(records.size());
+            for (byte[] record : records) {
+                window.ensure(RECORD_HEADER_BYTES + record.length)
+                        .putInt(record.length).putInt(AccountJournal.checksum(record)).put(record);
+            }
+            window.force();
+        }
+        Files.move(temporary, path(directory, generation), StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    static List<byte[]> read(Path file) throws IOException {
+        return read(file, WINDOW_BYTES);
+    }
+
+    static List<byte[]> read(Path file, int windowBytes) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            final MappedWindow window = new MappedWindow(channel, FileChannel.MapMode.READ_ONLY, channel.size(),
+                    windowBytes);
+            if (channel.size() < FILE_HEADER_BYTES) {
+                throw new IOException("Not an account snapshot: " + file);
+            }
+            MappedByteBuffer buffer = window.ensure(FILE_HEADER_BYTES);
+            if (buffer.getInt() != MAGIC || buffer.getInt() != VERSION) {
+                throw new IOException("Not an account snapshot: " + file);
+            }
+            final long count = buffer.getLong();
+            final List<byte[]> records = new ArrayList<>((int) Math.min(count, Integer.MAX_VALUE));
+            for (long i = 0; i < count; i++) {
+                buffer = window.ensure(RECORD_HEADER_BYTES);
+                final int length = buffer.getInt();
+                final int checksum = buffer.getInt();
+                if (length < 0) {
+                    throw new IOException("Corrupt record " + i + " in snapshot " + file);
+                }
+                final byte[] record = new byte[length];
+                window.ensure(length).get(record);
+                if (checksum != AccountJournal.checksum(record)) {
+                    throw new IOException("Corrupt record " + i + " in snapshot " + file);
+                }
+                records.add(record);
+            }
+            return records;
+        }
+    }
+
+    // Maps the next window once the current one cannot hold the bytes asked for, so no record straddles two
+    private static class MappedWindow {
+        private final FileChannel channel;
+        private final FileChannel.MapMode mode;
+        private final long size;
+        private final int windowBytes;
+        private long start;
+        private MappedByteBuffer buffer;
+
+        private MappedWindow(FileChannel channel, FileChannel.MapMode mode, long size, int windowBytes) {
+            this.channel = channel;
+            this.mode = mode;
+            this.size = size;
+            this.windowBytes = windowBytes;
+        }
+
+        private MappedByteBuffer ensure(int bytes) throws IOException {
+            if (buffer != null && buffer.remaining() >= bytes) {
+                return buffer;
+            }
+            final long position = buffer == null ? 0L : start + buffer.position();
+            force();
+            final long length = Math.min(Math.max(windowBytes, bytes), size - position);
+            if (length < bytes) {
+                throw new IOException("Snapshot ends at byte " + size + " in the middle of a record");
+            }
+            start = position;
+            buffer = channel.map(mode, position, length);
+            return buffer;
+        }
+
+        private void force() {
+            if (buffer != null && mode == FileChannel.MapMode.READ_WRITE) {
+                buffer.force();
+            }
+        }
+    }
+}
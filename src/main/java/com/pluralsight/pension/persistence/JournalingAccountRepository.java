@@ -0,0 +1,311 @@
+package com.pluralsight.pension.persistence;
+
+import com.pluralsight.pension.Account;
+import com.pluralsight.pension.AccountRepository;
+import com.pluralsight.pension.InMemoryAccountRepository;
+import com.pluralsight.pension.setup.BackgroundCheckResults;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.stream.Stream;
+
+// Local persistent AccountRepository. Every save is applied to an in-memory repository and appended to a
+// journal; save returns once the record is durable, with concurrent saves sharing one fsync, and is undone in
+// memory if the journal write fails. Snapshots roll the
+// journal over, so on startup only the latest snapshot plus the journals written after it are replayed.
+public class JournalingAccountRepository implements AccountRepository, Closeable {
+
+    private static final int LOCK_STRIPES = 64;
+    private static final Duration SNAPSHOT_CLOSE_TIMEOUT = Duration.ofSeconds(30);
+    private static final Pattern GENERATION_FILE = Pattern.compile("(snapshot|journal)-(\\d+)\\.(bin|log)");
+
+    private final Path directory;
+    private final InMemoryAccountRepository accounts;
+    private final Object[] stripes = new Object[LOCK_STRIPES];
+    private final Object snapshotLock = new Object();
+    private final AccountJournal journal;
+    private final ScheduledExecutorService snapshotScheduler;
+    private long generation;
+    private volatile IOException lastSnapshotFailure;
+
+    // accounts must be empty; it is filled from disk before the constructor returns
+    public JournalingAccountRepository(Path directory, InMemoryAccountRepository accounts,
+                                       Duration snapshotInterval) throws IOException {
+        this.directory = directory;
+        this.accounts = accounts;
+        for (int i = 0; i < LOCK_STRIPES; i++) {
+            stripes[i] = new Object();
+        }
+        Files.createDirectories(directory);
+        this.journal = recover();
+
+        if (snapshotInterval != null && !snapshotInterval.isZero()) {
+            snapshotScheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+                Thread thread = new Thread(runnable, "account-snapshots");
+                thread.setDaemon(true);
+                return thread;
+            });
+            snapshotScheduler.scheduleWithFixedDelay(this::periodicSnapshot,
+                    snapshotInterval.toMillis(), snapshotInterval.toMillis(), TimeUnit.MILLISECONDS);
+        } else {
+            snapshotScheduler = null;
+        }
+    }
+
+    @Override
+    public boolean save(String id, String firstName, String lastName, String taxId, LocalDate dob,
+                        BackgroundCheckResults backgroundCheckResults) {
+        final Optional<Account> previous;
+        final Account saved;
+        final CompletableFuture<Void> durable;
+        synchronized (stripeFor(id)) {
+            previous = accounts.findById(id);
+            if (!accounts.save(id, firstName, lastName, taxId, dob, backgroundCheckResults)) {
+                return false;
+            }
+            saved = accounts.findById(id).orElseThrow();
+            durable = journal.append(AccountCodec.encode(saved));
+        }
+        awaitDurable(durable, saved, previous);
+        return true;
+    }
+
+    @Override
+    public boolean save(Account account) {
+        final Optional<Account> previous;
+        final CompletableFuture<Void> durable;
+        synchronized (stripeFor(account.getId())) {
+            previous = accounts.findById(account.getId());
+            if (!accounts.save(account)) {
+                return false;
+            }
+            durable = journal.append(AccountCodec.encode(account));
+        }
+        awaitDurable(durable, account, previous);
+        return true;
+    }
+
+    @Override
+    public boolean isExpired(Account account) {
+        return accounts.isExpired(account);
+    }
+
+    @Override
+    public Optional<Account> findById(String id) {
+        return accounts.findById(id);
+    }
+
+    @Override
+    public Optional<Account> findByTaxId(String taxId) {
+        return accounts.findByTaxId(taxId);
+    }
+
+    @Override
+    public List<Account> findByDobBetween(LocalDate fromInclusive, LocalDate toInclusive) {
+        return accounts.findByDobBetween(fromInclusive, toInclusive);
+    }
+
+    @Override
+    public List<Account> findByExpectedRetirementBetween(LocalDate fromInclusive, LocalDate toInclusive) {
+        return accounts.findByExpectedRetirementBetween(fromInclusive, toInclusive);
+    }
+
+    // Visits every recovered or saved account, for example to rebuild state kept outside the repository on startup
+    public void forEach(Consumer<Account> action) {
+        accounts.forEach(action);
+    }
+
+    // Records made durable before the journal rolls over are already applied in memory, so they are all in the
+    // snapshot; records that land in the new journal may be in it too, which is harmless as replay is idempotent.
+    public void snapshot() throws IOException {
+        synchronized (snapshotLock) {
+            final long next = generation + 1;
+            awaitJournal(journal.rotate(next));
+            final List<byte[]> records = new ArrayList<>(accounts.size());
+            accounts.forEach(account -> {
+                synchronized (stripeFor(account.getId())) {
+                    records.add(AccountCodec.encode(account));
+                }
+            });
+            AccountSnapshotFile.write(directory, next, records);
+            generation = next;
+            deleteGenerationsBefore(next);
+        }
+    }
+
+    public IOException getLastSnapshotFailure() {
+        return lastSnapshotFailure;
+    }
+
+    // Lets a snapshot that is already running finish before the journal closes
+    @Override
+    public void close() throws IOException {
+        if (snapshotScheduler != null) {
+            snapshotScheduler.shutdown();
+            try {
+                if (!snapshotScheduler.awaitTermination(SNAPSHOT_CLOSE_TIMEOUT.toMillis(), TimeUnit.MILLISECONDS)) {
+                    snapshotScheduler.shutdownNow();
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                snapshotScheduler.shutdownNow();
+            }
+        }
+        journal.close();
+    }
+
+    private AccountJournal recover() throws IOException {
+        long snapshotGeneration = -1;
+        final List<Long> journalGenerations = new ArrayList<>();
+        try (Stream<Path> files = Files.list(directory)) {
+            for (Path file : (Iterable<Path>) files::iterator) {
+                final Matcher matcher = GENERATION_FILE.matcher(file.getFileName().toString());
+                if (matcher.matches()) {
+                    final long fileGeneration = Long.parseLong(matcher.group(2));
+                    if (matcher.group(1).equals("snapshot")) {
+                        snapshotGeneration = Math.max(snapshotGeneration, fileGeneration);
+                    } else {
+                        journalGenerations.add(fileGeneration);
+                    }
+                }
+            }
+        }
+
+        if (snapshotGeneration >= 0) {
+            apply(AccountSnapshotFile.read(AccountSnapshotFile.path(directory, snapshotGeneration)));
+        }
+        generation = Math.max(snapshotGeneration, 0);
+        long validLength = 0;
+        journalGenerations.sort(null);
+        for (long journalGeneration : journalGenerations) {
+            if (journalGeneration >= snapshotGeneration) {
+                final AccountJournal.Replay replay =
+                        AccountJournal.replay(AccountJournal.path(directory, journalGeneration));
+                apply(replay.records);
+                generation = journalGeneration;
+                validLength = replay.validLength;
+            }
+        }
+        return new AccountJournal(directory, generation, validLength);
+    }
+
+    // Records for the same account stay in order within a partition; partitions are replayed in parallel. A save
+    // can only be rejected because another partition has not yet moved the tax id off its earlier owner, so each
+    // account's last record, if rejected, is retried in journal order once the first pass is done.
+    private void apply(List<byte[]> records) throws IOException {
+        final int partitionCount = Runtime.getRuntime().availableProcessors();
+        final List<List<Integer>> partitions = new ArrayList<>(partitionCount);
+        for (int i = 0; i < partitionCount; i++) {
+            partitions.add(new ArrayList<>());
+        }
+        for (int i = 0; i < records.size(); i++) {
+            partitions.get(Math.floorMod(AccountCodec.readId(records.get(i)).hashCode(), partitionCount)).add(i);
+        }
+        final Map<String, Integer> rejected = new ConcurrentHashMap<>();
+        try {
+            partitions.parallelStream().forEach(partition -> {
+                for (int index : partition) {
+                    final Account account = decode(records.get(index));
+                    if (accounts.save(account)) {
+                        rejected.remove(account.getId());
+                    } else {
+                        rejected.put(account.getId(), index);
+                    }
+                }
+            });
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+
+        final List<Integer> retries = new ArrayList<>(rejected.values());
+        retries.sort(null);
+        boolean progress = true;
+        while (!retries.isEmpty() && progress) {
+            progress = retries.removeIf(index -> accounts.save(decode(records.get(index))));
+        }
+        if (!retries.isEmpty()) {
+            throw new IOException(retries.size() + " journal records conflict on tax id, first at record "
+                    + retries.get(0));
+        }
+    }
+
+    private static Account decode(byte[] record) {
+        try {
+            return AccountCodec.decode(record);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private void deleteGenerationsBefore(long keep) throws IOException {
+        try (Stream<Path> files = Files.list(directory)) {
+            for (Path file : (Iterable<Path>) files::iterator) {
+                final Matcher matcher = GENERATION_FILE.matcher(file.getFileName().toString());
+                if (matcher.matches() && Long.parseLong(matcher.group(2)) < keep) {
+                    Files.deleteIfExists(file);
+                }
+            }
+        }
+    }
+
+    private void periodicSnapshot() {
+        try {
+            snapshot();
+            lastSnapshotFailure = null;
+        } catch (IOException e) {
+            lastSnapshotFailure = e;
+        }
+    }
+
+    private Object stripeFor(String id) {
+        return stripes[Math.floorMod(id.hashCode(), LOCK_STRIPES)];
+    }
+
+    // On failure, puts back what the save replaced so readers stop seeing a record that is not durable. An account
+    // saved again as the same, mutated object can only have its index entries restored, not its old field values.
+    private void awaitDurable(CompletableFuture<Void> durable, Account saved, Optional<Account> previous) {
+        try {
+            awaitJournal(durable);
+        } catch (IOException e) {
+            synchronized (stripeFor(saved.getId())) {
+                if (accounts.findById(saved.getId()).orElse(null) == saved) {
+                    if (previous.isPresent()) {
+                        accounts.save(previous.get());
+                    } else {
+                        accounts.delete(saved.getId());
+                    }
+                }
+            }
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static void awaitJournal(CompletableFuture<Void> done) throws IOException {
+        try {
+            done.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Interrupted while waiting for the journal", e);
+        } catch (ExecutionException e) {
+            throw e.getCause() instanceof IOException ? (IOException) e.getCause() : new IOException(e.getCause());
+        }
+    }
+}
@@ -0,0 +1,156 @@
+package com.pluralsight.pension.resilience;
+
+import com.pluralsight.pension.metrics.MetricsRegistry;
+
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+
+// Caps calls in flight to one dependency and finds the cap by itself, AIMD style: while round trips stay within
+// a tolerance of the best recently seen, the limit grows by one per limit's worth of calls; a failed call or a
+// round trip beyond the tolerance cuts it by a fixed ratio. Callers over the limit wait, up to a bounded time
+// and queue depth, and are shed after that.
+public class AdaptiveConcurrencyLimiter {
+
+    public static final double DEFAULT_BACKOFF_RATIO = 0.9;
+    public static final double DEFAULT_RTT_TOLERANCE = 2.0;
+    // Samples per baseline window; the baseline follows the dependency if it gets permanently slower
+    private static final int BASELINE_WINDOW = 1_000;
+
+    private final int minLimit;
+    private final int maxLimit;
+    private final int maxQueueDepth;
+    private final long maxWaitNanos;
+    private final double backoffRatio;
+    private final double rttTolerance;
+
+    private double limit;
+    private int inFlight;
+    private int queueDepth;
+    private long shedCount;
+    private long baselineRtt = Long.MAX_VALUE;
+    private long windowMinRtt = Long.MAX_VALUE;
+    private int windowSamples;
+
+    public AdaptiveConcurrencyLimiter(int initialLimit, int minLimit, int maxLimit, int maxQueueDepth,
+                                      Duration maxWait) {
+        this(initialLimit, minLimit, maxLimit, maxQueueDepth, maxWait, DEFAULT_BACKOFF_RATIO, DEFAULT_RTT_TOLERANCE);
+    }
+
+    public AdaptiveConcurrencyLimiter(int initialLimit, int minLimit, int maxLimit, int maxQueueDepth,
+                                      Duration maxWait, double backoffRatio, double rttTolerance) {
+        if (minLimit < 1 || minLimit > initialLimit || initialLimit > maxLimit) {
+            throw new IllegalArgumentException("Limits must satisfy 1 <= min <= initial <= max.");
+        }
+        this.minLimit = minLimit;
+        this.maxLimit = maxLimit;
+        this.maxQueueDepth = maxQueueDepth;
+        this.maxWaitNanos = maxWait.toNanos();
+        this.backoffRatio = backoffRatio;
+        this.rttTolerance = rttTolerance;
+        this.limit = initialLimit;
+    }
+
+    // Every call that is let through must be followed by onSuccess, onDropped or onIgnored. A caller arriving
+    // while a slot is free takes it even if others are queued.
+    public synchronized boolean tryAcquire() throws InterruptedException {
+        if (inFlight < getLimit()) {
+            inFlight++;
+            return true;
+        }
+        if (queueDepth >= maxQueueDepth || maxWaitNanos <= 0) {
+            shedCount++;
+            return false;
+        }
+        queueDepth++;
+        try {
+            final long deadline = System.nanoTime() + maxWaitNanos;
+            long remaining = maxWaitNanos;
+            while (inFlight >= getLimit()) {
+                if (remaining <= 0) {
+                    shedCount++;
+                    return false;
+                }
+                TimeUnit.NANOSECONDS.timedWait(this, remaining);
+                remaining = deadline - System.nanoTime();
+            }
+            inFlight++;
+            return true;
+        } finally {
+            queueDepth--;
+        }
+    }
+
+    // Never waits; for callers that must not block, such as asynchronous ones
+    public synchronized boolean tryAcquireNow() {
+        if (inFlight < getLimit()) {
+            inFlight++;
+            return true;
+        }
+        shedCount++;
+        return false;
+    }
+
+    public synchronized void onSuccess(long rttNanos) {
+        final boolean saturated = inFlight * 2 >= limit;
+        inFlight--;
+        windowMinRtt = Math.min(windowMinRtt, rttNanos);
+        final long baseline = Math.min(baselineRtt, windowMinRtt);
+        if (++windowSamples >= BASELINE_WINDOW) {
+            baselineRtt = windowMinRtt;
+            windowMinRtt = Long.MAX_VALUE;
+            windowSamples = 0;
+        }
+        if (rttNanos > baseline * rttTolerance) {
+            backOff();
+        } else if (saturated) {
+            // Only grow when the current limit is actually being used, so an idle period cannot inflate it
+            final int before = getLimit();
+            limit = Math.min(maxLimit, limit + 1.0 / limit);
+            if (getLimit() > before) {
+                notifyAll();
+                return;
+            }
+        }
+        notify();
+    }
+
+    // The call failed or timed out, which is taken as a sign of overload
+    public synchronized void onDropped() {
+        inFlight--;
+        backOff();
+        notify();
+    }
+
+    // The call ended without saying anything about the dependency's load, e.g. it was rejected as invalid
+    public synchronized void onIgnored() {
+        inFlight--;
+        notify();
+    }
+
+    public synchronized int getLimit() {
+        return (int) limit;
+    }
+
+    public synchronized int getInFlight() {
+        return inFlight;
+    }
+
+    public synchronized int getQueueDepth() {
+        return queueDepth;
+    }
+
+    public synchronized long getShedCount() {
+        return shedCount;
+    }
+
+    public void exportTo(MetricsRegistry registry, String name) {
+        registry.gauge(name + ".limit", this::getLimit);
+        registry.gauge(name + ".inFlight", this::getInFlight);
+        registry.gauge(name + ".queueDepth", this::getQueueDepth);
+        registry.gauge(name + ".shed", this::getShedCount);
+    }
+
+    private void backOff() {
+        limit = Math.max(minLimit, limit * backoffRatio);
+    }
+}
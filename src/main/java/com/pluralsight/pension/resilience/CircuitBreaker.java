@@ -0,0 +1,104 @@
+package com.pluralsight.pension.resilience;
+
+import java.time.Clock;
+import java.time.Duration;
+
+// Classic three-state breaker: opens after a run of consecutive failures, rejects calls while open, then lets a
+// single trial call through once the open period has passed and closes again only if that call succeeds.
+// Each call is admitted with a permit naming the breaker generation it was admitted under; every state change
+// starts a new generation, and outcomes reported with an older permit are ignored, so a slow call admitted
+// before the breaker tripped can neither close it again nor be mistaken for the trial.
+public class CircuitBreaker {
+
+    public static final long REJECTED = -1L;
+
+    public enum State {
+        CLOSED, OPEN, HALF_OPEN
+    }
+
+    private final int failureThreshold;
+    private final long openMillis;
+    private final Clock clock;
+
+    private State state = State.CLOSED;
+    private long generation;
+    private int consecutiveFailures;
+    private long openedAt;
+    private boolean trialInFlight;
+    private long openCount;
+
+    public CircuitBreaker(int failureThreshold, Duration openDuration, Clock clock) {
+        if (failureThreshold < 1) {
+            throw new IllegalArgumentException("Failure threshold must be at least 1.");
+        }
+        this.failureThreshold = failureThreshold;
+        this.openMillis = openDuration.toMillis();
+        this.clock = clock;
+    }
+
+    // Returns a permit, or REJECTED. Every permitted call must be followed by onSuccess, onFailure or onIgnored
+    // with its permit.
+    public synchronized long tryAcquire() {
+        switch (state) {
+            case CLOSED:
+                return generation;
+            case OPEN:
+                if (clock.millis() - openedAt < openMillis) {
+                    return REJECTED;
+                }
+                state = State.HALF_OPEN;
+                generation++;
+                trialInFlight = true;
+                return generation;
+            default:
+                if (trialInFlight) {
+                    return REJECTED;
+                }
+                trialInFlight = true;
+                return generation;
+        }
+    }
+
+    public synchronized void onSuccess(long permit) {
+        if (permit != generation) {
+            return;
+        }
+        consecutiveFailures = 0;
+        if (state == State.HALF_OPEN) {
+            state = State.CLOSED;
+            trialInFlight = false;
+            generation++;
+        }
+    }
+
+    public synchronized void onFailure(long permit) {
+        if (permit != generation) {
+            return;
+        }
+        consecutiveFailures++;
+        if (state == State.HALF_OPEN || consecutiveFailures >= failureThreshold) {
+            state = State.OPEN;
+            trialInFlight = false;
+            openedAt = clock.millis();
+            openCount++;
+            generation++;
+        }
+    }
+
+    // The call ended for a reason that says nothing about the dependency, e.g. the caller was interrupted;
+    // an abandoned trial lets the next caller try instead
+    public synchronized void onIgnored(long permit) {
+        if (permit == generation && state == State.HALF_OPEN) {
+            trialInFlight = false;
+        }
+    }
+
+    public synchronized State getState() {
+        return state;
+    }
+
+    // Number of times the breaker has tripped
+    public synchronized long getOpenCount() {
+        return openCount;
+    }
+}
@@ -0,0 +1,145 @@
+package com.pluralsight.pension.resilience;
+
+import com.pluralsight.pension.investment.BrokerClient;
+import com.pluralsight.pension.setup.BackgroundCheckResults;
+import com.pluralsight.pension.setup.BackgroundCheckService;
+import com.pluralsight.pension.setup.ReferenceIdsManager;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.math.BigDecimal;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.RejectedExecutionException;
+
+// Decorators that pass every call to a remote dependency through its AdaptiveConcurrencyLimiter. A call over
+// the limit fails the way that dependency already fails when it is unavailable.
+public final class ConcurrencyLimited {
+
+    private ConcurrencyLimited() {
+    }
+
+    public static BackgroundCheckService backgroundCheckService(BackgroundCheckService delegate,
+                                                                AdaptiveConcurrencyLimiter limiter) {
+        return (firstName, lastName, taxId, dob) -> {
+            acquire(limiter, "background checks");
+            final long start = System.nanoTime();
+            Outcome outcome = Outcome.IGNORED;
+            try {
+                final BackgroundCheckResults results = delegate.confirm(firstName, lastName, taxId, dob);
+                outcome = Outcome.SUCCEEDED;
+                return results;
+            } catch (IOException e) {
+                outcome = Outcome.DROPPED;
+                throw e;
+            } finally {
+                release(limiter, outcome, start);
+            }
+        };
+    }
+
+    // The interface has no checked exception, so shed calls throw RejectedExecutionException
+    public static ReferenceIdsManager referenceIdsManager(ReferenceIdsManager delegate,
+                                                          AdaptiveConcurrencyLimiter limiter) {
+        return (firstName, middleName, lastName, taxId, dob) -> {
+            try {
+                if (!limiter.tryAcquire()) {
+                    throw new RejectedExecutionException("Too many reference id requests in flight");
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new RejectedExecutionException("Interrupted waiting to request a reference id", e);
+            }
+            final long start = System.nanoTime();
+            Outcome outcome = Outcome.IGNORED;
+            try {
+                final String id = delegate.obtainId(firstName, middleName, lastName, taxId, dob);
+                outcome = Outcome.SUCCEEDED;
+                return id;
+            } catch (RuntimeException e) {
+                outcome = Outcome.DROPPED;
+                throw e;
+            } finally {
+                release(limiter, outcome, start);
+            }
+        };
+    }
+
+    public static BrokerClient brokerClient(BrokerClient delegate, AdaptiveConcurrencyLimiter limiter) {
+        return new BrokerClient() {
+            @Override
+            public boolean executeInvestmentTransaction(String fundId, BigDecimal investmentAmount, String direction)
+                    throws IOException {
+                acquire(limiter, "broker orders");
+                final long start = System.nanoTime();
+                Outcome outcome = Outcome.IGNORED;
+                try {
+                    final boolean executed = delegate.executeInvestmentTransaction(fundId, investmentAmount, direction);
+                    outcome = Outcome.SUCCEEDED;
+                    return executed;
+                } catch (IOException e) {
+                    outcome = Outcome.DROPPED;
+                    throw e;
+                } finally {
+                    release(limiter, outcome, start);
+                }
+            }
+
+            // Asynchronous callers are never parked: over the limit, the order fails straight away
+            @Override
+            public CompletableFuture<Boolean> executeInvestmentTransactionAsync(String fundId,
+                                                                                BigDecimal investmentAmount,
+                                                                                String direction) {
+                if (!limiter.tryAcquireNow()) {
+                    final CompletableFuture<Boolean> shed = new CompletableFuture<>();
+                    shed.completeExceptionally(new IOException("Too many broker orders in flight"));
+                    return shed;
+                }
+                final long start = System.nanoTime();
+                CompletableFuture<Boolean> order = null;
+                try {
+                    order = delegate.executeInvestmentTransactionAsync(fundId, investmentAmount, direction);
+                } finally {
+                    if (order == null) {
+                        limiter.onIgnored();
+                    }
+                }
+                return order.whenComplete((executed, failure) -> {
+                    if (failure == null) {
+                        limiter.onSuccess(System.nanoTime() - start);
+                    } else {
+                        limiter.onDropped();
+                    }
+                });
+            }
+        };
+    }
+
+    // Errors and the failures a dependency does not signal overload with release the permit without moving the limit
+    private enum Outcome {
+        SUCCEEDED, DROPPED, IGNORED
+    }
+
+    private static void release(AdaptiveConcurrencyLimiter limiter, Outcome outcome, long start) {
+        switch (outcome) {
+            case SUCCEEDED:
+                limiter.onSuccess(System.nanoTime() - start);
+                break;
+            case DROPPED:
+                limiter.onDropped();
+                break;
+            default:
+                limiter.onIgnored();
+        }
+    }
+
+    private static void acquire(AdaptiveConcurrencyLimiter limiter, String calls) throws IOException {
+        try {
+            if (!limiter.tryAcquire()) {
+                throw new IOException("Too many " + calls + " in flight");
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrupted waiting to start " + calls);
+        }
+    }
+}
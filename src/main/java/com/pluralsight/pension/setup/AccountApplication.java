@@ -0,0 +1,26 @@
+package com.pluralsight.pension.setup;
+
+public class AccountApplication {
+
+    private final String id;
+    private final Applicant applicant;
+    private final BackgroundCheckResults backgroundCheckResults;
+
+    public AccountApplication(String id, Applicant applicant, BackgroundCheckResults backgroundCheckResults) {
+        this.id = id;
+        this.applicant = applicant;
+        this.backgroundCheckResults = backgroundCheckResults;
+    }
+
+    public String getId() {
+        return id;
+    }
+
+    public Applicant getApplicant() {
+        return applicant;
+    }
+
+    public BackgroundCheckResults getBackgroundCheckResults() {
+        return backgroundCheckResults;
+    }
+}
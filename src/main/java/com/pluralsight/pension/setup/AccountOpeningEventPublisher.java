@@ -1,6 +1,14 @@
 package com.pluralsight.pension.setup;
 
+import java.util.List;
+
 public interface AccountOpeningEventPublisher {
 
     void notify(String accountId);
+
+    default void notifyBatch(List<String> accountIds) {
+        for (String accountId : accountIds) {
+            notify(accountId);
+        }
+    }
 }
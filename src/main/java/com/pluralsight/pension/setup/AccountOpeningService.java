@@ -1,9 +1,12 @@
 package com.pluralsight.pension.setup;
 
 import com.pluralsight.pension.AccountRepository;
+import com.pluralsight.pension.AsyncAccountRepository;
+import com.pluralsight.pension.BlockingServiceAdapter;
 
 import java.io.IOException;
 import java.time.LocalDate;
+import java.util.concurrent.CompletableFuture;
 
 public class AccountOpeningService {
 
@@ -12,6 +15,9 @@ public class AccountOpeningService {
     private ReferenceIdsManager referenceIdsManager;
     private AccountRepository accountRepository;
     private AccountOpeningEventPublisher eventPublisher;
+    private AsyncBackgroundCheckService asyncBackgroundCheckService;
+    private AsyncReferenceIdsManager asyncReferenceIdsManager;
+    private AsyncAccountRepository asyncAccountRepository;
 
 
     public AccountOpeningService(BackgroundCheckService backgroundCheckService,
@@ -22,19 +28,34 @@ public class AccountOpeningService {
         this.referenceIdsManager = referenceIdsManager;
         this.accountRepository = accountRepository;
         this.eventPublisher = eventPublisher;
+        this.asyncBackgroundCheckService = AsyncBackgroundCheckService.inline(backgroundCheckService);
+        this.asyncReferenceIdsManager = AsyncReferenceIdsManager.inline(referenceIdsManager);
+        this.asyncAccountRepository = AsyncAccountRepository.inline(accountRepository);
+    }
+
+    public AccountOpeningService(AsyncBackgroundCheckService asyncBackgroundCheckService,
+                                 AsyncReferenceIdsManager asyncReferenceIdsManager,
+                                 AsyncAccountRepository asyncAccountRepository,
+                                 AccountOpeningEventPublisher eventPublisher) {
+        this.asyncBackgroundCheckService = asyncBackgroundCheckService;
+        this.asyncReferenceIdsManager = asyncReferenceIdsManager;
+        this.asyncAccountRepository = asyncAccountRepository;
+        this.eventPublisher = eventPublisher;
     }
 
 
     public AccountOpeningStatus openAccount(String firstName, String lastName, String taxId, LocalDate dob)
             throws IOException {
+        if (backgroundCheckService == null) {
+            return BlockingServiceAdapter.await(openAccountAsync(firstName, lastName, taxId, dob));
+        }
 
         final BackgroundCheckResults backgroundCheckResults = backgroundCheckService.confirm(firstName,
                 lastName,
                 taxId,
                 dob);
 
-        if (backgroundCheckResults == null ||
-                backgroundCheckResults.getRiskProfile().equals(UNACCEPTABLE_RISK_PROFILE)) {
+        if (!isAcceptable(backgroundCheckResults)) {
             return AccountOpeningStatus.DECLINED;
         } else {
             final String id = referenceIdsManager.obtainId(firstName, "", lastName, taxId, dob);
@@ -47,4 +68,31 @@ public class AccountOpeningService {
             }
         }
     }
+
+    public CompletableFuture<AccountOpeningStatus> openAccountAsync(String firstName, String lastName,
+                                                                    String taxId, LocalDate dob) {
+        return asyncBackgroundCheckService.confirm(firstName, lastName, taxId, dob)
+                .thenCompose(backgroundCheckResults -> {
+                    if (!isAcceptable(backgroundCheckResults)) {
+                        return CompletableFuture.completedFuture(AccountOpeningStatus.DECLINED);
+                    }
+                    return asyncReferenceIdsManager.obtainId(firstName, "", lastName, taxId, dob)
+                            .thenCompose(id -> {
+                                if (id == null) {
+                                    return CompletableFuture.completedFuture(AccountOpeningStatus.DECLINED);
+                                }
+                                return asyncAccountRepository
+                                        .save(id, firstName, lastName, taxId, dob, backgroundCheckResults)
+                                        .thenApply(saved -> {
+                                            eventPublisher.notify(id);
+                                            return AccountOpeningStatus.OPENED;
+                                        });
+                            });
+                });
+    }
+
+    static boolean isAcceptable(BackgroundCheckResults backgroundCheckResults) {
+        return backgroundCheckResults != null &&
+                !backgroundCheckResults.getRiskProfile().equals(UNACCEPTABLE_RISK_PROFILE);
+    }
 }
\ No newline at end of file
@@ -0,0 +1,55 @@
+package com.pluralsight.pension.setup;
+
+import java.time.LocalDate;
+import java.util.Objects;
+
+public class Applicant {
+
+    private final String firstName;
+    private final String lastName;
+    private final String taxId;
+    private final LocalDate dob;
+
+    public Applicant(String firstName, String lastName, String taxId, LocalDate dob) {
+        this.firstName = firstName;
+        this.lastName = lastName;
+        this.taxId = taxId;
+        this.dob = dob;
+    }
+
+    public String getFirstName() {
+        return firstName;
+    }
+
+    public String getLastName() {
+        return lastName;
+    }
+
+    public String getTaxId() {
+        return taxId;
+    }
+
+    public LocalDate getDob() {
+        return dob;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (!(o instanceof Applicant)) {
+            return false;
+        }
+        Applicant that = (Applicant) o;
+        return Objects.equals(firstName, that.firstName) &&
+                Objects.equals(lastName, that.lastName) &&
+                Objects.equals(taxId, that.taxId) &&
+                Objects.equals(dob, that.dob);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(firstName, lastName, taxId, dob);
+    }
+}
@@ -0,0 +1,159 @@
+package com.pluralsight.pension.setup;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.atomic.AtomicReference;
+
+// Streams an applicant file through the bulk opening pipeline one chunk at a time. A reader thread parses ahead
+// into a small bounded queue, so memory use depends on the chunk size and not on the file size. After each chunk
+// its "index,status" lines are forced to the result file and a checkpoint records how many records and result
+// bytes are complete; a later run with the same files truncates any partial output and carries on from there.
+// When an earlier run left a checkpoint or result file behind, the first chunk may already have been saved by a
+// run that crashed before its checkpoint, so it is resumed by taxId rather than opened again. A fresh run opens
+// every chunk the same way. Resuming re-parses the records before the checkpoint to reach it, so it costs a read
+// of the file up to that point rather than a seek.
+public class ApplicantFileImporter {
+
+    public static final int DEFAULT_CHUNK_SIZE = 1_000;
+    private static final int CHUNKS_IN_FLIGHT = 2;
+    private static final List<Applicant> END_OF_INPUT = Collections.emptyList();
+
+    private final BulkAccountOpeningService bulkAccountOpeningService;
+    private final int chunkSize;
+
+    public ApplicantFileImporter(BulkAccountOpeningService bulkAccountOpeningService) {
+        this(bulkAccountOpeningService, DEFAULT_CHUNK_SIZE);
+    }
+
+    public ApplicantFileImporter(BulkAccountOpeningService bulkAccountOpeningService, int chunkSize) {
+        if (chunkSize < 1) {
+            throw new IllegalArgumentException("Chunk size must be at least 1.");
+        }
+        this.bulkAccountOpeningService = bulkAccountOpeningService;
+        this.chunkSize = chunkSize;
+    }
+
+    public ApplicantImportResult importFile(Path source, Path resultFile, Path checkpointFile)
+            throws IOException, InterruptedException {
+        try (ApplicantReader reader = ApplicantReader.open(source)) {
+            return importFrom(reader, resultFile, checkpointFile);
+        }
+    }
+
+    public ApplicantImportResult importFrom(ApplicantReader reader, Path resultFile, Path checkpointFile)
+            throws IOException, InterruptedException {
+        final long[] checkpoint = readCheckpoint(checkpointFile);
+        final boolean resuming = checkpoint[0] > 0 || Files.exists(resultFile);
+        long recordIndex = checkpoint[0];
+        long resultBytes = checkpoint[1];
+        for (long i = 0; i < recordIndex; i++) {
+            if (reader.read() == null) {
+                throw new IOException("Checkpoint at record " + recordIndex + " is beyond the end of the input");
+            }
+        }
+
+        final BlockingQueue<List<Applicant>> chunks = new ArrayBlockingQueue<>(CHUNKS_IN_FLIGHT);
+        final AtomicReference<Throwable> readFailure = new AtomicReference<>();
+        final Thread readerThread = new Thread(() -> readChunks(reader, chunks, readFailure), "applicant-reader");
+        readerThread.setDaemon(true);
+
+        long opened = 0;
+        long failed = 0;
+        final long resumedFrom = recordIndex;
+        try (FileChannel results = FileChannel.open(resultFile, StandardOpenOption.CREATE, StandardOpenOption.WRITE)) {
+            results.truncate(resultBytes);
+            results.position(resultBytes);
+            readerThread.start();
+
+            List<Applicant> chunk;
+            boolean firstChunk = resuming;
+            while ((chunk = chunks.take()) != END_OF_INPUT) {
+                final BulkAccountOpeningResult result = firstChunk
+                        ? bulkAccountOpeningService.resumeAccounts(chunk)
+                        : bulkAccountOpeningService.openAccounts(chunk);
+                firstChunk = false;
+                final StringBuilder lines = new StringBuilder(chunk.size() * 16);
+                for (int i = 0; i < chunk.size(); i++) {
+                    lines.append(recordIndex + i).append(',').append(result.getStatus(i)).append('\n');
+                }
+                final ByteBuffer buffer = ByteBuffer.wrap(lines.toString().getBytes(StandardCharsets.UTF_8));
+                while (buffer.hasRemaining()) {
+                    resultBytes += results.write(buffer);
+                }
+                results.force(false);
+                recordIndex += chunk.size();
+                writeCheckpoint(checkpointFile, recordIndex, resultBytes);
+                opened += result.getOpenedCount();
+                failed += result.getFailedCount();
+            }
+        } finally {
+            readerThread.interrupt();
+        }
+        if (readFailure.get() != null) {
+            throw new IOException("Import stopped at record " + recordIndex, readFailure.get());
+        }
+        return new ApplicantImportResult(resumedFrom, recordIndex - resumedFrom, opened, failed);
+    }
+
+    private void readChunks(ApplicantReader reader, BlockingQueue<List<Applicant>> chunks,
+                            AtomicReference<Throwable> readFailure) {
+        try {
+            List<Applicant> chunk = new ArrayList<>(chunkSize);
+            Applicant applicant;
+            while ((applicant = reader.read()) != null) {
+                chunk.add(applicant);
+                if (chunk.size() == chunkSize) {
+                    chunks.put(chunk);
+                    chunk = new ArrayList<>(chunkSize);
+                }
+            }
+            if (!chunk.isEmpty()) {
+                chunks.put(chunk);
+            }
+        } catch (InterruptedException e) {
+            return;
+        } catch (Throwable e) {
+            // Anything else still has to end the input, or the importing thread waits for a chunk forever
+            readFailure.set(e);
+        }
+        try {
+            chunks.put(END_OF_INPUT);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private static long[] readCheckpoint(Path checkpointFile) throws IOException {
+        if (!Files.exists(checkpointFile)) {
+            return new long[]{0L, 0L};
+        }
+        final String[] fields = new String(Files.readAllBytes(checkpointFile), StandardCharsets.US_ASCII)
+                .trim().split(" ");
+        try {
+            return new long[]{Long.parseLong(fields[0]), Long.parseLong(fields[1])};
+        } catch (NumberFormatException | ArrayIndexOutOfBoundsException e) {
+            throw new IOException("Corrupt import checkpoint " + checkpointFile, e);
+        }
+    }
+
+    private static void writeCheckpoint(Path checkpointFile, long recordIndex, long resultBytes) throws IOException {
+        final Path temporary = checkpointFile.resolveSibling(checkpointFile.getFileName() + ".tmp");
+        try (FileChannel channel = FileChannel.open(temporary, StandardOpenOption.CREATE,
+                StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+            channel.write(ByteBuffer.wrap((recordIndex + " " + resultBytes).getBytes(StandardCharsets.US_ASCII)));
+            channel.force(true);
+        }
+        Files.move(temporary, checkpointFile, StandardCopyOption.ATOMIC_MOVE);
+    }
+}
@@ -0,0 +1,37 @@
+package com.pluralsight.pension.setup;
+
+public class ApplicantImportResult {
+
+    private final long resumedFrom;
+    private final long processedCount;
+    private final long openedCount;
+    private final long failedCount;
+
+    public ApplicantImportResult(long resumedFrom, long processedCount, long openedCount, long failedCount) {
+        this.resumedFrom = resumedFrom;
+        this.processedCount = processedCount;
+        this.openedCount = openedCount;
+        this.failedCount = failedCount;
+    }
+
+    // Index of the first record processed by this run; zero unless a checkpoint was found
+    public long getResumedFrom() {
+        return resumedFrom;
+    }
+
+    public long getProcessedCount() {
+        return processedCount;
+    }
+
+    public long getOpenedCount() {
+        return openedCount;
+    }
+
+    public long getDeclinedCount() {
+        return processedCount - openedCount;
+    }
+
+    public long getFailedCount() {
+        return failedCount;
+    }
+}
@@ -0,0 +1,25 @@
+package com.pluralsight.pension.setup;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Locale;
+
+// Pull-style source of applicants that holds at most one record in memory at a time
+public interface ApplicantReader extends Closeable {
+
+    // Returns null once the input is exhausted
+    Applicant read() throws IOException;
+
+    static ApplicantReader open(Path file) throws IOException {
+        final String name = file.getFileName().toString().toLowerCase(Locale.ROOT);
+        if (name.endsWith(".json")) {
+            return new JsonApplicantReader(Files.newInputStream(file));
+        } else if (name.endsWith(".csv")) {
+            return new CsvApplicantReader(Files.newBufferedReader(file, StandardCharsets.UTF_8));
+        }
+        throw new IOException("Unsupported applicant file type: " + file);
+    }
+}
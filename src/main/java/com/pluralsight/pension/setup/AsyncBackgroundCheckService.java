@@ -0,0 +1,20 @@
+package com.pluralsight.pension.setup;
+
+import java.io.IOException;
+import java.time.LocalDate;
+import java.util.concurrent.CompletableFuture;
+
+public interface AsyncBackgroundCheckService {
+    CompletableFuture<BackgroundCheckResults> confirm(String firstName, String lastName, String taxId, LocalDate dob);
+
+    // Runs the blocking service in the calling thread, for callers that have no async implementation
+    static AsyncBackgroundCheckService inline(BackgroundCheckService delegate) {
+        return (firstName, lastName, taxId, dob) -> {
+            try {
+                return CompletableFuture.completedFuture(delegate.confirm(firstName, lastName, taxId, dob));
+            } catch (IOException | RuntimeException e) {
+                return CompletableFuture.failedFuture(e);
+            }
+        };
+    }
+}
@@ -0,0 +1,20 @@
+package com.pluralsight.pension.setup;
+
+import java.time.LocalDate;
+import java.util.concurrent.CompletableFuture;
+
+public interface AsyncReferenceIdsManager {
+    CompletableFuture<String> obtainId(String firstName, String middleName, String lastName, String taxId, LocalDate dob);
+
+    // Runs the blocking manager in the calling thread, for callers that have no async implementation
+    static AsyncReferenceIdsManager inline(ReferenceIdsManager delegate) {
+        return (firstName, middleName, lastName, taxId, dob) -> {
+            try {
+                return CompletableFuture.completedFuture(
+                        delegate.obtainId(firstName, middleName, lastName, taxId, dob));
+            } catch (RuntimeException e) {
+                return CompletableFuture.failedFuture(e);
+            }
+        };
+    }
+}
@@ -0,0 +1,220 @@
+package com.pluralsight.pension.setup;
+
+import java.io.BufferedReader;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+
+// Takes account-opened events off the opening path: notify only enqueues into a bounded lock-free ring buffer
+// and a dedicated consumer thread delivers them downstream in batches. What happens when the buffer is full is
+// chosen by the backpressure policy. Spilled events are delivered once the buffer has drained, so they may
+// arrive after events published later. If the consumer thread dies, notify fails from then on rather than
+// accepting events nobody will deliver.
+public class BatchingEventPublisher implements AccountOpeningEventPublisher, Closeable {
+
+    public enum BackpressurePolicy {
+        BLOCK,
+        DROP,
+        SPILL_TO_DISK
+    }
+
+    private static final long IDLE_PARK_NANOS = TimeUnit.MICROSECONDS.toNanos(100);
+
+    private final AccountOpeningEventPublisher downstream;
+    private final MpscRingBuffer<String> ring;
+    private final int batchSize;
+    private final BackpressurePolicy policy;
+    private final FileChannel spill;
+    private final Object spillLock = new Object();
+    private final Thread consumer;
+    private final AtomicLong delivered = new AtomicLong();
+    private final AtomicLong dropped = new AtomicLong();
+    private final AtomicLong spilled = new AtomicLong();
+    private final AtomicLong failedDeliveries = new AtomicLong();
+    // Producers inside notify; close waits for them, so an event accepted before close is never stranded
+    private final AtomicInteger activeProducers = new AtomicInteger();
+    // Byte offset of the first spilled line not yet delivered; guarded by spillLock
+    private long spillReadPosition;
+    private volatile boolean spillPending;
+    private volatile boolean closed;
+    private volatile Throwable consumerFailure;
+
+    public BatchingEventPublisher(AccountOpeningEventPublisher downstream, int capacity, int batchSize,
+                                  BackpressurePolicy policy) {
+        this(downstream, capacity, batchSize, policy, null);
+    }
+
+    public BatchingEventPublisher(AccountOpeningEventPublisher downstream, int capacity, int batchSize,
+                                  BackpressurePolicy policy, Path spillFile) {
+        if (policy == BackpressurePolicy.SPILL_TO_DISK && spillFile == null) {
+            throw new IllegalArgumentException("A spill file is required to spill to disk.");
+        }
+        this.downstream = downstream;
+        this.ring = new MpscRingBuffer<>(capacity);
+        this.batchSize = batchSize;
+        this.policy = policy;
+        try {
+            this.spill = spillFile == null ? null : FileChannel.open(spillFile, StandardOpenOption.CREATE,
+                    StandardOpenOption.READ, StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        this.consumer = new Thread(this::consume, "account-opening-events");
+        this.consumer.setDaemon(true);
+        this.consumer.start();
+    }
+
+    @Override
+    public void notify(String accountId) {
+        // null marks an unpublished ring slot, so the consumer would wait on it forever
+        Objects.requireNonNull(accountId, "accountId");
+        activeProducers.incrementAndGet();
+        try {
+            if (closed) {
+                throw new IllegalStateException("Publisher is closed.");
+            }
+            checkConsumer();
+            if (ring.offer(accountId)) {
+                return;
+            }
+            switch (policy) {
+                case BLOCK:
+                    while (!ring.offer(accountId)) {
+                        checkConsumer();
+                        LockSupport.parkNanos(IDLE_PARK_NANOS);
+                    }
+                    break;
+                case DROP:
+                    dropped.incrementAndGet();
+                    break;
+                default:
+                    spill(accountId);
+            }
+        } finally {
+            activeProducers.decrementAndGet();
+        }
+    }
+
+    public long getDeliveredCount() {
+        return delivered.get();
+    }
+
+    public long getDroppedCount() {
+        return dropped.get();
+    }
+
+    public long getSpilledCount() {
+        return spilled.get();
+    }
+
+    public long getFailedDeliveryCount() {
+        return failedDeliveries.get();
+    }
+
+    // Null while the consumer thread is running normally
+    public Throwable getConsumerFailure() {
+        return consumerFailure;
+    }
+
+    // Stops accepting events and returns once everything already accepted has been handed downstream
+    @Override
+    public void close() throws IOException {
+        closed = true;
+        try {
+            consumer.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        if (spill != null) {
+            spill.close();
+        }
+    }
+
+    private void consume() {
+        final List<String> batch = new ArrayList<>(batchSize);
+        try {
+            while (true) {
+                if (ring.drainTo(batch, batchSize) > 0) {
+                    deliver(batch);
+                } else if (spillPending) {
+                    deliverSpilled(batch);
+                } else if (closed && activeProducers.get() == 0 && ring.isEmpty() && !spillPending) {
+                    return;
+                } else {
+                    LockSupport.parkNanos(IDLE_PARK_NANOS);
+                }
+            }
+        } catch (Throwable e) {
+            consumerFailure = e;
+        }
+    }
+
+    private void checkConsumer() {
+        final Throwable failure = consumerFailure;
+        if (failure != null) {
+            throw new IllegalStateException("Event consumer stopped", failure);
+        }
+    }
+
+    private void deliver(List<String> batch) {
+        try {
+            downstream.notifyBatch(new ArrayList<>(batch));
+            delivered.addAndGet(batch.size());
+        } catch (RuntimeException e) {
+            failedDeliveries.addAndGet(batch.size());
+        }
+        batch.clear();
+    }
+
+    private void spill(String accountId) {
+        final ByteBuffer line = StandardCharsets.UTF_8.encode(accountId + "\n");
+        synchronized (spillLock) {
+            try {
+                spill.position(spill.size());
+                while (line.hasRemaining()) {
+                    spill.write(line);
+                }
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+            spilled.incrementAndGet();
+            spillPending = true;
+        }
+    }
+
+    // Takes one batch of spilled lines under the lock and delivers it outside, so producers spilling meanwhile
+    // never wait on the downstream
+    private void deliverSpilled(List<String> batch) throws IOException {
+        synchronized (spillLock) {
+            spill.position(spillReadPosition);
+            final BufferedReader reader = new BufferedReader(
+                    Channels.newReader(spill, StandardCharsets.UTF_8.newDecoder(), -1));
+            String accountId;
+            while (batch.size() < batchSize && (accountId = reader.readLine()) != null) {
+                batch.add(accountId);
+                spillReadPosition += accountId.getBytes(StandardCharsets.UTF_8).length + 1;
+            }
+            if (spillReadPosition >= spill.size()) {
+                spill.truncate(0);
+                spillReadPosition = 0;
+                spillPending = false;
+            }
+        }
+        if (!batch.isEmpty()) {
+            deliver(batch);
+        }
+    }
+}
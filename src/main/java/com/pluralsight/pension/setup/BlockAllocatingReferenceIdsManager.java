@@ -0,0 +1,179 @@
+package com.pluralsight.pension.setup;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDate;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+
+// Hi/lo id allocation: ranges are leased from the authority and handed out locally with a single atomic increment.
+// The next range is leased in the background once a quarter of the current one is left. The end of every leased
+// range is made durable before any id from it is issued, and ranges below that mark are skipped after a restart,
+// so an id is never handed out twice even if the authority forgets its leases.
+public class BlockAllocatingReferenceIdsManager implements ReferenceIdsManager, Closeable {
+
+    public static final int DEFAULT_BLOCK_SIZE = 1_000;
+
+    private final IdRangeAuthority authority;
+    private final int blockSize;
+    private final Path highWaterMarkFile;
+    private final ExecutorService prefetcher;
+    private final Object leaseLock = new Object();
+    private final AtomicReference<CompletableFuture<Block>> prefetched = new AtomicReference<>();
+    private final AtomicLong leaseCount = new AtomicLong();
+    private final AtomicReference<Block> current;
+    private long highWaterMark;
+
+    public BlockAllocatingReferenceIdsManager(IdRangeAuthority authority, Path highWaterMarkFile) throws IOException {
+        this(authority, DEFAULT_BLOCK_SIZE, highWaterMarkFile);
+    }
+
+    public BlockAllocatingReferenceIdsManager(IdRangeAuthority authority, int blockSize, Path highWaterMarkFile)
+            throws IOException {
+        if (blockSize < 1) {
+            throw new IllegalArgumentException("Block size must be positive: " + blockSize);
+        }
+        this.authority = authority;
+        this.blockSize = blockSize;
+        this.highWaterMarkFile = highWaterMarkFile;
+        this.highWaterMark = readHighWaterMark(highWaterMarkFile);
+        this.prefetcher = Executors.newSingleThreadExecutor(runnable -> {
+            final Thread thread = new Thread(runnable, "reference-ids-prefetch");
+            thread.setDaemon(true);
+            return thread;
+        });
+        this.current = new AtomicReference<>(lease());
+    }
+
+    @Override
+    public String obtainId(String firstName, String middleName, String lastName, String taxId, LocalDate dob) {
+        while (true) {
+            final Block block = current.get();
+            final long id = block.next.getAndIncrement();
+            if (id < block.end) {
+                // At or past the mark rather than on it: a block truncated by the high-water mark may start past it
+                if (id >= block.prefetchAt && block.prefetchRequested.compareAndSet(false, true)) {
+                    prefetch();
+                }
+                return Long.toString(id);
+            }
+            advance(block);
+        }
+    }
+
+    public long getLeaseCount() {
+        return leaseCount.get();
+    }
+
+    public long getHighWaterMark() {
+        synchronized (leaseLock) {
+            return highWaterMark;
+        }
+    }
+
+    @Override
+    public void close() {
+        prefetcher.shutdownNow();
+    }
+
+    private void prefetch() {
+        final CompletableFuture<Block> future = new CompletableFuture<>();
+        if (prefetched.compareAndSet(null, future)) {
+            prefetcher.execute(() -> {
+                try {
+                    future.complete(lease());
+                } catch (IOException | RuntimeException e) {
+                    future.completeExceptionally(e);
+                }
+            });
+        }
+    }
+
+    // Slow path, taken once per block by whichever thread finds it exhausted first
+    private synchronized void advance(Block exhausted) {
+        if (current.get() != exhausted) {
+            return;
+        }
+        Block replacement = null;
+        final CompletableFuture<Block> future = prefetched.getAndSet(null);
+        if (future != null) {
+            try {
+                replacement = future.join();
+            } catch (CompletionException e) {
+                // the prefetch failed, so try again on the caller's thread
+            }
+        }
+        if (replacement == null) {
+            try {
+                replacement = lease();
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+        current.set(replacement);
+    }
+
+    private Block lease() throws IOException {
+        synchronized (leaseLock) {
+            while (true) {
+                final long start = authority.leaseBlock(blockSize);
+                leaseCount.incrementAndGet();
+                final long end = start + blockSize;
+                if (end <= highWaterMark) {
+                    continue;
+                }
+                writeHighWaterMark(highWaterMarkFile, end);
+                final Block block = new Block(Math.max(start, highWaterMark), end, end - Math.max(1, blockSize / 4));
+                highWaterMark = end;
+                return block;
+            }
+        }
+    }
+
+    private static long readHighWaterMark(Path file) throws IOException {
+        if (!Files.exists(file)) {
+            return 0L;
+        }
+        try {
+            return Long.parseLong(new String(Files.readAllBytes(file), StandardCharsets.US_ASCII).trim());
+        } catch (NumberFormatException e) {
+            throw new IOException("Corrupt id high-water mark in " + file, e);
+        }
+    }
+
+    private static void writeHighWaterMark(Path file, long value) throws IOException {
+        final Path temporary = file.resolveSibling(file.getFileName() + ".tmp");
+        try (FileChannel channel = FileChannel.open(temporary, StandardOpenOption.CREATE,
+                StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+            channel.write(ByteBuffer.wrap(Long.toString(value).getBytes(StandardCharsets.US_ASCII)));
+            channel.force(true);
+        }
+        Files.move(temporary, file, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    private static class Block {
+        private final AtomicLong next;
+        private final long end;
+        private final long prefetchAt;
+        private final AtomicBoolean prefetchRequested = new AtomicBoolean();
+
+        private Block(long start, long end, long prefetchAt) {
+            this.next = new AtomicLong(start);
+            this.end = end;
+            this.prefetchAt = prefetchAt;
+        }
+    }
+}
@@ -0,0 +1,39 @@
+package com.pluralsight.pension.setup;
+
+import java.util.Collections;
+import java.util.List;
+
+public class BulkAccountOpeningResult {
+
+    private final List<AccountOpeningStatus> statuses;
+    private final int openedCount;
+    private final int failedCount;
+
+    public BulkAccountOpeningResult(List<AccountOpeningStatus> statuses, int failedCount) {
+        this.statuses = Collections.unmodifiableList(statuses);
+        this.openedCount = (int) statuses.stream().filter(AccountOpeningStatus.OPENED::equals).count();
+        this.failedCount = failedCount;
+    }
+
+    // Statuses are in the same order as the applicants that were submitted
+    public List<AccountOpeningStatus> getStatuses() {
+        return statuses;
+    }
+
+    public AccountOpeningStatus getStatus(int applicantIndex) {
+        return statuses.get(applicantIndex);
+    }
+
+    public int getOpenedCount() {
+        return openedCount;
+    }
+
+    public int getDeclinedCount() {
+        return statuses.size() - openedCount;
+    }
+
+    // Applicants declined because a dependency threw rather than because of their background check
+    public int getFailedCount() {
+        return failedCount;
+    }
+}
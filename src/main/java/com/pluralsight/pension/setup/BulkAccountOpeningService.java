@@ -0,0 +1,153 @@
+package com.pluralsight.pension.setup;
+
+import com.pluralsight.pension.AccountRepository;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+// Screens applicants in parallel on a pool owned for the service's lifetime, so callers that open accounts chunk
+// by chunk reuse the same threads; close releases it.
+public class BulkAccountOpeningService implements Closeable {
+
+    private BackgroundCheckService backgroundCheckService;
+    private ReferenceIdsManager referenceIdsManager;
+    private AccountRepository accountRepository;
+    private AccountOpeningEventPublisher eventPublisher;
+    private int parallelism;
+    private final ExecutorService executor;
+
+    public BulkAccountOpeningService(BackgroundCheckService backgroundCheckService,
+                                     ReferenceIdsManager referenceIdsManager,
+                                     AccountRepository accountRepository,
+                                     AccountOpeningEventPublisher eventPublisher,
+                                     int parallelism) {
+        if (parallelism < 1) {
+            throw new IllegalArgumentException("Parallelism must be at least 1.");
+        }
+        this.backgroundCheckService = backgroundCheckService;
+        this.referenceIdsManager = referenceIdsManager;
+        this.accountRepository = accountRepository;
+        this.eventPublisher = eventPublisher;
+        this.parallelism = parallelism;
+        this.executor = Executors.newFixedThreadPool(parallelism, runnable -> {
+            final Thread thread = new Thread(runnable, "bulk-account-opening");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    public BulkAccountOpeningResult openAccounts(Stream<Applicant> applicants) throws InterruptedException {
+        return openAccounts(applicants.collect(Collectors.toList()));
+    }
+
+    public BulkAccountOpeningResult openAccounts(List<Applicant> applicants) throws InterruptedException {
+        final List<AccountOpeningStatus> statuses = new ArrayList<>(applicants.size());
+        final List<AccountApplication> approved = new ArrayList<>();
+        // Position in statuses of each approved application, so a rejected save can be reported against it
+        final List<Integer> approvedIndexes = new ArrayList<>();
+        int failed = 0;
+
+        final List<Future<AccountApplication>> screenings = new ArrayList<>(applicants.size());
+        try {
+            for (Applicant applicant : applicants) {
+                screenings.add(executor.submit(() -> screen(applicant)));
+            }
+            for (Future<AccountApplication> screening : screenings) {
+                try {
+                    final AccountApplication application = screening.get();
+                    if (application != null) {
+                        approved.add(application);
+                        approvedIndexes.add(statuses.size());
+                        statuses.add(AccountOpeningStatus.OPENED);
+                    } else {
+                        statuses.add(AccountOpeningStatus.DECLINED);
+                    }
+                } catch (ExecutionException e) {
+                    failed++;
+                    statuses.add(AccountOpeningStatus.DECLINED);
+                }
+            }
+        } finally {
+            // Only does anything if this call was interrupted, leaving screenings the pool would otherwise still run
+            for (Future<AccountApplication> screening : screenings) {
+                screening.cancel(true);
+            }
+        }
+
+        if (!approved.isEmpty()) {
+            final Set<AccountApplication> rejected = Collections.newSetFromMap(new IdentityHashMap<>());
+            rejected.addAll(accountRepository.saveAll(approved));
+            final List<String> openedIds = new ArrayList<>(approved.size());
+            for (int i = 0; i < approved.size(); i++) {
+                if (rejected.contains(approved.get(i))) {
+                    statuses.set(approvedIndexes.get(i), AccountOpeningStatus.DECLINED);
+                } else {
+                    openedIds.add(approved.get(i).getId());
+                }
+            }
+            if (!openedIds.isEmpty()) {
+                eventPublisher.notifyBatch(openedIds);
+            }
+        }
+        return new BulkAccountOpeningResult(statuses, failed);
+    }
+
+    // For re-running a batch that may already have been saved before a crash: applicants whose taxId already has
+    // an account are reported as OPENED without being opened again, and only the rest go through openAccounts
+    public BulkAccountOpeningResult resumeAccounts(List<Applicant> applicants) throws InterruptedException {
+        final List<AccountOpeningStatus> statuses = new ArrayList<>(applicants.size());
+        final List<Applicant> remaining = new ArrayList<>(applicants.size());
+        for (Applicant applicant : applicants) {
+            final boolean opened = accountRepository.findByTaxId(applicant.getTaxId()).isPresent();
+            statuses.add(opened ? AccountOpeningStatus.OPENED : null);
+            if (!opened) {
+                remaining.add(applicant);
+            }
+        }
+        if (remaining.size() == applicants.size()) {
+            return openAccounts(applicants);
+        }
+
+        final BulkAccountOpeningResult result = openAccounts(remaining);
+        int next = 0;
+        for (int i = 0; i < statuses.size(); i++) {
+            if (statuses.get(i) == null) {
+                statuses.set(i, result.getStatus(next++));
+            }
+        }
+        return new BulkAccountOpeningResult(statuses, result.getFailedCount());
+    }
+
+    @Override
+    public void close() {
+        executor.shutdown();
+    }
+
+    private AccountApplication screen(Applicant applicant) throws IOException {
+        final BackgroundCheckResults backgroundCheckResults = backgroundCheckService.confirm(
+                applicant.getFirstName(),
+                applicant.getLastName(),
+                applicant.getTaxId(),
+                applicant.getDob());
+        if (!AccountOpeningService.isAcceptable(backgroundCheckResults)) {
+            return null;
+        }
+        final String id = referenceIdsManager.obtainId(applicant.getFirstName(),
+                "",
+                applicant.getLastName(),
+                applicant.getTaxId(),
+                applicant.getDob());
+        return id != null ? new AccountApplication(id, applicant, backgroundCheckResults) : null;
+    }
+}
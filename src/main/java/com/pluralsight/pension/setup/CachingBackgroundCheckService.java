@@ -0,0 +1,132 @@
+package com.pluralsight.pension.setup;
+
+import com.pluralsight.pension.BlockingServiceAdapter;
+
+import java.io.IOException;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+// Remembers positive background check answers per applicant for a limited time. A null ("pending") answer
+// is never cached, and concurrent lookups for the same applicant share a single call to the delegate.
+public class CachingBackgroundCheckService implements BackgroundCheckService {
+
+    private final BackgroundCheckService delegate;
+    private final Clock clock;
+    private final Duration timeToLive;
+    private final Map<Applicant, CachedResults> entries;
+    private final ConcurrentHashMap<Applicant, CompletableFuture<BackgroundCheckResults>> inFlight =
+            new ConcurrentHashMap<>();
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder coalesced = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+
+    public CachingBackgroundCheckService(BackgroundCheckService delegate, int maximumSize,
+                                         Duration timeToLive, Clock clock) {
+        if (maximumSize < 1) {
+            throw new IllegalArgumentException("Maximum size must be at least 1.");
+        }
+        this.delegate = delegate;
+        this.timeToLive = timeToLive;
+        this.clock = clock;
+        this.entries = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Applicant, CachedResults> eldest) {
+                if (size() > maximumSize) {
+                    evictions.increment();
+                    return true;
+                }
+                return false;
+            }
+        };
+    }
+
+    @Override
+    public BackgroundCheckResults confirm(String firstName, String lastName, String taxId, LocalDate dob)
+            throws IOException {
+        final Applicant key = new Applicant(firstName, lastName, taxId, dob);
+        final BackgroundCheckResults cached = lookup(key);
+        if (cached != null) {
+            hits.increment();
+            return cached;
+        }
+
+        final CompletableFuture<BackgroundCheckResults> call = new CompletableFuture<>();
+        final CompletableFuture<BackgroundCheckResults> existing = inFlight.putIfAbsent(key, call);
+        if (existing != null) {
+            coalesced.increment();
+            return BlockingServiceAdapter.await(existing);
+        }
+        misses.increment();
+        try {
+            final BackgroundCheckResults results = delegate.confirm(firstName, lastName, taxId, dob);
+            if (results != null) {
+                synchronized (entries) {
+                    entries.put(key, new CachedResults(results, clock.instant().plus(timeToLive)));
+                }
+            }
+            call.complete(results);
+            return results;
+        } catch (Throwable e) {
+            // Errors too, or the callers sharing this call would wait for it forever
+            call.completeExceptionally(e);
+            throw e;
+        } finally {
+            inFlight.remove(key, call);
+        }
+    }
+
+    public long getHitCount() {
+        return hits.sum();
+    }
+
+    public long getMissCount() {
+        return misses.sum();
+    }
+
+    // Lookups that waited on another caller's in-flight call instead of going to the delegate themselves
+    public long getCoalescedCount() {
+        return coalesced.sum();
+    }
+
+    public long getEvictionCount() {
+        return evictions.sum();
+    }
+
+    public int size() {
+        synchronized (entries) {
+            return entries.size();
+        }
+    }
+
+    private BackgroundCheckResults lookup(Applicant key) {
+        synchronized (entries) {
+            final CachedResults cached = entries.get(key);
+            if (cached == null) {
+                return null;
+            }
+            if (!clock.instant().isBefore(cached.expiresAt)) {
+                entries.remove(key);
+                return null;
+            }
+            return cached.results;
+        }
+    }
+
+    private static class CachedResults {
+        private final BackgroundCheckResults results;
+        private final Instant expiresAt;
+
+        private CachedResults(BackgroundCheckResults results, Instant expiresAt) {
+            this.results = results;
+            this.expiresAt = expiresAt;
+        }
+    }
+}
@@ -0,0 +1,47 @@
+package com.pluralsight.pension.setup;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.time.LocalDate;
+import java.time.format.DateTimeParseException;
+
+// Reads "firstName,lastName,taxId,dob" rows with ISO-8601 dates. A header row and blank lines are skipped;
+// fields are not quoted.
+public class CsvApplicantReader implements ApplicantReader {
+
+    private static final String HEADER_PREFIX = "firstName,";
+
+    private final BufferedReader reader;
+    private long lineNumber;
+
+    public CsvApplicantReader(BufferedReader reader) {
+        this.reader = reader;
+    }
+
+    @Override
+    public Applicant read() throws IOException {
+        String line;
+        while ((line = reader.readLine()) != null) {
+            lineNumber++;
+            if (line.isBlank() || (lineNumber == 1 && line.startsWith(HEADER_PREFIX))) {
+                continue;
+            }
+            final String[] fields = line.split(",", -1);
+            if (fields.length != 4) {
+                throw new IOException("Expected 4 fields but found " + fields.length + " on line " + lineNumber);
+            }
+            try {
+                return new Applicant(fields[0].trim(), fields[1].trim(), fields[2].trim(),
+                        LocalDate.parse(fields[3].trim()));
+            } catch (DateTimeParseException e) {
+                throw new IOException("Invalid date of birth on line " + lineNumber, e);
+            }
+        }
+        return null;
+    }
+
+    @Override
+    public void close() throws IOException {
+        reader.close();
+    }
+}
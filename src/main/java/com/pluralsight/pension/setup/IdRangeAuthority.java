@@ -0,0 +1,9 @@
+package com.pluralsight.pension.setup;
+
+import java.io.IOException;
+
+// Source of account ids that hands out whole ranges at a time. Each call must return the first id of a range of
+// blockSize ids that has never been leased before.
+public interface IdRangeAuthority {
+    long leaseBlock(int blockSize) throws IOException;
+}
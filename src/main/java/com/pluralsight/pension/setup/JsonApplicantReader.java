@@ -0,0 +1,79 @@
+package com.pluralsight.pension.setup;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.time.LocalDate;
+import java.time.format.DateTimeParseException;
+
+// Token-level reader for either a top-level array of applicant objects or a sequence of root-level objects,
+// so the document is never materialised as a tree
+public class JsonApplicantReader implements ApplicantReader {
+
+    private static final JsonFactory JSON_FACTORY = new JsonFactory();
+
+    private final JsonParser parser;
+    private boolean started;
+
+    public JsonApplicantReader(InputStream in) throws IOException {
+        this.parser = JSON_FACTORY.createParser(in);
+    }
+
+    @Override
+    public Applicant read() throws IOException {
+        JsonToken token = parser.nextToken();
+        if (!started) {
+            started = true;
+            if (token == JsonToken.START_ARRAY) {
+                token = parser.nextToken();
+            }
+        }
+        if (token == null || token == JsonToken.END_ARRAY) {
+            return null;
+        }
+        if (token != JsonToken.START_OBJECT) {
+            throw new IOException("Expected an applicant object at " + parser.getCurrentLocation());
+        }
+
+        String firstName = null;
+        String lastName = null;
+        String taxId = null;
+        String dob = null;
+        while (parser.nextToken() == JsonToken.FIELD_NAME) {
+            final String field = parser.getCurrentName();
+            parser.nextToken();
+            switch (field) {
+                case "firstName":
+                    firstName = parser.getValueAsString();
+                    break;
+                case "lastName":
+                    lastName = parser.getValueAsString();
+                    break;
+                case "taxId":
+                    taxId = parser.getValueAsString();
+                    break;
+                case "dob":
+                    dob = parser.getValueAsString();
+                    break;
+                default:
+                    parser.skipChildren();
+            }
+        }
+        if (firstName == null || lastName == null || taxId == null || dob == null) {
+            throw new IOException("Incomplete applicant ending at " + parser.getCurrentLocation());
+        }
+        try {
+            return new Applicant(firstName, lastName, taxId, LocalDate.parse(dob));
+        } catch (DateTimeParseException e) {
+            throw new IOException("Invalid date of birth at " + parser.getCurrentLocation(), e);
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        parser.close();
+    }
+}
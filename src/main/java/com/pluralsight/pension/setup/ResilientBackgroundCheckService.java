@@ -0,0 +1,196 @@
+package com.pluralsight.pension.setup;
+
+import com.pluralsight.pension.metrics.Counter;
+import com.pluralsight.pension.metrics.LatencyHistogram;
+import com.pluralsight.pension.metrics.MetricsRegistry;
+import com.pluralsight.pension.resilience.CircuitBreaker;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletionService;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.SynchronousQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+// Wraps a background check service with three protections. A second, hedged request is sent if the first has not
+// answered within the configured percentile of recent call latency, and whichever answers first wins. Every call
+// has an overall deadline. A circuit breaker rejects calls outright while the dependency keeps failing or timing
+// out. Calls run on a bounded pool, so a stalled dependency cannot tie up more than maxConcurrentCalls threads.
+// Rejections and timeouts surface as IOException, as any other failure of the dependency would, but only the
+// dependency's own failures and deadline misses count towards tripping the breaker.
+public class ResilientBackgroundCheckService implements BackgroundCheckService, Closeable {
+
+    // Below this many samples the percentile is not trusted and no hedges are sent
+    static final int MIN_SAMPLES_FOR_HEDGING = 100;
+    // The hedge delay is taken from the last complete window of this many attempts, so it follows recent latency
+    static final int HEDGE_WINDOW_SAMPLES = 1_000;
+
+    private final BackgroundCheckService delegate;
+    private final long deadlineNanos;
+    private final double hedgePercentile;
+    private final CircuitBreaker circuitBreaker;
+    private final ThreadPoolExecutor executor;
+    private final LatencyHistogram attemptLatency;
+    private volatile LatencyHistogram recentLatency = new LatencyHistogram();
+    private volatile LatencyHistogram previousLatency = new LatencyHistogram();
+    private final Counter hedges;
+    private final Counter hedgeWins;
+    private final Counter deadlinesExceeded;
+    private final Counter rejected;
+
+    public ResilientBackgroundCheckService(BackgroundCheckService delegate,
+                                           Duration deadline,
+                                           double hedgePercentile,
+                                           int maxConcurrentCalls,
+                                           CircuitBreaker circuitBreaker,
+                                           MetricsRegistry registry) {
+        this.delegate = delegate;
+        this.deadlineNanos = deadline.toNanos();
+        this.hedgePercentile = hedgePercentile;
+        this.circuitBreaker = circuitBreaker;
+        this.executor = new ThreadPoolExecutor(0, maxConcurrentCalls, 30, TimeUnit.SECONDS,
+                new SynchronousQueue<>(), runnable -> {
+                    final Thread thread = new Thread(runnable, "background-check-call");
+                    thread.setDaemon(true);
+                    return thread;
+                });
+        this.attemptLatency = registry.histogram("backgroundCheck.attempt");
+        this.hedges = registry.counter("backgroundCheck.hedges");
+        this.hedgeWins = registry.counter("backgroundCheck.hedgeWins");
+        this.deadlinesExceeded = registry.counter("backgroundCheck.deadlineExceeded");
+        this.rejected = registry.counter("backgroundCheck.rejected");
+        registry.gauge("backgroundCheck.breakerState", () -> circuitBreaker.getState().ordinal());
+        registry.gauge("backgroundCheck.breakerOpenCount", circuitBreaker::getOpenCount);
+    }
+
+    @Override
+    public BackgroundCheckResults confirm(String firstName, String lastName, String taxId, LocalDate dob)
+            throws IOException {
+        final long permit = circuitBreaker.tryAcquire();
+        if (permit == CircuitBreaker.REJECTED) {
+            rejected.increment();
+            throw new IOException("Background check circuit is open");
+        }
+        final long deadline = System.nanoTime() + deadlineNanos;
+        final CompletionService<BackgroundCheckResults> attempts = new ExecutorCompletionService<>(executor);
+        final List<Future<BackgroundCheckResults>> outstanding = new ArrayList<>(2);
+        try {
+            final Future<BackgroundCheckResults> primary = submit(attempts, firstName, lastName, taxId, dob);
+            outstanding.add(primary);
+            Future<BackgroundCheckResults> completed = attempts.poll(hedgeDelayNanos(deadline), TimeUnit.NANOSECONDS);
+            if (completed == null && System.nanoTime() < deadline) {
+                try {
+                    outstanding.add(submit(attempts, firstName, lastName, taxId, dob));
+                    hedges.increment();
+                } catch (RejectedExecutionException e) {
+                    // no spare capacity for a hedge; keep waiting on the primary
+                }
+            }
+            IOException lastFailure = null;
+            int pending = outstanding.size() - (completed != null ? 1 : 0);
+            while (true) {
+                if (completed != null) {
+                    try {
+                        final BackgroundCheckResults results = completed.get();
+                        if (completed != primary) {
+                            hedgeWins.increment();
+                        }
+                        circuitBreaker.onSuccess(permit);
+                        return results;
+                    } catch (ExecutionException e) {
+                        if (e.getCause() instanceof RuntimeException) {
+                            circuitBreaker.onFailure(permit);
+                            throw (RuntimeException) e.getCause();
+                        }
+                        lastFailure = e.getCause() instanceof IOException
+                                ? (IOException) e.getCause() : new IOException(e.getCause());
+                        if (pending == 0) {
+                            circuitBreaker.onFailure(permit);
+                            throw lastFailure;
+                        }
+                    }
+                }
+                final long remaining = deadline - System.nanoTime();
+                completed = remaining > 0 ? attempts.poll(remaining, TimeUnit.NANOSECONDS) : null;
+                if (completed == null) {
+                    deadlinesExceeded.increment();
+                    circuitBreaker.onFailure(permit);
+                    throw new IOException("Background check did not answer within "
+                            + TimeUnit.NANOSECONDS.toMillis(deadlineNanos) + " ms", lastFailure);
+                }
+                pending--;
+            }
+        } catch (RejectedExecutionException e) {
+            // Our own pool is full, which says nothing about the dependency
+            rejected.increment();
+            circuitBreaker.onIgnored(permit);
+            throw new IOException("Too many background checks in flight", e);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            circuitBreaker.onIgnored(permit);
+            throw new InterruptedIOException("Interrupted waiting for background check");
+        } finally {
+            for (Future<BackgroundCheckResults> attempt : outstanding) {
+                attempt.cancel(true);
+            }
+        }
+    }
+
+    @Override
+    public void close() {
+        executor.shutdownNow();
+    }
+
+    private Future<BackgroundCheckResults> submit(CompletionService<BackgroundCheckResults> attempts,
+                                                  String firstName, String lastName, String taxId, LocalDate dob) {
+        return attempts.submit(() -> {
+            final long start = System.nanoTime();
+            try {
+                return delegate.confirm(firstName, lastName, taxId, dob);
+            } finally {
+                // Failed and cancelled attempts count too, or slow calls that fail would drop out of the percentile
+                recordAttempt(System.nanoTime() - start);
+            }
+        });
+    }
+
+    private void recordAttempt(long nanos) {
+        attemptLatency.record(nanos);
+        final LatencyHistogram window = recentLatency;
+        window.record(nanos);
+        if (window.getCount() >= HEDGE_WINDOW_SAMPLES) {
+            rotateWindow(window);
+        }
+    }
+
+    private synchronized void rotateWindow(LatencyHistogram full) {
+        if (recentLatency != full) {
+            return;
+        }
+        final LatencyHistogram next = previousLatency;
+        next.reset();
+        previousLatency = full;
+        recentLatency = next;
+    }
+
+    private long hedgeDelayNanos(long deadline) {
+        final long untilDeadline = deadline - System.nanoTime();
+        LatencyHistogram window = previousLatency;
+        if (window.getCount() < MIN_SAMPLES_FOR_HEDGING) {
+            window = recentLatency;
+            if (window.getCount() < MIN_SAMPLES_FOR_HEDGING) {
+                return untilDeadline;
+            }
+        }
+        return Math.min(window.getValueAtPercentile(hedgePercentile), untilDeadline);
+    }
+}
@@ -1,6 +1,9 @@
 package com.pluralsight.pension.withdrawal;
 
 import com.pluralsight.pension.Account;
+import com.pluralsight.pension.AccountSnapshot;
+import com.pluralsight.pension.BlockingServiceAdapter;
+import com.pluralsight.pension.setup.AsyncBackgroundCheckService;
 import com.pluralsight.pension.setup.BackgroundCheckResults;
 import com.pluralsight.pension.setup.BackgroundCheckService;
 
@@ -9,6 +12,7 @@ import java.time.Clock;
 import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.time.Period;
+import java.util.concurrent.CompletableFuture;
 
 import static com.pluralsight.pension.setup.AccountOpeningService.UNACCEPTABLE_RISK_PROFILE;
 import static com.pluralsight.pension.withdrawal.AccountClosingStatus.*;
@@ -17,14 +21,26 @@ public class AccountClosingService {
 
     public static final int RETIREMENT_AGE = 65;
     private BackgroundCheckService backgroundCheckService;
+    private AsyncBackgroundCheckService asyncBackgroundCheckService;
     private Clock clock;
 
     public AccountClosingService(BackgroundCheckService backgroundCheckService, Clock clock) {
         this.backgroundCheckService = backgroundCheckService;
+        this.asyncBackgroundCheckService = backgroundCheckService != null
+                ? AsyncBackgroundCheckService.inline(backgroundCheckService)
+                : null;
+        this.clock = clock;
+    }
+
+    public AccountClosingService(AsyncBackgroundCheckService asyncBackgroundCheckService, Clock clock) {
+        this.asyncBackgroundCheckService = asyncBackgroundCheckService;
         this.clock = clock;
     }
 
     public AccountClosingResponse closeAccount(Account account) throws IOException {
+        if (backgroundCheckService == null && asyncBackgroundCheckService != null) {
+            return BlockingServiceAdapter.await(closeAccountAsync(account));
+        }
         Period accountHolderAge = Period.between(account.getDob(), LocalDate.now(clock));
         if (accountHolderAge.getYears() < RETIREMENT_AGE) {
             return new AccountClosingResponse(CLOSING_DENIED, LocalDateTime.now(clock));
@@ -47,4 +63,32 @@ public class AccountClosingService {
 
         }
     }
+
+    // Reads a consistent point-in-time view instead of a live account that may be mid-trade
+    public AccountClosingResponse closeAccount(AccountSnapshot snapshot) throws IOException {
+        return closeAccount(snapshot.toAccount());
+    }
+
+    public CompletableFuture<AccountClosingResponse> closeAccountAsync(Account account) {
+        Period accountHolderAge = Period.between(account.getDob(), LocalDate.now(clock));
+        if (accountHolderAge.getYears() < RETIREMENT_AGE) {
+            return CompletableFuture.completedFuture(
+                    new AccountClosingResponse(CLOSING_DENIED, LocalDateTime.now(clock)));
+        }
+        return asyncBackgroundCheckService.confirm(
+                account.getFistName(),
+                account.getLastName(),
+                account.getTaxId(),
+                account.getDob())
+                .thenApply(backgroundCheckResults ->
+                        new AccountClosingResponse(statusFor(backgroundCheckResults), LocalDateTime.now(clock)));
+    }
+
+    static AccountClosingStatus statusFor(BackgroundCheckResults backgroundCheckResults) {
+        if (backgroundCheckResults == null ||
+                backgroundCheckResults.getRiskProfile().equals(UNACCEPTABLE_RISK_PROFILE)) {
+            return CLOSING_PENDING;
+        }
+        return CLOSING_OK;
+    }
 }
@@ -0,0 +1,84 @@
+package com.pluralsight.pension.withdrawal;
+
+import com.pluralsight.pension.Account;
+import com.pluralsight.pension.setup.BackgroundCheckService;
+
+import java.time.Clock;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.CompletionService;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.function.BiConsumer;
+
+import static com.pluralsight.pension.withdrawal.AccountClosingService.RETIREMENT_AGE;
+import static com.pluralsight.pension.withdrawal.AccountClosingStatus.CLOSING_PENDING;
+
+// Year-end retirement sweep: skips holders below RETIREMENT_AGE with a single date comparison and runs the
+// background checks for the rest in parallel. Responses are handed to the caller's listener, on the calling
+// thread, as they complete; they all carry the same processing date.
+public class BulkAccountClosingService {
+
+    private BackgroundCheckService backgroundCheckService;
+    private Clock clock;
+    private int parallelism;
+
+    public BulkAccountClosingService(BackgroundCheckService backgroundCheckService, Clock clock, int parallelism) {
+        if (parallelism < 1) {
+            throw new IllegalArgumentException("Parallelism must be at least 1.");
+        }
+        this.backgroundCheckService = backgroundCheckService;
+        this.clock = clock;
+        this.parallelism = parallelism;
+    }
+
+    public BulkAccountClosingSummary closeAccounts(Collection<Account> accounts,
+                                                   BiConsumer<Account, AccountClosingResponse> responses)
+            throws InterruptedException {
+        final LocalDateTime processingDate = LocalDateTime.now(clock);
+        // Same outcome as Period.between(dob, today).getYears() >= RETIREMENT_AGE, including 29 February births
+        final long retirementCutoff = LocalDate.now(clock).minusYears(RETIREMENT_AGE).toEpochDay();
+        final Map<AccountClosingStatus, Integer> counts = new EnumMap<>(AccountClosingStatus.class);
+        int ineligible = 0;
+        int failed = 0;
+
+        final ExecutorService executor = Executors.newFixedThreadPool(parallelism);
+        try {
+            final CompletionService<AccountClosingStatus> closures = new ExecutorCompletionService<>(executor);
+            final Map<Future<AccountClosingStatus>, Account> submitted = new HashMap<>();
+            for (Account account : accounts) {
+                if (account.getDob().toEpochDay() > retirementCutoff) {
+                    ineligible++;
+                } else {
+                    submitted.put(closures.submit(() -> AccountClosingService.statusFor(
+                            backgroundCheckService.confirm(account.getFistName(),
+                                    account.getLastName(),
+                                    account.getTaxId(),
+                                    account.getDob()))), account);
+                }
+            }
+            for (int i = 0; i < submitted.size(); i++) {
+                final Future<AccountClosingStatus> closure = closures.take();
+                AccountClosingStatus status;
+                try {
+                    status = closure.get();
+                } catch (ExecutionException e) {
+                    failed++;
+                    status = CLOSING_PENDING;
+                }
+                counts.merge(status, 1, Integer::sum);
+                responses.accept(submitted.get(closure), new AccountClosingResponse(status, processingDate));
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+        return new BulkAccountClosingSummary(processingDate, counts, ineligible, failed);
+    }
+}
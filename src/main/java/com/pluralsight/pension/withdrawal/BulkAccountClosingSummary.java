@@ -0,0 +1,39 @@
+package com.pluralsight.pension.withdrawal;
+
+import java.time.LocalDateTime;
+import java.util.EnumMap;
+import java.util.Map;
+
+public class BulkAccountClosingSummary {
+
+    private final LocalDateTime processingDate;
+    private final Map<AccountClosingStatus, Integer> counts;
+    private final int ineligibleCount;
+    private final int failedCount;
+
+    public BulkAccountClosingSummary(LocalDateTime processingDate, Map<AccountClosingStatus, Integer> counts,
+                                     int ineligibleCount, int failedCount) {
+        this.processingDate = processingDate;
+        this.counts = new EnumMap<>(counts);
+        this.ineligibleCount = ineligibleCount;
+        this.failedCount = failedCount;
+    }
+
+    public LocalDateTime getProcessingDate() {
+        return processingDate;
+    }
+
+    public int getCount(AccountClosingStatus status) {
+        return counts.getOrDefault(status, 0);
+    }
+
+    // Accounts skipped because their holders had not reached retirement age; no response is produced for them
+    public int getIneligibleCount() {
+        return ineligibleCount;
+    }
+
+    // Closures left CLOSING_PENDING because the background check threw
+    public int getFailedCount() {
+        return failedCount;
+    }
+}
@@ -0,0 +1,150 @@
+package com.pluralsight.pension;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.Period;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class AccountLifecycleSchedulerTest {
+
+    private static final Period VALIDITY = Period.ofYears(5);
+
+    private final MovableClock clock = new MovableClock(Instant.parse("2020-08-26T00:00:00Z"));
+    private final List<String> fired = new ArrayList<>();
+    private final Map<String, LocalDate> firedOn = new HashMap<>();
+    private final AccountLifecycleScheduler underTest = new AccountLifecycleScheduler(clock, VALIDITY,
+            (event, accountId, dueDate) -> {
+                final String key = event + " " + accountId;
+                fired.add(key);
+                firedOn.put(key, LocalDate.now(clock));
+                assertTrue(!dueDate.isAfter(LocalDate.now(clock)));
+            });
+
+    @Test
+    public void shouldFireEachThresholdOnTheDayItIsCrossed() {
+        final Random random = new Random(7);
+        final Map<String, LocalDate> expected = new HashMap<>();
+        final LocalDate today = LocalDate.now(clock);
+        for (int i = 0; i < 2_000; i++) {
+            final Account account = account("ACC" + i,
+                    today.minusDays(random.nextInt(5 * 365)),
+                    today.minusYears(65).plusDays(random.nextInt(70 * 365)));
+            underTest.schedule(account);
+            expected.put("EXPIRED ACC" + i, latest(account.getOpeningDate().plus(VALIDITY), today));
+            expected.put("RETIREMENT_ELIGIBLE ACC" + i, latest(firstEligibleDay(account.getDob()), today));
+        }
+
+        underTest.advance();
+        final LocalDate end = today.plusYears(71);
+        while (LocalDate.now(clock).isBefore(end)) {
+            clock.advance(Duration.ofDays(1));
+            underTest.advance();
+        }
+
+        assertEquals(expected.size(), fired.size());
+        assertEquals(expected, firedOn);
+    }
+
+    @Test
+    public void shouldCatchUpAfterALongGapAndFireOverdueEventsImmediately() {
+        final LocalDate today = LocalDate.now(clock);
+        underTest.schedule(account("OVERDUE", today.minusYears(6), today.minusYears(30)));
+        underTest.schedule(account("LATER", today.minusYears(4), today.minusYears(30)));
+
+        assertEquals(1, underTest.advance());
+        assertEquals("EXPIRED OVERDUE", fired.get(0));
+
+        clock.advance(Duration.ofDays(3 * 365));
+        assertEquals(1, underTest.advance());
+        assertEquals("EXPIRED LATER", fired.get(1));
+    }
+
+    @Test
+    public void shouldHonourCancelAndReschedule() {
+        final LocalDate today = LocalDate.now(clock);
+        final Account cancelled = account("CANCELLED", today.minusYears(5).plusDays(10), today.minusYears(30));
+        final Account moved = account("MOVED", today.minusYears(5).plusDays(10), today.minusYears(30));
+        underTest.schedule(cancelled);
+        underTest.schedule(moved);
+
+        underTest.cancel("CANCELLED");
+        moved.setOpeningDate(today.minusYears(5).plusDays(20));
+        underTest.schedule(moved);
+
+        clock.advance(Duration.ofDays(10));
+        assertEquals(0, underTest.advance());
+        clock.advance(Duration.ofDays(10));
+        assertEquals(1, underTest.advance());
+        assertEquals(today.plusDays(20), firedOn.get("EXPIRED MOVED"));
+    }
+
+    @Test
+    public void shouldTreatLeapDayBirthsLikeTheClosingAgeCheck() {
+        final Account account = account("LEAP", LocalDate.of(2020, 1, 1), LocalDate.of(2000, 2, 29));
+
+        final LocalDate eligible = AccountLifecycleScheduler.retirementEligibilityDate(account);
+
+        assertEquals(LocalDate.of(2065, 3, 1), eligible);
+        assertEquals(firstEligibleDay(account.getDob()), eligible);
+    }
+
+    private static LocalDate latest(LocalDate date, LocalDate other) {
+        return date.isAfter(other) ? date : other;
+    }
+
+    private static LocalDate firstEligibleDay(LocalDate dob) {
+        LocalDate day = dob.plusYears(65).minusDays(2);
+        while (Period.between(dob, day).getYears() < 65) {
+            day = day.plusDays(1);
+        }
+        return day;
+    }
+
+    private static Account account(String id, LocalDate openingDate, LocalDate dob) {
+        final Account account = new Account();
+        account.setId(id);
+        account.setOpeningDate(openingDate);
+        account.setDob(dob);
+        return account;
+    }
+
+    private static class MovableClock extends Clock {
+        private Instant now;
+
+        MovableClock(Instant now) {
+            this.now = now;
+        }
+
+        void advance(Duration duration) {
+            now = now.plus(duration);
+        }
+
+        @Override
+        public ZoneId getZone() {
+            return ZoneOffset.UTC;
+        }
+
+        @Override
+        public Clock withZone(ZoneId zone) {
+            return this;
+        }
+
+        @Override
+        public Instant instant() {
+            return now;
+        }
+    }
+}
@@ -0,0 +1,153 @@
+package com.pluralsight.pension;
+
+import com.pluralsight.pension.investment.BrokerClient;
+import com.pluralsight.pension.investment.ExternalInvestmentManagementService;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.Currency;
+import java.util.HashSet;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.Mockito.mock;
+
+class CompactAccountStoreTest {
+
+    private static final Currency USD = Currency.getInstance("USD");
+
+    private final CompactAccountStore underTest = new CompactAccountStore();
+
+    @Test
+    public void shouldRoundTripEveryField() {
+        final Account account = account("ACC1");
+        account.getInvestments().add("FUND1");
+
+        final Account view = underTest.get(underTest.add(account));
+
+        assertEquals("ACC1", view.getId());
+        assertEquals("John", view.getFistName());
+        assertEquals("Smith", view.getLastName());
+        assertEquals("123XYZ9", view.getTaxId());
+        assertEquals(LocalDate.of(1980, 2, 29), view.getDob());
+        assertEquals(LocalDate.of(2045, 2, 28), view.getExpectedRetirement());
+        assertNull(view.getOpeningDate());
+        assertEquals(USD, view.getCcy());
+        assertEquals(new BigDecimal("1234.56"), view.getAvailableCash());
+        assertEquals(123_456, view.getAvailableCashUnits());
+        assertEquals(new BigDecimal("99.10"), view.getTotalInvestmentValue());
+        assertTrue(view.getInvestments().contains("FUND1"));
+    }
+
+    @Test
+    public void shouldFindRecordsByIdAcrossPages() {
+        for (int i = 0; i < 40_000; i++) {
+            underTest.add(account("ACC" + i));
+        }
+
+        assertEquals(40_000, underTest.size());
+        assertEquals("ACC39999", underTest.findById("ACC39999").get().getId());
+        assertEquals(17_000, underTest.indexOf("ACC17000"));
+        assertFalse(underTest.findById("ACC40000").isPresent());
+        assertThrows(IllegalArgumentException.class, () -> underTest.add(account("ACC123")));
+    }
+
+    @Test
+    public void shouldLetExistingServicesWorkThroughViews() throws IOException {
+        underTest.add(account("ACC1"));
+        final BrokerClient brokerClient = mock(BrokerClient.class);
+        given(brokerClient.executeInvestmentTransaction("FUND1", new BigDecimal("34.56"), "BUY")).willReturn(true);
+        final ExternalInvestmentManagementService service = new ExternalInvestmentManagementService(brokerClient);
+
+        service.buyInvestmentFund(underTest.findById("ACC1").get(), "FUND1", new BigDecimal("34.56"));
+
+        final Account reloaded = underTest.findById("ACC1").get();
+        assertEquals(new BigDecimal("1200.00"), reloaded.getAvailableCash());
+        assertTrue(reloaded.getInvestments().contains("FUND1"));
+    }
+
+    @Test
+    public void shouldReturnOneViewPerRecordSoAccountLocksExclude() {
+        final int index = underTest.add(account("ACC1"));
+        underTest.add(account("ACC2"));
+
+        assertSame(underTest.get(index), underTest.findById("ACC1").get());
+        assertSame(underTest.findById("ACC1").get(), underTest.findById("ACC1").get());
+        assertNotSame(underTest.findById("ACC1").get(), underTest.findById("ACC2").get());
+    }
+
+    @Test
+    public void shouldVisitEveryRecordWithAReusedView() {
+        for (int i = 0; i < 100; i++) {
+            underTest.add(account("ACC" + i));
+        }
+        final AtomicLong cash = new AtomicLong();
+
+        underTest.forEach(view -> cash.addAndGet(view.getAvailableCashUnits()));
+
+        assertEquals(100 * 123_456L, cash.get());
+    }
+
+    @Test
+    public void shouldAcceptAmountsFinerThanTheCurrencyLikeAPlainAccount() {
+        final Account account = account("ACC1");
+        account.setAvailableCash(new BigDecimal("10.005"));
+        final Account view = underTest.get(underTest.add(account));
+        final ExternalInvestmentManagementService service =
+                new ExternalInvestmentManagementService(mock(BrokerClient.class));
+
+        service.addFunds(view, new BigDecimal("0.005"), USD);
+        view.setTotalInvestmentValue(new BigDecimal("99.999"));
+
+        assertEquals(new BigDecimal("10.00"), view.getAvailableCash());
+        assertEquals(account.getAvailableCashUnits(), view.getAvailableCashUnits());
+        assertEquals(new BigDecimal("99.99"), view.getTotalInvestmentValue());
+    }
+
+    @Test
+    public void shouldShareOneHoldingsBetweenConcurrentFirstReaders() throws Exception {
+        for (int i = 0; i < 1_000; i++) {
+            underTest.add(account("ACC" + i));
+        }
+        final Holdings[] first = new Holdings[1_000];
+        final Holdings[] second = new Holdings[1_000];
+        final Thread other = new Thread(() -> {
+            for (int i = 0; i < 1_000; i++) {
+                second[i] = underTest.get(i).getHoldings();
+            }
+        });
+        other.start();
+        for (int i = 0; i < 1_000; i++) {
+            first[i] = underTest.get(i).getHoldings();
+        }
+        other.join();
+
+        for (int i = 0; i < 1_000; i++) {
+            assertSame(first[i], second[i]);
+        }
+    }
+
+    private static Account account(String id) {
+        final Account account = new Account();
+        account.setId(id);
+        account.setFistName("John");
+        account.setLastName("Smith");
+        account.setTaxId("123XYZ9");
+        account.setDob(LocalDate.of(1980, 2, 29));
+        account.setExpectedRetirement(LocalDate.of(2045, 2, 28));
+        account.setCcy(USD);
+        account.setAvailableCash(new BigDecimal("1234.56"));
+        account.setTotalInvestmentValue(new BigDecimal("99.10"));
+        account.setInvestments(new HashSet<>());
+        return account;
+    }
+}
@@ -0,0 +1,52 @@
+package com.pluralsight.pension;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class HoldingsTest {
+
+    private final Holdings underTest = new Holdings();
+
+    @Test
+    public void shouldAccumulateAndRemoveHoldingsAtZero() {
+        assertEquals(5, underTest.addUnits("FUND1", 5));
+        assertEquals(8, underTest.addUnits("FUND1", 3));
+        assertEquals(0, underTest.addUnits("FUND1", -8));
+
+        assertFalse(underTest.contains("FUND1"));
+        assertEquals(0, underTest.size());
+    }
+
+    @Test
+    public void shouldMatchAHashMapUnderRandomUpdates() {
+        final Map<String, Long> expected = new HashMap<>();
+        final Random random = new Random(42);
+        for (int i = 0; i < 20_000; i++) {
+            final String fundId = "F" + random.nextInt(40);
+            final long delta = random.nextInt(5) - 2;
+            final long updated = underTest.addUnits(fundId, delta);
+            final long reference = expected.getOrDefault(fundId, 0L) + delta;
+            if (reference == 0) {
+                expected.remove(fundId);
+            } else {
+                expected.put(fundId, reference);
+            }
+            assertEquals(reference, updated);
+        }
+
+        assertEquals(expected.size(), underTest.size());
+        final Map<String, Long> actual = new HashMap<>();
+        underTest.forEach(actual::put);
+        assertEquals(expected, actual);
+        for (String fundId : expected.keySet()) {
+            assertTrue(underTest.contains(fundId));
+        }
+    }
+}
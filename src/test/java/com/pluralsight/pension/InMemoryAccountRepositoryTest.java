@@ -0,0 +1,97 @@
+package com.pluralsight.pension;
+
+import com.pluralsight.pension.setup.BackgroundCheckResults;
+import org.junit.jupiter.api.Test;
+
+import java.time.Clock;
+import java.time.LocalDate;
+import java.time.Period;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class InMemoryAccountRepositoryTest {
+
+    private static final LocalDate TODAY = LocalDate.of(2020, 8, 26);
+    private static final BackgroundCheckResults OK_RESULTS = new BackgroundCheckResults("LOW", 100);
+
+    private final Clock clock = Clock.fixed(TODAY.atStartOfDay(ZoneId.systemDefault()).toInstant(),
+            ZoneId.systemDefault());
+    private final InMemoryAccountRepository underTest = new InMemoryAccountRepository(clock, Period.ofYears(1));
+
+    @Test
+    public void shouldFindSavedAccountByIdAndTaxId() {
+        assertTrue(underTest.save("id-1", "John", "Smith", "123", LocalDate.of(1960, 1, 1), OK_RESULTS));
+
+        final Account account = underTest.findById("id-1").orElseThrow();
+        assertEquals("John", account.getFistName());
+        assertEquals(TODAY, account.getOpeningDate());
+        assertEquals(LocalDate.of(2025, 1, 1), account.getExpectedRetirement());
+        assertEquals(account, underTest.findByTaxId("123").orElseThrow());
+    }
+
+    @Test
+    public void shouldRejectSecondAccountWithSameTaxId() {
+        assertTrue(underTest.save("id-1", "John", "Smith", "123", LocalDate.of(1960, 1, 1), OK_RESULTS));
+        assertFalse(underTest.save("id-2", "Johnny", "Smith", "123", LocalDate.of(1960, 1, 1), OK_RESULTS));
+        assertFalse(underTest.findById("id-2").isPresent());
+    }
+
+    @Test
+    public void shouldMoveAccountBetweenRangeIndexesWhenResaved() {
+        underTest.save("id-1", "John", "Smith", "123", LocalDate.of(1960, 1, 1), OK_RESULTS);
+        underTest.save("id-2", "Jane", "Doe", "456", LocalDate.of(1970, 1, 1), OK_RESULTS);
+        final Account account = underTest.findById("id-1").orElseThrow();
+        account.setDob(LocalDate.of(1980, 1, 1));
+        underTest.save(account);
+
+        assertEquals(List.of("id-2"), ids(underTest.findByDobBetween(LocalDate.of(1950, 1, 1), LocalDate.of(1975, 1, 1))));
+        assertEquals(List.of("id-1"), ids(underTest.findByDobBetween(LocalDate.of(1980, 1, 1), LocalDate.of(1980, 1, 1))));
+        assertEquals(List.of("id-1"), ids(underTest.findByExpectedRetirementBetween(
+                LocalDate.of(2025, 1, 1), LocalDate.of(2025, 12, 31))));
+    }
+
+    @Test
+    public void shouldExpireAccountsOpenedLongerThanValidityAgo() {
+        Account account = new Account();
+        account.setOpeningDate(TODAY.minusYears(1));
+        assertTrue(underTest.isExpired(account));
+        account.setOpeningDate(TODAY.minusDays(1));
+        assertFalse(underTest.isExpired(account));
+    }
+
+    @Test
+    public void shouldLetExactlyOneConcurrentSaveClaimATaxId() throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        try {
+            List<Callable<Boolean>> saves = new ArrayList<>();
+            for (int i = 0; i < 1000; i++) {
+                final String id = "id-" + i;
+                final String taxId = "tax-" + (i % 100);
+                saves.add(() -> underTest.save(id, "John", "Smith", taxId, LocalDate.of(1960, 1, 1), OK_RESULTS));
+            }
+            int succeeded = 0;
+            for (Future<Boolean> save : executor.invokeAll(saves)) {
+                succeeded += save.get() ? 1 : 0;
+            }
+            assertEquals(100, succeeded);
+            assertEquals(100, underTest.size());
+            assertEquals(100, underTest.findByDobBetween(LocalDate.of(1960, 1, 1), LocalDate.of(1960, 1, 1)).size());
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    private static List<String> ids(List<Account> accounts) {
+        return accounts.stream().map(Account::getId).sorted().collect(Collectors.toList());
+    }
+}
@@ -0,0 +1,72 @@
+package com.pluralsight.pension;
+
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.math.MathContext;
+import java.util.Currency;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class MoneyTest {
+
+    private static final Currency USD = Currency.getInstance("USD");
+    private static final Currency JPY = Currency.getInstance("JPY");
+
+    @Test
+    public void shouldConvertBetweenBigDecimalAndMinorUnitsAtCurrencyScale() {
+        assertEquals(12345L, Money.of(new BigDecimal("123.45"), USD).getMinorUnits());
+        assertEquals(123L, Money.of(new BigDecimal("123"), JPY).getMinorUnits());
+        assertEquals(new BigDecimal("123.45"), Money.ofMinorUnits(12345L, USD).toBigDecimal());
+    }
+
+    @Test
+    public void shouldRejectAmountsTheScaleCannotHold() {
+        assertThrows(ArithmeticException.class, () -> Money.of(new BigDecimal("0.001"), USD));
+    }
+
+    @Test
+    public void shouldThrowOnOverflowInsteadOfWrapping() {
+        assertThrows(ArithmeticException.class, () -> Money.add(Long.MAX_VALUE, 1L));
+        assertThrows(ArithmeticException.class, () -> Money.subtract(Long.MIN_VALUE, 1L));
+    }
+
+    @Test
+    public void shouldRejectMixingCurrencies() {
+        assertThrows(IllegalArgumentException.class,
+                () -> Money.ofMinorUnits(1L, USD).plus(Money.ofMinorUnits(1L, JPY)));
+    }
+
+    @Test
+    public void shouldKeepAccountCashConsistentAcrossRepresentations() {
+        Account account = new Account();
+        account.setCcy(USD);
+        account.setAvailableCash(new BigDecimal("10.50"));
+        assertEquals(1050L, account.getAvailableCashUnits());
+
+        account.setAvailableCashUnits(2075L);
+        assertEquals(new BigDecimal("20.75"), account.getAvailableCash());
+    }
+
+    @Test
+    public void shouldRoundAccountCashWithMoreDecimalsThanTheCurrency() {
+        Account account = new Account();
+        account.setCcy(USD);
+        account.setAvailableCash(new BigDecimal("100").divide(new BigDecimal("3"), MathContext.DECIMAL128));
+
+        assertEquals(3333L, account.getAvailableCashUnits());
+        assertEquals(3333L, account.getAvailableCashUnits());
+        assertEquals(34, account.getAvailableCash().precision());
+    }
+
+    @Test
+    public void shouldNeverRoundAccountCashUpIntoMinorUnits() {
+        Account account = new Account();
+        account.setCcy(USD);
+        account.setAvailableCash(new BigDecimal("33.335"));
+
+        assertEquals(3333L, account.getAvailableCashUnits());
+        assertEquals(3333L, Money.toMinorUnitsRoundingDown(new BigDecimal("33.339"), 2));
+    }
+}
@@ -0,0 +1,157 @@
+package com.pluralsight.pension;
+
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Currency;
+import java.util.HashSet;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class VersionedAccountTest {
+
+    private final Account live = account();
+    private final VersionedAccount underTest = new VersionedAccount(live);
+
+    @Test
+    public void shouldKeepPublishedSnapshotsImmutable() {
+        final AccountSnapshot before = underTest.get();
+
+        live.setAvailableCash(new BigDecimal("50.00"));
+        live.getInvestments().add("FUND1");
+        live.getHoldings().addUnits("FUND1", 3_000_000);
+        final AccountSnapshot after = underTest.publish(live);
+
+        assertEquals(new BigDecimal("100.00"), before.getAvailableCash());
+        assertTrue(before.getInvestments().isEmpty());
+        assertTrue(before.getHoldingUnits().isEmpty());
+        assertEquals(new BigDecimal("50.00"), after.getAvailableCash());
+        assertEquals(3_000_000L, after.getHoldingUnits().get("FUND1"));
+        assertEquals(before.getVersion() + 1, after.getVersion());
+        assertThrows(UnsupportedOperationException.class, () -> after.getInvestments().add("FUND2"));
+    }
+
+    @Test
+    public void shouldKeepTheLatestOfConcurrentPublishes() throws Exception {
+        final ExecutorService executor = Executors.newFixedThreadPool(4);
+        try {
+            final List<Future<?>> writers = new ArrayList<>();
+            for (int i = 0; i < 4; i++) {
+                writers.add(executor.submit(() -> {
+                    for (int j = 0; j < 1_000; j++) {
+                        synchronized (live) {
+                            live.setAvailableCash(live.getAvailableCash().add(BigDecimal.ONE));
+                            underTest.publish(live);
+                        }
+                    }
+                }));
+            }
+            for (Future<?> writer : writers) {
+                writer.get(30, TimeUnit.SECONDS);
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+
+        assertEquals(new BigDecimal("4100.00"), underTest.get().getAvailableCash());
+        assertEquals(4_000, underTest.get().getVersion());
+    }
+
+    @Test
+    public void shouldRetryAnUpdateWhoseSnapshotWasSuperseded() {
+        final AtomicInteger attempts = new AtomicInteger();
+        final Object lock = new Object();
+
+        final AccountSnapshot updated = underTest.update(live, lock, snapshot -> {
+            if (attempts.incrementAndGet() == 1) {
+                // another writer gets in between this snapshot and the update
+                synchronized (lock) {
+                    live.setAvailableCash(new BigDecimal("150.00"));
+                    underTest.publish(live);
+                }
+            }
+            final BigDecimal cash = snapshot.getAvailableCash().add(BigDecimal.TEN);
+            return account -> account.setAvailableCash(cash);
+        });
+
+        assertEquals(2, attempts.get());
+        assertEquals(new BigDecimal("160.00"), updated.getAvailableCash());
+        assertEquals(2, updated.getVersion());
+    }
+
+    @Test
+    public void shouldNotLoseConcurrentOptimisticUpdates() throws Exception {
+        final Object lock = new Object();
+        final ExecutorService executor = Executors.newFixedThreadPool(4);
+        try {
+            final List<Future<?>> writers = new ArrayList<>();
+            for (int i = 0; i < 4; i++) {
+                writers.add(executor.submit(() -> {
+                    for (int j = 0; j < 1_000; j++) {
+                        underTest.update(live, lock, snapshot -> {
+                            final BigDecimal cash = snapshot.getAvailableCash().add(BigDecimal.ONE);
+                            return account -> account.setAvailableCash(cash);
+                        });
+                    }
+                }));
+            }
+            for (Future<?> writer : writers) {
+                writer.get(30, TimeUnit.SECONDS);
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+
+        assertEquals(new BigDecimal("4100.00"), live.getAvailableCash());
+        assertEquals(4_000, underTest.get().getVersion());
+    }
+
+    @Test
+    public void shouldNeverShowReadersAHalfAppliedTrade() throws Exception {
+        final AtomicBoolean running = new AtomicBoolean(true);
+        final ExecutorService executor = Executors.newSingleThreadExecutor();
+        try {
+            // Every trade moves 10.00 from cash into a holding worth 10.00, so a snapshot always sums to 100.00
+            final Future<?> writer = executor.submit(() -> {
+                for (int i = 0; running.get() && i < 10_000; i++) {
+                    live.setAvailableCash(live.getAvailableCash().subtract(BigDecimal.TEN));
+                    live.getHoldings().setValueUnits(live.getHoldings().getValueUnits() + 1_000);
+                    underTest.publish(live);
+                    live.setAvailableCash(live.getAvailableCash().add(BigDecimal.TEN));
+                    live.getHoldings().setValueUnits(live.getHoldings().getValueUnits() - 1_000);
+                    underTest.publish(live);
+                }
+            });
+            for (int i = 0; i < 20_000; i++) {
+                final AccountSnapshot snapshot = underTest.get();
+                assertEquals(10_000, Money.toMinorUnits(snapshot.getAvailableCash(), 2)
+                        + snapshot.getHoldingsValueUnits());
+            }
+            running.set(false);
+            writer.get(30, TimeUnit.SECONDS);
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    private static Account account() {
+        final Account account = new Account();
+        account.setId("1");
+        account.setFistName("John");
+        account.setLastName("Smith");
+        account.setCcy(Currency.getInstance("USD"));
+        account.setAvailableCash(new BigDecimal("100.00"));
+        account.setInvestments(new HashSet<>());
+        return account;
+    }
+}
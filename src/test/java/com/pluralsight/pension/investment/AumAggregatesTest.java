@@ -0,0 +1,150 @@
+package com.pluralsight.pension.investment;
+
+import com.pluralsight.pension.Account;
+import com.pluralsight.pension.Holdings;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Currency;
+import java.util.HashSet;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.BDDMockito.given;
+
+@ExtendWith(MockitoExtension.class)
+class AumAggregatesTest {
+
+    private static final Currency USD = Currency.getInstance("USD");
+    private static final Currency EUR = Currency.getInstance("EUR");
+    private static final AtomicInteger ACCOUNT_IDS = new AtomicInteger();
+
+    @Mock
+    private BrokerClient brokerClient;
+
+    private final AumAggregates underTest = new AumAggregates();
+    private final PortfolioValuationEngine valuationEngine = new PortfolioValuationEngine(USD);
+
+    @Test
+    public void shouldMaintainTotalsIncrementally() throws Exception {
+        given(brokerClient.executeInvestmentTransaction(anyString(), any(), anyString())).willReturn(true);
+        final InvestmentManagementService service = service();
+        valuationEngine.onPrice("FUND1", new BigDecimal("10.00"));
+        final Account first = account(USD);
+        final Account second = account(USD);
+
+        service.addFunds(first, new BigDecimal("100.00"), USD);
+        service.addFunds(second, new BigDecimal("50.00"), USD);
+        service.buyInvestmentFund(first, "FUND1", new BigDecimal("30.00"));
+        service.buyInvestmentFund(second, "FUND1", new BigDecimal("20.00"));
+        service.sellInvestmentFund(second, "FUND1", new BigDecimal("20.00"));
+        service.sellInvestmentFund(first, "FUND1", new BigDecimal("10.00"));
+
+        assertEquals(new BigDecimal("130.00"), underTest.getTotalCash(USD));
+        assertEquals(2 * Holdings.UNITS_PER_FUND_UNIT, underTest.getFundUnits("FUND1"));
+        assertEquals(1, underTest.getHolderCount("FUND1"));
+        assertTrue(underTest.reconcile(Arrays.asList(first, second)).isConsistent());
+    }
+
+    @Test
+    public void shouldLeaveTotalsUnchangedByARejectedTrade() throws Exception {
+        given(brokerClient.executeInvestmentTransaction(anyString(), any(), anyString())).willReturn(false);
+        final InvestmentManagementService service = service();
+        valuationEngine.onPrice("FUND1", new BigDecimal("10.00"));
+        final Account account = account(USD);
+        service.addFunds(account, new BigDecimal("100.00"), USD);
+
+        assertFalse(service.buyInvestmentFund(account, "FUND1", new BigDecimal("30.00")));
+
+        assertEquals(new BigDecimal("100.00"), underTest.getTotalCash(USD));
+        assertEquals(0, underTest.getHolderCount("FUND1"));
+    }
+
+    @Test
+    public void shouldReconcileAfterConcurrentTradingAndTicks() throws Exception {
+        given(brokerClient.executeInvestmentTransaction(anyString(), any(), anyString())).willReturn(true);
+        final InvestmentManagementService service = service();
+        valuationEngine.onPrice("FUND1", new BigDecimal("10.00"));
+        valuationEngine.onPrice("FUND2", new BigDecimal("4.00"));
+        final List<Account> accounts = new ArrayList<>();
+        final ExecutorService executor = Executors.newFixedThreadPool(5);
+        try {
+            final List<Future<?>> futures = new ArrayList<>();
+            for (int t = 0; t < 4; t++) {
+                final Account account = account(t % 2 == 0 ? USD : EUR);
+                accounts.add(account);
+                futures.add(executor.submit(() -> {
+                    for (int i = 0; i < 500; i++) {
+                        final String fundId = i % 2 == 0 ? "FUND1" : "FUND2";
+                        service.addFunds(account, new BigDecimal("20.00"), account.getCcy());
+                        service.buyInvestmentFund(account, fundId, new BigDecimal("12.00"));
+                        service.sellInvestmentFund(account, fundId, new BigDecimal("4.00"));
+                    }
+                    return null;
+                }));
+            }
+            futures.add(executor.submit(() -> {
+                for (int i = 0; i < 2_000; i++) {
+                    valuationEngine.onPrice("FUND1", 900L + i % 200);
+                }
+                return null;
+            }));
+            for (Future<?> future : futures) {
+                future.get(30, TimeUnit.SECONDS);
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+
+        final AumReconciliation reconciliation = underTest.reconcile(accounts);
+        assertTrue(reconciliation.isConsistent(), reconciliation.getMismatches().toString());
+        assertEquals(4, reconciliation.getAccountCount());
+        assertEquals(new BigDecimal("12000.00"), underTest.getTotalCash(USD));
+        assertEquals(4, underTest.getHolderCount("FUND2"));
+    }
+
+    @Test
+    public void shouldReportTotalsThatDriftFromTheAccounts() {
+        final Account account = account(USD);
+        account.setAvailableCash(new BigDecimal("25.00"));
+        account.getInvestments().add("FUND1");
+        underTest.track(account);
+        assertTrue(underTest.reconcile(Arrays.asList(account)).isConsistent());
+
+        // Changed without going through the aggregating service
+        account.setAvailableCash(new BigDecimal("20.00"));
+
+        final AumReconciliation reconciliation = underTest.reconcile(Arrays.asList(account));
+        assertFalse(reconciliation.isConsistent());
+        assertEquals(Arrays.asList("cash USD: aggregate 2500, scan 2000"), reconciliation.getMismatches());
+    }
+
+    private InvestmentManagementService service() {
+        return new AggregatingInvestmentManagementService(
+                new ExternalInvestmentManagementService(brokerClient, valuationEngine), underTest);
+    }
+
+    private static Account account(Currency ccy) {
+        final Account account = new Account();
+        account.setId("ACC" + ACCOUNT_IDS.incrementAndGet());
+        account.setCcy(ccy);
+        account.setAvailableCash(BigDecimal.ZERO);
+        account.setTotalInvestmentValue(BigDecimal.ZERO);
+        account.setInvestments(new HashSet<>());
+        return account;
+    }
+}
@@ -0,0 +1,168 @@
+package com.pluralsight.pension.investment;
+
+import com.pluralsight.pension.Account;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.BDDMockito.then;
+import static org.mockito.Mockito.never;
+
+@ExtendWith(MockitoExtension.class)
+class BatchingInvestmentManagementServiceTest {
+
+    private static final String TEST_FUND_ID = "FUND_ID";
+    private static final String OTHER_FUND_ID = "OTHER_FUND_ID";
+
+    @Mock
+    private BrokerClient brokerClient;
+    private BatchingInvestmentManagementService underTest;
+
+    @AfterEach
+    void tearDown() {
+        underTest.close();
+    }
+
+    @Test
+    public void shouldSendOneNettedOrderPerFundAndAllocateFillToEachAccount() throws Exception {
+        given(brokerClient.executeInvestmentTransactionAsync(anyString(), any(BigDecimal.class), anyString()))
+                .willReturn(CompletableFuture.completedFuture(true));
+        underTest = new BatchingInvestmentManagementService(brokerClient, Duration.ofHours(1), 4);
+        Account buyer = account(new BigDecimal(1000));
+        Account otherBuyer = account(new BigDecimal(1000));
+        Account seller = account(new BigDecimal(0), TEST_FUND_ID);
+
+        CompletableFuture<Boolean> first = underTest.submit(buyer, TEST_FUND_ID, new BigDecimal(300), "BUY");
+        CompletableFuture<Boolean> second = underTest.submit(otherBuyer, TEST_FUND_ID, new BigDecimal(200), "BUY");
+        CompletableFuture<Boolean> third = underTest.submit(seller, TEST_FUND_ID, new BigDecimal(100), "SELL");
+        CompletableFuture<Boolean> fourth = underTest.submit(buyer, OTHER_FUND_ID, new BigDecimal(50), "BUY");
+
+        assertTrue(first.get(5, TimeUnit.SECONDS));
+        assertTrue(second.get(5, TimeUnit.SECONDS));
+        assertTrue(third.get(5, TimeUnit.SECONDS));
+        assertTrue(fourth.get(5, TimeUnit.SECONDS));
+        then(brokerClient).should().executeInvestmentTransactionAsync(TEST_FUND_ID, new BigDecimal(400), "BUY");
+        then(brokerClient).should().executeInvestmentTransactionAsync(OTHER_FUND_ID, new BigDecimal(50), "BUY");
+        assertEquals(new BigDecimal(650), buyer.getAvailableCash());
+        assertEquals(Set.of(TEST_FUND_ID, OTHER_FUND_ID), buyer.getInvestments());
+        assertEquals(new BigDecimal(800), otherBuyer.getAvailableCash());
+        assertEquals(new BigDecimal(100), seller.getAvailableCash());
+        assertFalse(seller.getInvestments().contains(TEST_FUND_ID));
+    }
+
+    @Test
+    public void shouldSkipBrokerWhenOrdersNetToZero() throws Exception {
+        underTest = new BatchingInvestmentManagementService(brokerClient, Duration.ofHours(1), 2);
+        Account buyer = account(new BigDecimal(1000));
+        Account seller = account(new BigDecimal(0), TEST_FUND_ID);
+
+        CompletableFuture<Boolean> buy = underTest.submit(buyer, TEST_FUND_ID, new BigDecimal(100), "BUY");
+        CompletableFuture<Boolean> sell = underTest.submit(seller, TEST_FUND_ID, new BigDecimal(100), "SELL");
+
+        assertTrue(buy.get(5, TimeUnit.SECONDS));
+        assertTrue(sell.get(5, TimeUnit.SECONDS));
+        then(brokerClient).should(never()).executeInvestmentTransactionAsync(anyString(), any(BigDecimal.class), anyString());
+    }
+
+    @Test
+    public void shouldFailEveryOrderInBatchWhenBrokerFails() {
+        given(brokerClient.executeInvestmentTransactionAsync(anyString(), any(BigDecimal.class), anyString()))
+                .willReturn(CompletableFuture.failedFuture(new IOException()));
+        underTest = new BatchingInvestmentManagementService(brokerClient, Duration.ofMillis(10), 100);
+        Account buyer = account(new BigDecimal(1000));
+
+        assertThrows(IOException.class, () -> underTest.buyInvestmentFund(buyer, TEST_FUND_ID, BigDecimal.TEN));
+        assertEquals(new BigDecimal(1000), buyer.getAvailableCash());
+    }
+
+    @Test
+    public void shouldFailAndRefundTheBatchWhenBrokerThrowsAndKeepFlushing() throws Exception {
+        given(brokerClient.executeInvestmentTransactionAsync(anyString(), any(BigDecimal.class), anyString()))
+                .willThrow(new IllegalStateException("broker client closed"))
+                .willReturn(CompletableFuture.completedFuture(true));
+        underTest = new BatchingInvestmentManagementService(brokerClient, Duration.ofMillis(10), 100);
+        Account buyer = account(new BigDecimal(1000));
+
+        ExecutionException failure = assertThrows(ExecutionException.class,
+                () -> underTest.submit(buyer, TEST_FUND_ID, BigDecimal.TEN, "BUY").get(5, TimeUnit.SECONDS));
+        assertTrue(failure.getCause() instanceof IllegalStateException);
+        assertEquals(new BigDecimal(1000), buyer.getAvailableCash());
+
+        assertTrue(underTest.submit(buyer, TEST_FUND_ID, BigDecimal.TEN, "BUY").get(5, TimeUnit.SECONDS));
+        assertEquals(new BigDecimal(990), buyer.getAvailableCash());
+    }
+
+    @Test
+    public void shouldRejectBuyWithoutEnoughCashBeforeBatching() {
+        underTest = new BatchingInvestmentManagementService(brokerClient, Duration.ofMillis(10), 100);
+        assertThrows(IllegalArgumentException.class,
+                () -> underTest.buyInvestmentFund(account(BigDecimal.ONE), TEST_FUND_ID, BigDecimal.TEN));
+    }
+
+    @Test
+    public void shouldNotLetOrdersInOneBatchSpendTheSameCash() throws Exception {
+        given(brokerClient.executeInvestmentTransactionAsync(anyString(), any(BigDecimal.class), anyString()))
+                .willReturn(CompletableFuture.completedFuture(true));
+        underTest = new BatchingInvestmentManagementService(brokerClient, Duration.ofHours(1), 100);
+        Account buyer = account(new BigDecimal(100));
+
+        CompletableFuture<Boolean> first = underTest.submit(buyer, TEST_FUND_ID, new BigDecimal(80), "BUY");
+        assertThrows(IllegalArgumentException.class,
+                () -> underTest.submit(buyer, OTHER_FUND_ID, new BigDecimal(80), "BUY"));
+        underTest.flush();
+
+        assertTrue(first.get(5, TimeUnit.SECONDS));
+        assertEquals(new BigDecimal(20), buyer.getAvailableCash());
+    }
+
+    @Test
+    public void shouldReturnReservedCashWhenBrokerRejects() throws Exception {
+        given(brokerClient.executeInvestmentTransactionAsync(anyString(), any(BigDecimal.class), anyString()))
+                .willReturn(CompletableFuture.completedFuture(false));
+        underTest = new BatchingInvestmentManagementService(brokerClient, Duration.ofHours(1), 1);
+        Account buyer = account(new BigDecimal(100));
+
+        assertFalse(underTest.submit(buyer, TEST_FUND_ID, new BigDecimal(80), "BUY").get(5, TimeUnit.SECONDS));
+        assertEquals(new BigDecimal(100), buyer.getAvailableCash());
+    }
+
+    @Test
+    public void shouldRejectUnknownDirectionsAndOrdersAfterClose() {
+        underTest = new BatchingInvestmentManagementService(brokerClient, Duration.ofHours(1), 100);
+        Account buyer = account(new BigDecimal(100));
+        assertThrows(IllegalArgumentException.class,
+                () -> underTest.submit(buyer, TEST_FUND_ID, BigDecimal.TEN, "HOLD"));
+
+        underTest.close();
+
+        ExecutionException failure = assertThrows(ExecutionException.class,
+                () -> underTest.submit(buyer, TEST_FUND_ID, BigDecimal.TEN, "BUY").get(5, TimeUnit.SECONDS));
+        assertTrue(failure.getCause() instanceof IOException);
+        assertEquals(new BigDecimal(100), buyer.getAvailableCash());
+    }
+
+    private static Account account(BigDecimal cash, String... funds) {
+        Account account = new Account();
+        account.setAvailableCash(cash);
+        account.setInvestments(new HashSet<>(Set.of(funds)));
+        return account;
+    }
+}
@@ -8,9 +8,11 @@ import org.mockito.junit.jupiter.MockitoExtension;
 
 import java.io.IOException;
 import java.math.BigDecimal;
+import java.util.Currency;
 import java.util.HashSet;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.anyString;
@@ -40,4 +42,32 @@ class ExternalInvestmentManagementServiceTest {
         assertEquals(testAccount.getAvailableCash(), startingAccountBalance.subtract(desiredInvestmentAmount));
         assertTrue(testAccount.getInvestments().contains(TEST_FUND_ID));
     }
+
+    @Test
+    public void shouldBuyPensionFundInvestmentUsingMinorUnits() throws IOException {
+        doReturn(true).when(underTest).executeInvestmentTransaction(
+                anyString(), any(BigDecimal.class), anyString());
+        Account testAccount = new Account();
+        testAccount.setInvestments(new HashSet<>());
+        testAccount.setAvailableCashUnits(100_000_00L);
+
+        underTest.buyInvestmentFund(testAccount, TEST_FUND_ID, 10_000_00L);
+
+        assertEquals(90_000_00L, testAccount.getAvailableCashUnits());
+        assertEquals(new BigDecimal("90000.00"), testAccount.getAvailableCash());
+        assertTrue(testAccount.getInvestments().contains(TEST_FUND_ID));
+    }
+
+    @Test
+    public void shouldNotLetMinorUnitsSpendAFractionOfACentTheAccountDoesNotHave() throws IOException {
+        Account testAccount = new Account();
+        testAccount.setInvestments(new HashSet<>());
+        testAccount.setAvailableCash(new BigDecimal("33.335"));
+
+        assertThrows(IllegalArgumentException.class,
+                () -> underTest.buyInvestmentFund(testAccount, TEST_FUND_ID, 33_34L));
+        underTest.addFunds(testAccount, 1L, Currency.getInstance("USD"));
+
+        assertEquals(new BigDecimal("33.34"), testAccount.getAvailableCash());
+    }
 }
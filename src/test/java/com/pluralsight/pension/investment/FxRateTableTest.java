@@ -0,0 +1,83 @@
+package com.pluralsight.pension.investment;
+
+import com.pluralsight.pension.Account;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Currency;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class FxRateTableTest {
+
+    private static final Currency USD = Currency.getInstance("USD");
+    private static final Currency EUR = Currency.getInstance("EUR");
+    private static final Currency GBP = Currency.getInstance("GBP");
+    private static final Currency JPY = Currency.getInstance("JPY");
+
+    @TempDir
+    Path directory;
+
+    @Test
+    public void shouldLoadASnapshotFileAndDeriveInversePairs() throws IOException {
+        final Path file = directory.resolve("rates.csv");
+        Files.write(file, Arrays.asList("# from,to,rate", "EUR,USD,1.25", "", "USD,JPY,150"));
+
+        final FxRateTable underTest = FxRateTable.load(file);
+
+        assertEquals(new BigDecimal("125.00"), underTest.convert(new BigDecimal("100.00"), EUR, USD));
+        assertEquals(new BigDecimal("80.00"), underTest.convert(new BigDecimal("100.00"), USD, EUR));
+        assertEquals(new BigDecimal("1500"), underTest.convert(new BigDecimal("10.00"), USD, JPY));
+        assertEquals(1_500, underTest.convertUnits(1_000, USD, JPY));
+        assertNull(underTest.getRate(GBP, USD));
+        assertThrows(IllegalArgumentException.class, () -> underTest.convert(BigDecimal.ONE, GBP, USD));
+    }
+
+    @Test
+    public void shouldApplyFeedUpdatesAndPreferExplicitRatesOverInverses() {
+        final FxRateTable underTest = new FxRateTable();
+        underTest.onRate(GBP, USD, new BigDecimal("1.25"));
+        assertEquals(new BigDecimal("0.8"), underTest.getRate(USD, GBP));
+
+        underTest.onRates(Arrays.asList(new FxRate(USD, GBP, new BigDecimal("0.79")),
+                new FxRate(GBP, USD, new BigDecimal("1.26"))));
+
+        assertEquals(new BigDecimal("0.79"), underTest.getRate(USD, GBP));
+        assertEquals(new BigDecimal("1.26"), underTest.getRate(GBP, USD));
+        assertEquals(2, underTest.size());
+    }
+
+    @Test
+    public void shouldConvertDepositsIntoTheAccountCurrency() {
+        final FxRateTable rates = new FxRateTable();
+        rates.onRate(EUR, USD, new BigDecimal("1.1"));
+        final ExternalInvestmentManagementService service =
+                new ExternalInvestmentManagementService(null, null, rates);
+        final Account account = new Account();
+        account.setCcy(USD);
+        account.setAvailableCash(new BigDecimal("10.00"));
+
+        service.addFunds(account, new BigDecimal("100.00"), EUR);
+        service.addFunds(account, 1_000L, EUR);
+        service.addFunds(account, new BigDecimal("1.00"), USD);
+
+        assertEquals(new BigDecimal("132.00"), account.getAvailableCash());
+    }
+
+    @Test
+    public void shouldStillRejectForeignDepositsWithoutARateTable() {
+        final Account account = new Account();
+        account.setCcy(USD);
+        account.setAvailableCash(BigDecimal.ZERO);
+
+        assertThrows(IllegalArgumentException.class,
+                () -> new ExternalInvestmentManagementService(null).addFunds(account, BigDecimal.ONE, EUR));
+    }
+}
@@ -0,0 +1,99 @@
+package com.pluralsight.pension.investment;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.math.BigDecimal;
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class HttpBrokerClientTest {
+
+    private static final String TEST_FUND_ID = "FUND_ID";
+
+    private HttpServer stubBroker;
+    private final Set<Integer> clientPorts = ConcurrentHashMap.newKeySet();
+    private volatile CountDownLatch holdResponses = new CountDownLatch(0);
+    private HttpBrokerClient underTest;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        stubBroker = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        stubBroker.setExecutor(Executors.newCachedThreadPool());
+        stubBroker.createContext("/delegate", this::respond);
+        stubBroker.start();
+        underTest = new HttpBrokerClient(
+                URI.create("http://127.0.0.1:" + stubBroker.getAddress().getPort() + "/delegate"),
+                Duration.ofSeconds(1), Duration.ofMillis(500));
+    }
+
+    @AfterEach
+    void tearDown() {
+        holdResponses.countDown();
+        stubBroker.stop(0);
+    }
+
+    @Test
+    public void shouldReturnBrokerAnswerAndReuseConnection() throws IOException {
+        assertTrue(underTest.executeInvestmentTransaction(TEST_FUND_ID, new BigDecimal("100.50"), "BUY"));
+        assertFalse(underTest.executeInvestmentTransaction("REJECTED", new BigDecimal("100.50"), "BUY"));
+        assertEquals(1, clientPorts.size());
+    }
+
+    @Test
+    public void shouldTimeOutWhenBrokerStalls() {
+        holdResponses = new CountDownLatch(1);
+        assertThrows(IOException.class,
+                () -> underTest.executeInvestmentTransaction(TEST_FUND_ID, BigDecimal.TEN, "SELL"));
+    }
+
+    @Test
+    public void shouldKeepManyAsyncOrdersInFlight() throws Exception {
+        holdResponses = new CountDownLatch(1);
+        List<CompletableFuture<Boolean>> orders = new ArrayList<>();
+        for (int i = 0; i < 20; i++) {
+            orders.add(underTest.executeInvestmentTransactionAsync(TEST_FUND_ID, BigDecimal.ONE, "BUY"));
+        }
+        holdResponses.countDown();
+        for (CompletableFuture<Boolean> order : orders) {
+            assertTrue(order.get(5, TimeUnit.SECONDS));
+        }
+    }
+
+    private void respond(HttpExchange exchange) throws IOException {
+        clientPorts.add(exchange.getRemoteAddress().getPort());
+        try {
+            holdResponses.await(2, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        final boolean accepted = TEST_FUND_ID.equals(exchange.getRequestHeaders().getFirst("FUND"))
+                && exchange.getRequestHeaders().getFirst("AMOUNT") != null
+                && exchange.getRequestHeaders().getFirst("DIRECTION") != null;
+        final byte[] body = Boolean.toString(accepted).getBytes(StandardCharsets.UTF_8);
+        exchange.sendResponseHeaders(200, body.length);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(body);
+        }
+    }
+}
@@ -0,0 +1,174 @@
+package com.pluralsight.pension.investment;
+
+import com.pluralsight.pension.Account;
+import com.pluralsight.pension.PartitionedAccountExecutor;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Currency;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class PartitionedInvestmentManagementServiceTest {
+
+    private static final Currency USD = Currency.getInstance("USD");
+    private static final String TEST_FUND_ID = "FUND_ID";
+    private static final int ACCOUNTS = 4;
+    private static final int THREADS = 8;
+    private static final int OPERATIONS_PER_THREAD = 5_000;
+
+    private final PartitionedAccountExecutor executor = new PartitionedAccountExecutor(3);
+    private final ExecutorService callers = Executors.newFixedThreadPool(THREADS);
+
+    @AfterEach
+    void tearDown() {
+        callers.shutdownNow();
+        executor.close();
+    }
+
+    @Test
+    public void shouldConserveCashUnderContention() throws Exception {
+        final InvestmentManagementService underTest = new PartitionedInvestmentManagementService(
+                new AlwaysAcceptingBroker(), executor);
+        final List<Account> accounts = new ArrayList<>();
+        for (int i = 0; i < ACCOUNTS; i++) {
+            accounts.add(account("account-" + i));
+        }
+        final AtomicLong deposited = new AtomicLong();
+        final AtomicLong bought = new AtomicLong();
+        final AtomicLong sold = new AtomicLong();
+
+        List<Future<?>> workers = new ArrayList<>();
+        for (int t = 0; t < THREADS; t++) {
+            workers.add(callers.submit(() -> {
+                ThreadLocalRandom random = ThreadLocalRandom.current();
+                for (int i = 0; i < OPERATIONS_PER_THREAD; i++) {
+                    Account account = accounts.get(random.nextInt(ACCOUNTS));
+                    try {
+                        switch (random.nextInt(3)) {
+                            case 0:
+                                underTest.addFunds(account, BigDecimal.ONE, USD);
+                                deposited.incrementAndGet();
+                                break;
+                            case 1:
+                                if (underTest.buyInvestmentFund(account, TEST_FUND_ID, new BigDecimal(7))) {
+                                    bought.addAndGet(7);
+                                }
+                                break;
+                            default:
+                                if (underTest.sellInvestmentFund(account, TEST_FUND_ID, new BigDecimal(5))) {
+                                    sold.addAndGet(5);
+                                }
+                        }
+                    } catch (IllegalArgumentException e) {
+                        // not enough cash or no holding at the time the mutation was applied
+                    }
+                }
+                return null;
+            }));
+        }
+        for (Future<?> worker : workers) {
+            worker.get(60, TimeUnit.SECONDS);
+        }
+
+        BigDecimal totalCash = BigDecimal.ZERO;
+        for (Account account : accounts) {
+            assertTrue(account.getAvailableCash().signum() >= 0);
+            totalCash = totalCash.add(account.getAvailableCash());
+        }
+        assertEquals(new BigDecimal(100 * ACCOUNTS + deposited.get() - bought.get() + sold.get()), totalCash);
+    }
+
+    @Test
+    public void shouldKeepTradingOtherAccountsWhileAnOrderWaitsOnTheBroker() throws Exception {
+        final PartitionedAccountExecutor singlePartition = new PartitionedAccountExecutor(1);
+        final CountDownLatch brokerReleased = new CountDownLatch(1);
+        final InvestmentManagementService underTest = new PartitionedInvestmentManagementService(
+                new AlwaysAcceptingBroker() {
+                    @Override
+                    public boolean executeInvestmentTransaction(String fundId, BigDecimal investmentAmount,
+                                                                String direction) throws IOException {
+                        try {
+                            return "SLOW".equals(fundId) ? brokerReleased.await(30, TimeUnit.SECONDS) : true;
+                        } catch (InterruptedException e) {
+                            throw new IOException(e);
+                        }
+                    }
+                }, singlePartition);
+        final Account slow = account("account-slow");
+        final Account fast = account("account-fast");
+        try {
+            final Future<Boolean> slowOrder = callers.submit(() ->
+                    underTest.buyInvestmentFund(slow, "SLOW", new BigDecimal(30)));
+
+            assertTrue(underTest.buyInvestmentFund(fast, TEST_FUND_ID, new BigDecimal(30)));
+            assertEquals(new BigDecimal(70), fast.getAvailableCash());
+            assertEquals(new BigDecimal(70), slow.getAvailableCash());
+
+            brokerReleased.countDown();
+            assertTrue(slowOrder.get(30, TimeUnit.SECONDS));
+            assertTrue(slow.getInvestments().contains("SLOW"));
+        } finally {
+            singlePartition.close();
+        }
+    }
+
+    @Test
+    public void shouldRefundTheReservedCashWhenTheBrokerRejects() throws Exception {
+        final InvestmentManagementService underTest = new PartitionedInvestmentManagementService(
+                new AlwaysAcceptingBroker() {
+                    @Override
+                    public boolean executeInvestmentTransaction(String fundId, BigDecimal investmentAmount,
+                                                                String direction) {
+                        return false;
+                    }
+                }, executor);
+        final Account account = account("account-0");
+        account.getInvestments().add(TEST_FUND_ID);
+
+        assertFalse(underTest.buyInvestmentFund(account, "OTHER", new BigDecimal(30)));
+        assertFalse(underTest.sellInvestmentFund(account, TEST_FUND_ID, new BigDecimal(30)));
+
+        assertEquals(new BigDecimal(100), account.getAvailableCash());
+        assertEquals(Set.of(TEST_FUND_ID), account.getInvestments());
+    }
+
+    private static Account account(String id) {
+        final Account account = new Account();
+        account.setId(id);
+        account.setAvailableCash(new BigDecimal(100));
+        account.setInvestments(new HashSet<>());
+        return account;
+    }
+
+    private static class AlwaysAcceptingBroker implements BrokerClient {
+        @Override
+        public boolean executeInvestmentTransaction(String fundId, BigDecimal investmentAmount, String direction)
+                throws IOException {
+            return true;
+        }
+
+        @Override
+        public CompletableFuture<Boolean> executeInvestmentTransactionAsync(String fundId,
+                                                                            BigDecimal investmentAmount,
+                                                                            String direction) {
+            return CompletableFuture.completedFuture(true);
+        }
+    }
+}
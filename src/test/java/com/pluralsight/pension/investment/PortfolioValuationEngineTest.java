@@ -0,0 +1,120 @@
+package com.pluralsight.pension.investment;
+
+import com.pluralsight.pension.Account;
+import com.pluralsight.pension.Holdings;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.util.Currency;
+import java.util.HashSet;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.BDDMockito.then;
+
+@ExtendWith(MockitoExtension.class)
+class PortfolioValuationEngineTest {
+
+    private static final Currency USD = Currency.getInstance("USD");
+
+    @Mock
+    private BrokerClient brokerClient;
+
+    private final PortfolioValuationEngine underTest = new PortfolioValuationEngine(USD);
+
+    @Test
+    public void shouldRevalueOnlyHoldersOfTheTickedFund() {
+        underTest.onPrice("FUND1", new BigDecimal("10.00"));
+        underTest.onPrice("FUND2", new BigDecimal("2.00"));
+        final Account holder = account();
+        final Account other = account();
+        underTest.applyTrade(holder, "FUND1", 3 * Holdings.UNITS_PER_FUND_UNIT);
+        underTest.applyTrade(other, "FUND2", 5 * Holdings.UNITS_PER_FUND_UNIT);
+        final BigDecimal otherValue = other.getTotalInvestmentValue();
+
+        underTest.onPrice("FUND1", new BigDecimal("12.50"));
+
+        assertEquals(new BigDecimal("37.50"), holder.getTotalInvestmentValue());
+        assertEquals(new BigDecimal("10.00"), otherValue);
+        assertTrue(otherValue == other.getTotalInvestmentValue());
+        assertEquals(1, underTest.getHolderCount("FUND1"));
+    }
+
+    @Test
+    public void shouldValueUnitsAtTheFullPricePrecision() {
+        final Account account = account();
+        underTest.onPrice("FUND1", new BigDecimal("1.234567"));
+
+        underTest.applyTrade(account, "FUND1", 1_000 * Holdings.UNITS_PER_FUND_UNIT);
+
+        assertEquals(new BigDecimal("1.234567"), underTest.getPrice("FUND1"));
+        assertEquals(new BigDecimal("1234.56"), account.getTotalInvestmentValue());
+    }
+
+    @Test
+    public void shouldAgreeWithAFullRevaluationAfterManyTicks() {
+        final Account account = account();
+        underTest.onPrice("FUND1", 1_003L);
+        underTest.onPrice("FUND2", 777L);
+        underTest.applyTrade(account, "FUND1", 1_234_567L);
+        underTest.applyTrade(account, "FUND2", 7_654_321L);
+        for (long price = 500; price < 1_500; price += 7) {
+            underTest.onPrice("FUND1", price);
+            underTest.onPrice("FUND2", 2_000 - price);
+        }
+        final BigDecimal incremental = account.getTotalInvestmentValue();
+
+        underTest.track(account);
+
+        assertEquals(incremental, account.getTotalInvestmentValue());
+    }
+
+    @Test
+    public void shouldKeepTheRemainingHoldingAfterAPartialSale() throws IOException {
+        given(brokerClient.executeInvestmentTransaction(anyString(), any(BigDecimal.class), anyString()))
+                .willReturn(true);
+        final ExternalInvestmentManagementService service =
+                new ExternalInvestmentManagementService(brokerClient, underTest);
+        underTest.onPrice("FUND1", new BigDecimal("4.00"));
+        final Account account = account();
+
+        service.buyInvestmentFund(account, "FUND1", new BigDecimal("100.00"));
+        service.sellInvestmentFund(account, "FUND1", new BigDecimal("40.00"));
+
+        assertTrue(account.getInvestments().contains("FUND1"));
+        assertEquals(15 * Holdings.UNITS_PER_FUND_UNIT, account.getHoldings().getUnits("FUND1"));
+        assertEquals(new BigDecimal("60.00"), account.getTotalInvestmentValue());
+
+        service.sellInvestmentFund(account, "FUND1", new BigDecimal("60.00"));
+
+        assertFalse(account.getInvestments().contains("FUND1"));
+        assertEquals(0, underTest.getHolderCount("FUND1"));
+    }
+
+    @Test
+    public void shouldRefuseToTradeAFundWithoutAPrice() throws IOException {
+        final ExternalInvestmentManagementService service =
+                new ExternalInvestmentManagementService(brokerClient, underTest);
+
+        assertThrows(IllegalStateException.class,
+                () -> service.buyInvestmentFund(account(), "UNPRICED", new BigDecimal("10.00")));
+        then(brokerClient).shouldHaveZeroInteractions();
+    }
+
+    private static Account account() {
+        final Account account = new Account();
+        account.setCcy(USD);
+        account.setAvailableCash(new BigDecimal("1000.00"));
+        account.setInvestments(new HashSet<>());
+        return account;
+    }
+}
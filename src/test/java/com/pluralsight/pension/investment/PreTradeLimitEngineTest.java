@@ -0,0 +1,207 @@
+package com.pluralsight.pension.investment;
+
+import com.pluralsight.pension.Account;
+import com.pluralsight.pension.AccountRepository;
+import com.pluralsight.pension.InMemoryAccountRepository;
+import com.pluralsight.pension.persistence.JournalingAccountRepository;
+import com.pluralsight.pension.setup.BackgroundCheckResults;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.file.Path;
+import java.time.Clock;
+import java.time.LocalDate;
+import java.time.Period;
+import java.util.ArrayList;
+import java.util.Currency;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.BDDMockito.then;
+
+@ExtendWith(MockitoExtension.class)
+class PreTradeLimitEngineTest {
+
+    private static final Currency USD = Currency.getInstance("USD");
+
+    @Mock
+    private InvestmentManagementService delegate;
+    @Mock
+    private AccountRepository accountRepository;
+
+    @TempDir
+    Path directory;
+
+    private final PreTradeLimitEngine underTest = new PreTradeLimitEngine(16);
+
+    @Test
+    public void shouldNeverReserveBeyondTheLimitUnderContention() throws Exception {
+        underTest.register("ACC1", 100, 2);
+        underTest.register("ACC2", 100, 2);
+        final ExecutorService executor = Executors.newFixedThreadPool(8);
+        try {
+            final List<Future<Integer>> futures = new ArrayList<>();
+            for (int t = 0; t < 8; t++) {
+                final String accountId = t % 2 == 0 ? "ACC1" : "ACC2";
+                futures.add(executor.submit(() -> {
+                    int reserved = 0;
+                    for (int i = 0; i < 5_000; i++) {
+                        if (underTest.tryReserve(accountId, 1)) {
+                            reserved++;
+                        }
+                    }
+                    return reserved;
+                }));
+            }
+            int reserved = 0;
+            for (Future<Integer> future : futures) {
+                reserved += future.get();
+            }
+
+            assertEquals(20_000, reserved);
+            assertEquals(10_000, underTest.getExposure("ACC1"));
+            assertEquals(10_000, underTest.getExposure("ACC2"));
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    public void shouldRejectOverLimitOrdersBeforeCallingTheBroker() throws IOException {
+        underTest.register("ACC1", 100, 2);
+        final Account account = account("ACC1");
+        given(delegate.buyInvestmentFund(account, "FUND1", new BigDecimal("60.00"))).willReturn(true);
+        final LimitCheckedInvestmentManagementService service =
+                new LimitCheckedInvestmentManagementService(delegate, underTest);
+
+        assertTrue(service.buyInvestmentFund(account, "FUND1", new BigDecimal("60.00")));
+        assertThrows(IllegalArgumentException.class,
+                () -> service.buyInvestmentFund(account, "FUND1", new BigDecimal("40.01")));
+
+        then(delegate).should().buyInvestmentFund(account, "FUND1", new BigDecimal("60.00"));
+        assertEquals(6_000, underTest.getExposure("ACC1"));
+    }
+
+    @Test
+    public void shouldReleaseExposureWhenTheOrderFailsOrIsSold() throws IOException {
+        underTest.register("ACC1", 100, 2);
+        final Account account = account("ACC1");
+        given(delegate.buyInvestmentFund(account, "FUND1", new BigDecimal("50.00"))).willReturn(false, true);
+        given(delegate.buyInvestmentFund(account, "FUND2", new BigDecimal("10.00")))
+                .willThrow(new IOException("broker down"));
+        given(delegate.sellInvestmentFund(account, "FUND1", new BigDecimal("20.00"))).willReturn(true);
+        final LimitCheckedInvestmentManagementService service =
+                new LimitCheckedInvestmentManagementService(delegate, underTest);
+
+        assertFalse(service.buyInvestmentFund(account, "FUND1", new BigDecimal("50.00")));
+        assertThrows(IOException.class, () -> service.buyInvestmentFund(account, "FUND2", new BigDecimal("10.00")));
+        assertEquals(0, underTest.getExposure("ACC1"));
+
+        service.buyInvestmentFund(account, "FUND1", new BigDecimal("50.00"));
+        service.sellInvestmentFund(account, "FUND1", new BigDecimal("20.00"));
+        assertEquals(3_000, underTest.getExposure("ACC1"));
+    }
+
+    @Test
+    public void shouldRegisterTheBackgroundCheckLimitWhenAnAccountIsSaved() {
+        final BackgroundCheckResults results = new BackgroundCheckResults("LOW", 250);
+        final LocalDate dob = LocalDate.of(1990, 1, 1);
+        given(accountRepository.save("ACC1", "John", "Smith", "123XYZ9", dob, results)).willReturn(true);
+
+        underTest.registeringLimits(accountRepository).save("ACC1", "John", "Smith", "123XYZ9", dob, results);
+
+        assertEquals(25_000, underTest.getLimit("ACC1"));
+        assertFalse(underTest.isRegistered("ACC2"));
+    }
+
+    @Test
+    public void shouldSellForAnAccountWithNoRegisteredLimit() throws Exception {
+        final Account account = account("ACC1");
+        given(delegate.sellInvestmentFund(account, "FUND1", new BigDecimal("20.00"))).willReturn(true);
+        final LimitCheckedInvestmentManagementService service =
+                new LimitCheckedInvestmentManagementService(delegate, underTest);
+
+        assertTrue(service.sellInvestmentFund(account, "FUND1", new BigDecimal("20.00")));
+        assertFalse(underTest.isRegistered("ACC1"));
+    }
+
+    @Test
+    public void shouldRegisterLimitsInTheAccountCurrencyAndForRestoredAccounts() {
+        final BackgroundCheckResults results = new BackgroundCheckResults("LOW", 250);
+        final LocalDate dob = LocalDate.of(1990, 1, 1);
+        final Account opened = account("ACC1");
+        opened.setCcy(Currency.getInstance("JPY"));
+        final Account restored = account("ACC2");
+        given(accountRepository.save("ACC1", "John", "Smith", "123XYZ9", dob, results)).willReturn(true);
+        given(accountRepository.findById("ACC1")).willReturn(Optional.of(opened));
+        given(accountRepository.save(opened)).willReturn(true);
+        given(accountRepository.save(restored)).willReturn(true);
+        final AccountRepository repository = underTest.registeringLimits(accountRepository);
+
+        repository.save("ACC1", "John", "Smith", "123XYZ9", dob, results);
+        repository.save(opened);
+        repository.save(restored);
+
+        assertEquals(250, underTest.getLimit("ACC1"));
+        assertTrue(underTest.isRegistered("ACC2"));
+        assertEquals(0, underTest.getLimit("ACC2"));
+        assertFalse(underTest.tryReserve("ACC2", 1));
+    }
+
+    @Test
+    public void shouldRegisterPersistedLimitsAgainAfterARestart() throws Exception {
+        final BackgroundCheckResults results = new BackgroundCheckResults("LOW", 250);
+        try (JournalingAccountRepository journaling = journaling()) {
+            underTest.registeringLimits(journaling)
+                    .save("ACC1", "John", "Smith", "123XYZ9", LocalDate.of(1990, 1, 1), results);
+        }
+
+        final PreTradeLimitEngine restarted = new PreTradeLimitEngine(16);
+        try (JournalingAccountRepository journaling = journaling()) {
+            journaling.forEach(restarted::register);
+        }
+
+        assertEquals(25_000, restarted.getLimit("ACC1"));
+        assertTrue(restarted.tryReserve("ACC1", 25_000));
+    }
+
+    @Test
+    public void shouldReuseTheSlotOfAnUnregisteredAccount() {
+        final PreTradeLimitEngine engine = new PreTradeLimitEngine(1);
+        engine.register("ACC1", 100, 2);
+        engine.tryReserve("ACC1", 5_000);
+        assertThrows(IllegalStateException.class, () -> engine.register("ACC2", 100, 2));
+
+        engine.unregister("ACC1");
+        engine.register("ACC2", 100, 2);
+
+        assertFalse(engine.isRegistered("ACC1"));
+        assertEquals(0, engine.getExposure("ACC2"));
+        assertEquals(10_000, engine.getLimit("ACC2"));
+    }
+
+    private JournalingAccountRepository journaling() throws IOException {
+        return new JournalingAccountRepository(directory,
+                new InMemoryAccountRepository(Clock.systemUTC(), Period.ofYears(1)), null);
+    }
+
+    private static Account account(String id) {
+        final Account account = new Account();
+        account.setId(id);
+        account.setCcy(USD);
+        return account;
+    }
+}
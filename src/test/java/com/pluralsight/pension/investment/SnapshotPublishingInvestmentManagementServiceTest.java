@@ -0,0 +1,142 @@
+package com.pluralsight.pension.investment;
+
+import com.pluralsight.pension.Account;
+import com.pluralsight.pension.AccountSnapshot;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Currency;
+import java.util.HashSet;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.BDDMockito.given;
+
+@ExtendWith(MockitoExtension.class)
+class SnapshotPublishingInvestmentManagementServiceTest {
+
+    private static final Currency USD = Currency.getInstance("USD");
+
+    @Mock
+    private BrokerClient brokerClient;
+
+    private final PortfolioValuationEngine valuationEngine = new PortfolioValuationEngine(USD);
+
+    @Test
+    public void shouldPublishEachTradeAndNothingForARejectedOne() throws Exception {
+        given(brokerClient.executeInvestmentTransaction(eq("FUND1"), any(), anyString())).willReturn(true);
+        given(brokerClient.executeInvestmentTransaction(eq("FUND2"), any(), anyString())).willReturn(false);
+        valuationEngine.onPrice("FUND2", new BigDecimal("5.00"));
+        final SnapshotPublishingInvestmentManagementService underTest = service();
+        final Account account = account("1");
+        assertNull(underTest.snapshotOf("1"));
+
+        underTest.addFunds(account, new BigDecimal("100.00"), USD);
+        underTest.buyInvestmentFund(account, "FUND1", new BigDecimal("30.00"));
+        final AccountSnapshot traded = underTest.snapshotOf("1");
+        assertFalse(underTest.buyInvestmentFund(account, "FUND2", new BigDecimal("30.00")));
+
+        assertEquals(2, traded.getVersion());
+        assertEquals(0, new BigDecimal("70.00").compareTo(traded.getAvailableCash()));
+        assertTrue(traded.getInvestments().contains("FUND1"));
+        assertEquals(traded, underTest.snapshotOf("1"));
+    }
+
+    @Test
+    public void shouldNotDeadlockTradesAgainstPriceTicks() throws Exception {
+        given(brokerClient.executeInvestmentTransaction(anyString(), any(), anyString())).willReturn(true);
+        final SnapshotPublishingInvestmentManagementService underTest = service();
+        final List<Account> accounts = new ArrayList<>();
+        final ExecutorService executor = Executors.newFixedThreadPool(5);
+        try {
+            final List<Future<?>> futures = new ArrayList<>();
+            for (int t = 0; t < 4; t++) {
+                final Account account = account(String.valueOf(t));
+                accounts.add(account);
+                underTest.addFunds(account, new BigDecimal("5000.00"), USD);
+                futures.add(executor.submit(() -> {
+                    for (int i = 0; i < 500; i++) {
+                        underTest.buyInvestmentFund(account, "FUND1", new BigDecimal("10.00"));
+                        underTest.sellInvestmentFund(account, "FUND1", new BigDecimal("5.00"));
+                    }
+                    return null;
+                }));
+            }
+            // Ticks lock the fund and then each holder's account, the order a trade's booking also uses
+            futures.add(executor.submit(() -> {
+                for (int i = 0; i < 5_000; i++) {
+                    valuationEngine.onPrice("FUND1", 900L + i % 200);
+                }
+                return null;
+            }));
+            for (Future<?> future : futures) {
+                future.get(30, TimeUnit.SECONDS);
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+
+        for (Account account : accounts) {
+            final AccountSnapshot snapshot = underTest.snapshotOf(account.getId());
+            assertEquals(0, new BigDecimal("2500.00").compareTo(snapshot.getAvailableCash()));
+            assertEquals(account.getHoldings().getUnits("FUND1"), snapshot.getHoldingUnits().get("FUND1"));
+        }
+    }
+
+    @Test
+    public void shouldNotHoldTheAccountAcrossTheBrokerCall() throws Exception {
+        final CountDownLatch brokerReleased = new CountDownLatch(1);
+        given(brokerClient.executeInvestmentTransaction(eq("SLOW"), any(), anyString())).willAnswer(invocation ->
+                brokerReleased.await(30, TimeUnit.SECONDS));
+        given(brokerClient.executeInvestmentTransaction(eq("FUND1"), any(), anyString())).willReturn(true);
+        valuationEngine.onPrice("SLOW", new BigDecimal("10.00"));
+        final SnapshotPublishingInvestmentManagementService underTest = service();
+        final Account account = account("1");
+        underTest.addFunds(account, new BigDecimal("100.00"), USD);
+        final ExecutorService executor = Executors.newSingleThreadExecutor();
+        try {
+            final Future<Boolean> slow = executor.submit(() ->
+                    underTest.buyInvestmentFund(account, "SLOW", new BigDecimal("10.00")));
+
+            assertTrue(underTest.buyInvestmentFund(account, "FUND1", new BigDecimal("20.00")));
+            assertEquals(0, new BigDecimal("80.00").compareTo(underTest.snapshotOf("1").getAvailableCash()));
+
+            brokerReleased.countDown();
+            assertTrue(slow.get(30, TimeUnit.SECONDS));
+        } finally {
+            executor.shutdownNow();
+        }
+        assertEquals(0, new BigDecimal("70.00").compareTo(underTest.snapshotOf("1").getAvailableCash()));
+    }
+
+    private SnapshotPublishingInvestmentManagementService service() {
+        valuationEngine.onPrice("FUND1", new BigDecimal("10.00"));
+        return new SnapshotPublishingInvestmentManagementService(
+                new ExternalInvestmentManagementService(brokerClient, valuationEngine));
+    }
+
+    private static Account account(String id) {
+        final Account account = new Account();
+        account.setId(id);
+        account.setCcy(USD);
+        account.setAvailableCash(BigDecimal.ZERO);
+        account.setTotalInvestmentValue(BigDecimal.ZERO);
+        account.setInvestments(new HashSet<>());
+        return account;
+    }
+}
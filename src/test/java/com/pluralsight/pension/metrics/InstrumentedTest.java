@@ -0,0 +1,137 @@
+package com.pluralsight.pension.metrics;
+
+import com.pluralsight.pension.AccountRepository;
+import com.pluralsight.pension.investment.BrokerClient;
+import com.pluralsight.pension.setup.AccountApplication;
+import com.pluralsight.pension.setup.AccountOpeningEventPublisher;
+import com.pluralsight.pension.setup.AccountOpeningStatus;
+import com.pluralsight.pension.setup.Applicant;
+import com.pluralsight.pension.setup.BackgroundCheckResults;
+import com.pluralsight.pension.setup.BackgroundCheckService;
+import com.pluralsight.pension.setup.ReferenceIdsManager;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.BDDMockito.then;
+import static org.mockito.Mockito.never;
+
+@ExtendWith(MockitoExtension.class)
+class InstrumentedTest {
+
+    private static final String FIRST_NAME = "John";
+    private static final String LAST_NAME = "Smith";
+    private static final String TAX_ID = "123XYZ9";
+    private static final LocalDate DOB = LocalDate.of(1990, 1, 1);
+    private static final String ACCOUNT_ID = "some id";
+
+    @Mock
+    private BackgroundCheckService backgroundCheckService;
+    @Mock
+    private ReferenceIdsManager referenceIdsManager;
+    @Mock
+    private AccountRepository accountRepository;
+    @Mock
+    private AccountOpeningEventPublisher eventPublisher;
+    @Mock
+    private BrokerClient brokerClient;
+
+    private final MetricsRegistry registry = new DefaultMetricsRegistry();
+
+    @Test
+    public void shouldTimeDependenciesAndCountOpeningOutcomes() throws IOException {
+        final BackgroundCheckResults okResults = new BackgroundCheckResults("LOW", 100);
+        given(backgroundCheckService.confirm(FIRST_NAME, LAST_NAME, TAX_ID, DOB)).willReturn(okResults);
+        given(referenceIdsManager.obtainId(FIRST_NAME, "", LAST_NAME, TAX_ID, DOB)).willReturn(ACCOUNT_ID);
+        given(accountRepository.save(ACCOUNT_ID, FIRST_NAME, LAST_NAME, TAX_ID, DOB, okResults)).willReturn(true);
+        final InstrumentedAccountOpeningService underTest = new InstrumentedAccountOpeningService(
+                Instrumented.backgroundCheckService(backgroundCheckService, registry),
+                Instrumented.referenceIdsManager(referenceIdsManager, registry),
+                Instrumented.accountRepository(accountRepository, registry),
+                Instrumented.eventPublisher(eventPublisher, registry),
+                registry);
+
+        final AccountOpeningStatus status = underTest.openAccount(FIRST_NAME, LAST_NAME, TAX_ID, DOB);
+
+        assertEquals(AccountOpeningStatus.OPENED, status);
+        assertEquals(1, registry.counter("accountOpening.openAccount.OPENED").getCount());
+        assertEquals(0, registry.counter("accountOpening.openAccount.DECLINED").getCount());
+        assertEquals(1, registry.histogram("accountOpening.openAccount").getCount());
+        assertEquals(1, registry.histogram("backgroundCheck.confirm").getCount());
+        assertEquals(1, registry.histogram("referenceIds.obtainId").getCount());
+        assertEquals(1, registry.histogram("accountRepository.save").getCount());
+        assertEquals(1, registry.histogram("eventPublisher.notify").getCount());
+    }
+
+    @Test
+    public void shouldCountBrokerOutcomesIncludingIOExceptions() throws IOException {
+        given(brokerClient.executeInvestmentTransaction(eq("F1"), any(BigDecimal.class), anyString()))
+                .willReturn(true);
+        given(brokerClient.executeInvestmentTransaction(eq("F2"), any(BigDecimal.class), anyString()))
+                .willReturn(false);
+        given(brokerClient.executeInvestmentTransaction(eq("F3"), any(BigDecimal.class), anyString()))
+                .willThrow(new IOException("broker down"));
+        final BrokerClient underTest = Instrumented.brokerClient(brokerClient, registry);
+
+        assertTrue(underTest.executeInvestmentTransaction("F1", BigDecimal.TEN, "BUY"));
+        assertFalse(underTest.executeInvestmentTransaction("F2", BigDecimal.TEN, "BUY"));
+        assertThrows(IOException.class,
+                () -> underTest.executeInvestmentTransaction("F3", BigDecimal.TEN, "BUY"));
+
+        assertEquals(1, registry.counter("broker.execute.true").getCount());
+        assertEquals(1, registry.counter("broker.execute.false").getCount());
+        assertEquals(1, registry.counter("broker.execute.ioException").getCount());
+        assertEquals(3, registry.histogram("broker.execute").getCount());
+    }
+
+    @Test
+    public void shouldForwardBatchSavesWhole() {
+        final AccountApplication saved = new AccountApplication("id-1",
+                new Applicant(FIRST_NAME, LAST_NAME, TAX_ID, DOB), new BackgroundCheckResults("LOW", 100));
+        final AccountApplication refused = new AccountApplication("id-2",
+                new Applicant(FIRST_NAME, LAST_NAME, TAX_ID, DOB), new BackgroundCheckResults("LOW", 100));
+        given(accountRepository.saveAll(List.of(saved, refused))).willReturn(List.of(refused));
+
+        final List<AccountApplication> rejected =
+                Instrumented.accountRepository(accountRepository, registry).saveAll(List.of(saved, refused));
+
+        assertEquals(List.of(refused), rejected);
+        then(accountRepository).should(never()).save(anyString(), anyString(), anyString(), anyString(), any(), any());
+        assertEquals(1, registry.counter("accountRepository.save.rejected").getCount());
+        assertEquals(1, registry.histogram("accountRepository.saveAll").getCount());
+    }
+
+    @Test
+    public void shouldExposeRegistryThroughJmx() throws Exception {
+        registry.histogram("broker.execute").record(2_000_000);
+        registry.counter("broker.execute.true").increment();
+        registry.gauge("queue.depth", () -> 7L);
+        final MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+        final ObjectName name = new JmxMetricsExporter(registry).register("instrumented-test");
+        try {
+            assertEquals(1L, server.getAttribute(name, "broker.execute.count"));
+            assertEquals(2_000L, server.getAttribute(name, "broker.execute.maxMicros"));
+            assertEquals(1L, server.getAttribute(name, "broker.execute.true"));
+            assertEquals(7L, server.getAttribute(name, "queue.depth"));
+        } finally {
+            JmxMetricsExporter.unregister(name);
+        }
+    }
+}
@@ -0,0 +1,48 @@
+package com.pluralsight.pension.metrics;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class LatencyHistogramTest {
+
+    private final LatencyHistogram underTest = new LatencyHistogram();
+
+    @Test
+    public void shouldReportPercentilesWithinBucketPrecision() {
+        for (long i = 1; i <= 10_000; i++) {
+            underTest.record(i * 1_000);
+        }
+
+        assertEquals(10_000, underTest.getCount());
+        assertEquals(10_000_000, underTest.getMax());
+        assertEquals(5_000_000, underTest.getValueAtPercentile(50.0), 80_000);
+        assertEquals(9_900_000, underTest.getValueAtPercentile(99.0), 160_000);
+        assertEquals(10_000_000, underTest.getValueAtPercentile(100.0));
+    }
+
+    @Test
+    public void shouldMapEveryValueIntoABucketThatContainsIt() {
+        final long[] values = {0, 1, 63, 64, 65, 127, 128, 1_000, 123_456_789, Long.MAX_VALUE};
+        for (long value : values) {
+            final int index = LatencyHistogram.indexOf(value);
+            assertTrue(LatencyHistogram.highestValueAt(index) >= value);
+            if (index > 0) {
+                assertTrue(LatencyHistogram.highestValueAt(index - 1) < value);
+            }
+        }
+    }
+
+    @Test
+    public void shouldReturnZeroWhenEmptyAndAfterReset() {
+        assertEquals(0, underTest.getValueAtPercentile(99.0));
+
+        underTest.record(42);
+        underTest.reset();
+
+        assertEquals(0, underTest.getCount());
+        assertEquals(0, underTest.getMax());
+        assertEquals(0, underTest.getValueAtPercentile(50.0));
+    }
+}
@@ -0,0 +1,181 @@
+package com.pluralsight.pension.persistence;
+
+import com.pluralsight.pension.Account;
+import com.pluralsight.pension.InMemoryAccountRepository;
+import com.pluralsight.pension.setup.BackgroundCheckResults;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.math.BigDecimal;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Clock;
+import java.time.LocalDate;
+import java.time.Period;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class JournalingAccountRepositoryTest {
+
+    private static final BackgroundCheckResults OK_RESULTS = new BackgroundCheckResults("LOW", 100);
+    private static final LocalDate DOB = LocalDate.of(1960, 1, 1);
+
+    private final Clock clock = Clock.fixed(LocalDate.of(2020, 8, 26).atStartOfDay(ZoneId.systemDefault()).toInstant(),
+            ZoneId.systemDefault());
+
+    @TempDir
+    Path directory;
+
+    @Test
+    public void shouldRecoverAccountsFromJournalAfterRestart() throws IOException {
+        try (JournalingAccountRepository underTest = open()) {
+            underTest.save("id-1", "John", "Smith", "123", DOB, OK_RESULTS);
+            final Account account = underTest.findById("id-1").orElseThrow();
+            account.setAvailableCash(new BigDecimal("250.75"));
+            account.getInvestments().add("FUND_ID");
+            account.getHoldings().addUnits("FUND_ID", 1_500_000L);
+            account.getHoldings().setValueUnits(1_875L);
+            underTest.save(account);
+        }
+
+        try (JournalingAccountRepository reopened = open()) {
+            final Account recovered = reopened.findById("id-1").orElseThrow();
+            assertEquals("John", recovered.getFistName());
+            assertEquals(new BigDecimal("250.75"), recovered.getAvailableCash());
+            assertEquals(Set.of("FUND_ID"), recovered.getInvestments());
+            assertEquals(1_500_000L, recovered.getHoldings().getUnits("FUND_ID"));
+            assertEquals(1_875L, recovered.getHoldings().getValueUnits());
+            assertEquals(recovered, reopened.findByTaxId("123").orElseThrow());
+        }
+    }
+
+    @Test
+    public void shouldRecoverFromSnapshotPlusJournalTail() throws IOException {
+        try (JournalingAccountRepository underTest = open()) {
+            underTest.save("id-1", "John", "Smith", "123", DOB, OK_RESULTS);
+            underTest.snapshot();
+            underTest.save("id-2", "Jane", "Doe", "456", DOB, OK_RESULTS);
+        }
+        assertTrue(Files.exists(directory.resolve("snapshot-1.bin")));
+
+        try (JournalingAccountRepository reopened = open()) {
+            assertTrue(reopened.findById("id-1").isPresent());
+            assertTrue(reopened.findById("id-2").isPresent());
+        }
+    }
+
+    @Test
+    public void shouldIgnoreTornRecordAtEndOfJournal() throws IOException {
+        try (JournalingAccountRepository underTest = open()) {
+            underTest.save("id-1", "John", "Smith", "123", DOB, OK_RESULTS);
+        }
+        Files.write(directory.resolve("journal-0.log"), new byte[]{0, 0, 0, 42, 1, 2},
+                StandardOpenOption.APPEND);
+
+        try (JournalingAccountRepository reopened = open()) {
+            assertTrue(reopened.findById("id-1").isPresent());
+            reopened.save("id-2", "Jane", "Doe", "456", DOB, OK_RESULTS);
+        }
+        try (JournalingAccountRepository reopened = open()) {
+            assertTrue(reopened.findById("id-2").isPresent());
+        }
+    }
+
+    @Test
+    public void shouldPersistEveryConcurrentSave() throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        try (JournalingAccountRepository underTest = open()) {
+            List<Callable<Boolean>> saves = new ArrayList<>();
+            for (int i = 0; i < 500; i++) {
+                final int n = i;
+                saves.add(() -> underTest.save("id-" + n, "John", "Smith", "tax-" + n, DOB, OK_RESULTS));
+            }
+            for (Future<Boolean> save : executor.invokeAll(saves)) {
+                assertTrue(save.get());
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+
+        try (JournalingAccountRepository reopened = open()) {
+            assertEquals(500, reopened.findByDobBetween(DOB, DOB).size());
+        }
+    }
+
+    @Test
+    public void shouldReplayATaxIdThatMovedBetweenAccounts() throws IOException {
+        try (JournalingAccountRepository underTest = open()) {
+            assertTrue(underTest.save("id-1", "John", "Smith", "tax-1", DOB, OK_RESULTS));
+            final Account moved = underTest.findById("id-1").orElseThrow();
+            moved.setTaxId("tax-9");
+            assertTrue(underTest.save(moved));
+            assertTrue(underTest.save("id-2", "Jane", "Smith", "tax-1", DOB, OK_RESULTS));
+        }
+
+        try (JournalingAccountRepository reopened = open()) {
+            assertEquals("id-2", reopened.findByTaxId("tax-1").orElseThrow().getId());
+            assertEquals("id-1", reopened.findByTaxId("tax-9").orElseThrow().getId());
+        }
+    }
+
+    @Test
+    public void shouldFailWritesAfterCloseWithoutKeepingThemInMemory() throws IOException {
+        final JournalingAccountRepository underTest = open();
+        underTest.close();
+
+        assertThrows(UncheckedIOException.class,
+                () -> underTest.save("id-1", "John", "Smith", "tax-1", DOB, OK_RESULTS));
+        assertFalse(underTest.findById("id-1").isPresent());
+        assertThrows(IOException.class, underTest::snapshot);
+    }
+
+    @Test
+    public void shouldWriteAndReadSnapshotsAcrossMappingWindows() throws IOException {
+        final List<byte[]> records = new ArrayList<>();
+        for (int i = 0; i < 50; i++) {
+            final byte[] record = new byte[1 + i * 7];
+            Arrays.fill(record, (byte) i);
+            records.add(record);
+        }
+
+        AccountSnapshotFile.write(directory, 1, records, 64);
+        final List<byte[]> read = AccountSnapshotFile.read(AccountSnapshotFile.path(directory, 1), 64);
+
+        assertEquals(records.size(), read.size());
+        for (int i = 0; i < records.size(); i++) {
+            assertArrayEquals(records.get(i), read.get(i));
+        }
+    }
+
+    @Test
+    public void shouldEncodeAnAccountWithoutGivingItHoldings() throws IOException {
+        final Account account = new Account();
+        account.setId("id-1");
+
+        final Account decoded = AccountCodec.decode(AccountCodec.encode(account));
+
+        assertNull(account.getHoldingsIfCreated());
+        assertEquals(0, decoded.getHoldings().size());
+    }
+
+    private JournalingAccountRepository open() throws IOException {
+        return new JournalingAccountRepository(directory, new InMemoryAccountRepository(clock, Period.ofYears(1)), null);
+    }
+}
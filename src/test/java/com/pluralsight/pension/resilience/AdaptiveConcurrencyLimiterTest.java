@@ -0,0 +1,179 @@
+package com.pluralsight.pension.resilience;
+
+import com.pluralsight.pension.investment.BrokerClient;
+import com.pluralsight.pension.metrics.DefaultMetricsRegistry;
+import com.pluralsight.pension.metrics.MetricsRegistry;
+import com.pluralsight.pension.setup.BackgroundCheckService;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.BDDMockito.then;
+
+@ExtendWith(MockitoExtension.class)
+class AdaptiveConcurrencyLimiterTest {
+
+    private static final long RTT = TimeUnit.MILLISECONDS.toNanos(5);
+
+    @Mock
+    private BackgroundCheckService backgroundCheckService;
+    @Mock
+    private BrokerClient brokerClient;
+
+    @Test
+    public void shouldGrowWhileSaturatedAndLatencyStaysNearTheBaseline() throws InterruptedException {
+        final AdaptiveConcurrencyLimiter underTest = limiter(4, 0, Duration.ZERO);
+        for (int i = 0; i < 4; i++) {
+            assertTrue(underTest.tryAcquire());
+        }
+
+        // Each completed call is replaced straight away, keeping every permit in use
+        for (int i = 0; i < 100; i++) {
+            underTest.onSuccess(RTT);
+            while (underTest.tryAcquireNow()) {
+                // take up any slot the growth opened
+            }
+        }
+
+        assertTrue(underTest.getLimit() >= 12, "limit " + underTest.getLimit());
+        assertEquals(underTest.getLimit(), underTest.getInFlight());
+    }
+
+    @Test
+    public void shouldNotGrowWhenTheLimitIsNotBeingUsed() throws InterruptedException {
+        final AdaptiveConcurrencyLimiter underTest = limiter(10, 0, Duration.ZERO);
+
+        for (int i = 0; i < 100; i++) {
+            assertTrue(underTest.tryAcquire());
+            underTest.onSuccess(RTT);
+        }
+
+        assertEquals(10, underTest.getLimit());
+    }
+
+    @Test
+    public void shouldBackOffOnDropsAndOnSlowRoundTrips() throws InterruptedException {
+        final AdaptiveConcurrencyLimiter underTest = limiter(20, 0, Duration.ZERO);
+        assertTrue(underTest.tryAcquire());
+        underTest.onSuccess(RTT);
+
+        assertTrue(underTest.tryAcquire());
+        underTest.onDropped();
+        assertEquals(18, underTest.getLimit());
+
+        assertTrue(underTest.tryAcquire());
+        underTest.onSuccess(RTT * 3);
+        assertEquals(16, underTest.getLimit());
+
+        for (int i = 0; i < 100; i++) {
+            assertTrue(underTest.tryAcquire());
+            underTest.onDropped();
+        }
+        assertEquals(2, underTest.getLimit());
+    }
+
+    @Test
+    public void shouldShedOnceTheQueueIsFullOrTheWaitRunsOut() throws InterruptedException {
+        final AdaptiveConcurrencyLimiter noQueue = limiter(2, 0, Duration.ofSeconds(1));
+        assertTrue(noQueue.tryAcquire());
+        assertTrue(noQueue.tryAcquire());
+        assertFalse(noQueue.tryAcquire());
+
+        final AdaptiveConcurrencyLimiter shortWait = limiter(2, 4, Duration.ofMillis(20));
+        assertTrue(shortWait.tryAcquire());
+        assertTrue(shortWait.tryAcquire());
+        assertFalse(shortWait.tryAcquire());
+        assertEquals(1, shortWait.getShedCount());
+        assertEquals(0, shortWait.getQueueDepth());
+    }
+
+    @Test
+    public void shouldHandAFreedSlotToAQueuedCaller() throws Exception {
+        final AdaptiveConcurrencyLimiter underTest = limiter(2, 4, Duration.ofSeconds(10));
+        assertTrue(underTest.tryAcquire());
+        assertTrue(underTest.tryAcquire());
+        final ExecutorService executor = Executors.newSingleThreadExecutor();
+        try {
+            final Future<Boolean> queued = executor.submit(underTest::tryAcquire);
+            while (underTest.getQueueDepth() == 0) {
+                Thread.sleep(1);
+            }
+
+            underTest.onIgnored();
+
+            assertTrue(queued.get(10, TimeUnit.SECONDS));
+            assertEquals(2, underTest.getInFlight());
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    public void shouldExposeLimitAndQueueDepthAsGauges() throws InterruptedException {
+        final AdaptiveConcurrencyLimiter underTest = limiter(3, 0, Duration.ZERO);
+        final MetricsRegistry registry = new DefaultMetricsRegistry();
+        underTest.exportTo(registry, "backgroundCheck.concurrency");
+        assertTrue(underTest.tryAcquire());
+
+        assertEquals(3, registry.getGauges().get("backgroundCheck.concurrency.limit").getAsLong());
+        assertEquals(1, registry.getGauges().get("backgroundCheck.concurrency.inFlight").getAsLong());
+        assertEquals(0, registry.getGauges().get("backgroundCheck.concurrency.queueDepth").getAsLong());
+    }
+
+    @Test
+    public void shouldFailLimitedBackgroundChecksLikeAnUnavailableService() throws Exception {
+        final AdaptiveConcurrencyLimiter limiter = limiter(2, 0, Duration.ZERO);
+        final BackgroundCheckService underTest = ConcurrencyLimited.backgroundCheckService(backgroundCheckService, limiter);
+        final LocalDate dob = LocalDate.of(1980, 1, 1);
+        assertTrue(limiter.tryAcquire());
+        assertTrue(limiter.tryAcquire());
+
+        assertThrows(IOException.class, () -> underTest.confirm("John", "Smith", "123", dob));
+        then(backgroundCheckService).shouldHaveZeroInteractions();
+    }
+
+    @Test
+    public void shouldBackOffWhenTheBrokerFails() throws Exception {
+        final AdaptiveConcurrencyLimiter limiter = limiter(10, 0, Duration.ZERO);
+        final BrokerClient underTest = ConcurrencyLimited.brokerClient(brokerClient, limiter);
+        given(brokerClient.executeInvestmentTransaction("FUND1", BigDecimal.TEN, "BUY"))
+                .willThrow(new IOException("Broker responded with HTTP 503"));
+
+        assertThrows(IOException.class, () -> underTest.executeInvestmentTransaction("FUND1", BigDecimal.TEN, "BUY"));
+
+        assertEquals(9, limiter.getLimit());
+        assertEquals(0, limiter.getInFlight());
+    }
+
+    @Test
+    public void shouldReleaseThePermitWhenTheDependencyThrowsAnError() throws Exception {
+        final AdaptiveConcurrencyLimiter limiter = limiter(10, 0, Duration.ZERO);
+        final BackgroundCheckService underTest = ConcurrencyLimited.backgroundCheckService(backgroundCheckService, limiter);
+        final LocalDate dob = LocalDate.of(1980, 1, 1);
+        given(backgroundCheckService.confirm("John", "Smith", "123", dob)).willThrow(new AssertionError("boom"));
+
+        assertThrows(AssertionError.class, () -> underTest.confirm("John", "Smith", "123", dob));
+
+        assertEquals(0, limiter.getInFlight());
+        assertEquals(10, limiter.getLimit());
+    }
+
+    private static AdaptiveConcurrencyLimiter limiter(int initialLimit, int maxQueueDepth, Duration maxWait) {
+        return new AdaptiveConcurrencyLimiter(initialLimit, 2, 100, maxQueueDepth, maxWait);
+    }
+}
@@ -0,0 +1,119 @@
+package com.pluralsight.pension.resilience;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+
+class CircuitBreakerTest {
+
+    private final MovableClock clock = new MovableClock(Instant.parse("2020-08-26T00:00:00Z"));
+    private final CircuitBreaker underTest = new CircuitBreaker(3, Duration.ofSeconds(10), clock);
+
+    @Test
+    public void shouldOpenAfterConsecutiveFailuresOnly() {
+        final long permit = underTest.tryAcquire();
+        underTest.onFailure(permit);
+        underTest.onFailure(permit);
+        underTest.onSuccess(permit);
+        underTest.onFailure(permit);
+        underTest.onFailure(permit);
+        assertEquals(CircuitBreaker.State.CLOSED, underTest.getState());
+
+        underTest.onFailure(permit);
+
+        assertEquals(CircuitBreaker.State.OPEN, underTest.getState());
+        assertEquals(CircuitBreaker.REJECTED, underTest.tryAcquire());
+        assertEquals(1, underTest.getOpenCount());
+    }
+
+    @Test
+    public void shouldLetOneTrialThroughAfterTheOpenPeriod() {
+        trip();
+        clock.advance(Duration.ofSeconds(10));
+
+        final long trial = underTest.tryAcquire();
+        assertNotEquals(CircuitBreaker.REJECTED, trial);
+        assertEquals(CircuitBreaker.State.HALF_OPEN, underTest.getState());
+        assertEquals(CircuitBreaker.REJECTED, underTest.tryAcquire());
+
+        underTest.onFailure(trial);
+        assertEquals(CircuitBreaker.State.OPEN, underTest.getState());
+
+        clock.advance(Duration.ofSeconds(10));
+        final long secondTrial = underTest.tryAcquire();
+        underTest.onSuccess(secondTrial);
+        assertEquals(CircuitBreaker.State.CLOSED, underTest.getState());
+        assertNotEquals(CircuitBreaker.REJECTED, underTest.tryAcquire());
+    }
+
+    @Test
+    public void shouldIgnoreOutcomesOfCallsAdmittedBeforeTheBreakerTripped() {
+        final long stale = underTest.tryAcquire();
+        trip();
+
+        underTest.onSuccess(stale);
+        assertEquals(CircuitBreaker.State.OPEN, underTest.getState());
+
+        clock.advance(Duration.ofSeconds(10));
+        final long trial = underTest.tryAcquire();
+        underTest.onFailure(stale);
+        assertEquals(CircuitBreaker.State.HALF_OPEN, underTest.getState());
+        assertEquals(CircuitBreaker.REJECTED, underTest.tryAcquire());
+
+        underTest.onSuccess(trial);
+        assertEquals(CircuitBreaker.State.CLOSED, underTest.getState());
+    }
+
+    @Test
+    public void shouldLetAnotherCallerTryWhenTheTrialIsAbandoned() {
+        trip();
+        clock.advance(Duration.ofSeconds(10));
+        final long trial = underTest.tryAcquire();
+
+        underTest.onIgnored(trial);
+
+        assertNotEquals(CircuitBreaker.REJECTED, underTest.tryAcquire());
+        assertEquals(CircuitBreaker.State.HALF_OPEN, underTest.getState());
+    }
+
+    private void trip() {
+        for (int i = 0; i < 3; i++) {
+            underTest.onFailure(underTest.tryAcquire());
+        }
+        assertEquals(CircuitBreaker.State.OPEN, underTest.getState());
+    }
+
+    private static class MovableClock extends Clock {
+        private Instant now;
+
+        MovableClock(Instant now) {
+            this.now = now;
+        }
+
+        void advance(Duration duration) {
+            now = now.plus(duration);
+        }
+
+        @Override
+        public ZoneId getZone() {
+            return ZoneOffset.UTC;
+        }
+
+        @Override
+        public Clock withZone(ZoneId zone) {
+            return this;
+        }
+
+        @Override
+        public Instant instant() {
+            return now;
+        }
+    }
+}
@@ -1,6 +1,7 @@
 package com.pluralsight.pension.setup;
 
 import com.pluralsight.pension.AccountRepository;
+import com.pluralsight.pension.BlockingServiceAdapter;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.mockito.ArgumentCaptor;
@@ -124,4 +125,33 @@ class AccountOpeningServiceTest {
         doThrow(new RuntimeException()).when(accountOpeningEventPublisher).notify(accountId);
         assertThrows(RuntimeException.class, () -> underTest.openAccount(FIRST_NAME, LAST_NAME, TAX_ID, DOB));
     }
+
+    @Test
+    public void shouldOpenAccountAsynchronouslyThroughBlockingAdapter() throws Exception {
+        final BackgroundCheckResults backgroundCheckResults = new BackgroundCheckResults("something_not_unacceptable", 100);
+        when(backgroundCheckService.confirm(FIRST_NAME, LAST_NAME, TAX_ID, DOB))
+                .thenReturn(backgroundCheckResults);
+        when(referenceIdsManager.obtainId(eq(FIRST_NAME), anyString(), eq(LAST_NAME), eq(TAX_ID), eq(DOB)))
+                .thenReturn(ACCOUNT_ID);
+        try (BlockingServiceAdapter adapter = new BlockingServiceAdapter(2, 10)) {
+            final AccountOpeningService asyncService = new AccountOpeningService(
+                    adapter.backgroundCheckService(backgroundCheckService),
+                    adapter.referenceIdsManager(referenceIdsManager),
+                    adapter.accountRepository(accountRepository),
+                    accountOpeningEventPublisher);
+
+            assertEquals(AccountOpeningStatus.OPENED,
+                    asyncService.openAccountAsync(FIRST_NAME, LAST_NAME, TAX_ID, DOB).get());
+        }
+        then(accountRepository).should().save(ACCOUNT_ID, FIRST_NAME, LAST_NAME, TAX_ID, DOB, backgroundCheckResults);
+        then(accountOpeningEventPublisher).should().notify(ACCOUNT_ID);
+    }
+
+    @Test
+    public void shouldCompleteExceptionallyIfAsyncBackgroundCheckFails() throws IOException {
+        when(backgroundCheckService.confirm(FIRST_NAME, LAST_NAME, TAX_ID, DOB))
+                .thenThrow(new IOException());
+        assertThrows(IOException.class,
+                () -> BlockingServiceAdapter.await(underTest.openAccountAsync(FIRST_NAME, LAST_NAME, TAX_ID, DOB)));
+    }
 }
@@ -0,0 +1,222 @@
+package com.pluralsight.pension.setup;
+
+import com.pluralsight.pension.Account;
+import com.pluralsight.pension.AccountRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.BDDMockito.then;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.lenient;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+
+@ExtendWith(MockitoExtension.class)
+class ApplicantFileImporterTest {
+
+    private static final BackgroundCheckResults OK_RESULTS = new BackgroundCheckResults("LOW", 100);
+    private static final BackgroundCheckResults DECLINED_RESULTS = new BackgroundCheckResults("HIGH", 100);
+
+    @TempDir
+    Path directory;
+
+    @Mock
+    private BackgroundCheckService backgroundCheckService;
+    @Mock
+    private ReferenceIdsManager referenceIdsManager;
+    @Mock
+    private AccountRepository accountRepository;
+    @Mock
+    private AccountOpeningEventPublisher eventPublisher;
+
+    private BulkAccountOpeningService bulkAccountOpeningService;
+    private ApplicantFileImporter underTest;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        lenient().when(backgroundCheckService.confirm(anyString(), anyString(), anyString(), any(LocalDate.class)))
+                .thenAnswer(invocation -> "DECLINE".equals(invocation.getArgument(2)) ? DECLINED_RESULTS : OK_RESULTS);
+        lenient().when(referenceIdsManager.obtainId(anyString(), anyString(), anyString(), anyString(),
+                any(LocalDate.class))).thenAnswer(invocation -> "id-" + invocation.getArgument(3));
+        bulkAccountOpeningService = new BulkAccountOpeningService(backgroundCheckService, referenceIdsManager,
+                accountRepository, eventPublisher, 4);
+        underTest = new ApplicantFileImporter(bulkAccountOpeningService, 10);
+    }
+
+    @AfterEach
+    void tearDown() {
+        bulkAccountOpeningService.close();
+    }
+
+    @Test
+    public void shouldImportCsvWritingOneResultPerRecord() throws Exception {
+        final Path source = writeCsv(25, 7);
+
+        final ApplicantImportResult result = underTest.importFile(source, directory.resolve("results.csv"),
+                directory.resolve("import.checkpoint"));
+
+        assertEquals(25, result.getProcessedCount());
+        assertEquals(24, result.getOpenedCount());
+        assertEquals(1, result.getDeclinedCount());
+        final List<String> lines = Files.readAllLines(directory.resolve("results.csv"));
+        assertEquals(25, lines.size());
+        assertEquals("7,DECLINED", lines.get(7));
+        assertEquals("24,OPENED", lines.get(24));
+        then(accountRepository).should(times(3)).saveAll(any());
+    }
+
+    @Test
+    public void shouldResumeFromCheckpointAfterAFailure() throws Exception {
+        final Path source = writeCsv(25, -1);
+        final Path results = directory.resolve("results.csv");
+        final Path checkpoint = directory.resolve("import.checkpoint");
+        given(accountRepository.saveAll(any())).willReturn(List.of())
+                .willThrow(new IllegalStateException("database unavailable"))
+                .willReturn(List.of());
+
+        assertThrows(IllegalStateException.class, () -> underTest.importFile(source, results, checkpoint));
+        assertEquals(10, Files.readAllLines(results).size());
+
+        final ApplicantImportResult result = underTest.importFile(source, results, checkpoint);
+        assertEquals(10, result.getResumedFrom());
+        assertEquals(15, result.getProcessedCount());
+
+        final ApplicantImportResult resumed = underTest.importFile(source, results, checkpoint);
+        assertEquals(25, resumed.getResumedFrom());
+        assertEquals(0, resumed.getProcessedCount());
+        final List<String> lines = Files.readAllLines(results);
+        assertEquals(25, lines.size());
+        for (int i = 0; i < lines.size(); i++) {
+            assertEquals(i + ",OPENED", lines.get(i));
+        }
+    }
+
+    @Test
+    public void shouldNotReopenApplicantsSavedBeforeTheCheckpointWasWritten() throws Exception {
+        final Path source = writeCsv(25, -1);
+        final Path results = directory.resolve("results.csv");
+        final Path checkpoint = directory.resolve("import.checkpoint");
+        final Set<String> saved = ConcurrentHashMap.newKeySet();
+        final AtomicBoolean crashed = new AtomicBoolean();
+        given(accountRepository.findByTaxId(anyString())).willAnswer(invocation ->
+                saved.contains(invocation.<String>getArgument(0)) ? Optional.of(new Account()) : Optional.empty());
+        doAnswer(invocation -> {
+            for (AccountApplication application : invocation.<Collection<AccountApplication>>getArgument(0)) {
+                saved.add(application.getApplicant().getTaxId());
+            }
+            if (saved.contains("TAX10") && crashed.compareAndSet(false, true)) {
+                throw new IllegalStateException("crashed before the checkpoint");
+            }
+            return List.of();
+        }).when(accountRepository).saveAll(any());
+
+        assertThrows(IllegalStateException.class, () -> underTest.importFile(source, results, checkpoint));
+        final ApplicantImportResult result = underTest.importFile(source, results, checkpoint);
+
+        assertEquals(10, result.getResumedFrom());
+        assertEquals(15, result.getOpenedCount());
+        then(referenceIdsManager).should(times(1)).obtainId(anyString(), anyString(), anyString(), eq("TAX10"),
+                any(LocalDate.class));
+        then(referenceIdsManager).should(times(1)).obtainId(anyString(), anyString(), anyString(), eq("TAX24"),
+                any(LocalDate.class));
+        final List<String> lines = Files.readAllLines(results);
+        assertEquals(25, lines.size());
+        assertEquals("10,OPENED", lines.get(10));
+    }
+
+    @Test
+    public void shouldOpenEveryChunkAlikeOnAFreshImport() throws Exception {
+        final Path source = writeCsv(25, -1);
+        // TAX3 and TAX13 already belong to members, so the repository rejects them wherever they land
+        given(accountRepository.saveAll(any())).willAnswer(invocation -> {
+            final List<AccountApplication> rejected = new ArrayList<>();
+            for (AccountApplication application : invocation.<Collection<AccountApplication>>getArgument(0)) {
+                final String taxId = application.getApplicant().getTaxId();
+                if (taxId.equals("TAX3") || taxId.equals("TAX13")) {
+                    rejected.add(application);
+                }
+            }
+            return rejected;
+        });
+
+        final ApplicantImportResult result = underTest.importFile(source, directory.resolve("results.csv"),
+                directory.resolve("import.checkpoint"));
+
+        assertEquals(23, result.getOpenedCount());
+        final List<String> lines = Files.readAllLines(directory.resolve("results.csv"));
+        assertEquals("3,DECLINED", lines.get(3));
+        assertEquals("13,DECLINED", lines.get(13));
+        then(accountRepository).should(never()).findByTaxId(anyString());
+    }
+
+    @Test
+    public void shouldFailTheImportWhenTheReaderThrowsUnexpectedly() {
+        final ApplicantReader reader = new ApplicantReader() {
+            @Override
+            public Applicant read() {
+                throw new IllegalStateException("malformed record");
+            }
+
+            @Override
+            public void close() {
+            }
+        };
+
+        final IOException failure = assertThrows(IOException.class, () -> underTest.importFrom(reader,
+                directory.resolve("results.csv"), directory.resolve("import.checkpoint")));
+
+        assertTrue(failure.getCause() instanceof IllegalStateException);
+    }
+
+    @Test
+    public void shouldStreamJsonIgnoringUnknownFields() throws Exception {
+        final Path source = directory.resolve("applicants.json");
+        Files.write(source, ("[{\"firstName\":\"John\",\"lastName\":\"Smith\",\"taxId\":\"T1\",\"dob\":\"1980-01-01\","
+                + "\"address\":{\"city\":\"Leeds\"}},"
+                + "{\"taxId\":\"DECLINE\",\"dob\":\"1981-02-03\",\"firstName\":\"Jane\",\"lastName\":\"Doe\"}]")
+                .getBytes(StandardCharsets.UTF_8));
+
+        final ApplicantImportResult result = underTest.importFile(source, directory.resolve("results.csv"),
+                directory.resolve("import.checkpoint"));
+
+        assertEquals(2, result.getProcessedCount());
+        assertEquals(1, result.getOpenedCount());
+        then(backgroundCheckService).should().confirm("Jane", "Doe", "DECLINE", LocalDate.of(1981, 2, 3));
+    }
+
+    private Path writeCsv(int count, int declinedIndex) throws IOException {
+        final List<String> lines = new ArrayList<>();
+        lines.add("firstName,lastName,taxId,dob");
+        for (int i = 0; i < count; i++) {
+            lines.add("First" + i + ",Last" + i + "," + (i == declinedIndex ? "DECLINE" : "TAX" + i) + ",1980-01-01");
+        }
+        final Path source = directory.resolve("applicants.csv");
+        Files.write(source, lines);
+        return source;
+    }
+}
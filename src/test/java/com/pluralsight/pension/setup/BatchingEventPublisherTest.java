@@ -0,0 +1,146 @@
+package com.pluralsight.pension.setup;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class BatchingEventPublisherTest {
+
+    private static final int EVENTS = 1_000;
+
+    @TempDir
+    Path directory;
+
+    private final RecordingPublisher downstream = new RecordingPublisher();
+
+    @Test
+    public void shouldDeliverEveryEventInBatchesBeforeClosing() throws IOException {
+        BatchingEventPublisher underTest = new BatchingEventPublisher(downstream, 64, 16,
+                BatchingEventPublisher.BackpressurePolicy.BLOCK);
+        publishConcurrently(underTest);
+        underTest.close();
+
+        assertEquals(EVENTS, downstream.received.size());
+        assertEquals(EVENTS, new HashSet<>(downstream.received).size());
+        assertTrue(downstream.largestBatch <= 16);
+        assertThrows(IllegalStateException.class, () -> underTest.notify("late"));
+    }
+
+    @Test
+    public void shouldRejectANullAccountId() throws IOException {
+        BatchingEventPublisher underTest = new BatchingEventPublisher(downstream, 8, 4,
+                BatchingEventPublisher.BackpressurePolicy.BLOCK);
+
+        assertThrows(NullPointerException.class, () -> underTest.notify(null));
+        underTest.notify("id-1");
+        underTest.close();
+
+        assertEquals(List.of("id-1"), downstream.received);
+    }
+
+    @Test
+    public void shouldCountDroppedEventsWhenConsumerFallsBehind() throws IOException {
+        downstream.hold = new CountDownLatch(1);
+        BatchingEventPublisher underTest = new BatchingEventPublisher(downstream, 8, 4,
+                BatchingEventPublisher.BackpressurePolicy.DROP);
+        for (int i = 0; i < EVENTS; i++) {
+            underTest.notify("id-" + i);
+        }
+        downstream.hold.countDown();
+        underTest.close();
+
+        assertTrue(underTest.getDroppedCount() > 0);
+        assertEquals(EVENTS, underTest.getDroppedCount() + underTest.getDeliveredCount());
+    }
+
+    @Test
+    public void shouldSpillOverflowToDiskAndDeliverItLater() throws IOException {
+        downstream.hold = new CountDownLatch(1);
+        BatchingEventPublisher underTest = new BatchingEventPublisher(downstream, 8, 4,
+                BatchingEventPublisher.BackpressurePolicy.SPILL_TO_DISK, directory.resolve("events.spill"));
+        for (int i = 0; i < EVENTS; i++) {
+            underTest.notify("id-" + i);
+        }
+        downstream.hold.countDown();
+        underTest.close();
+
+        assertTrue(underTest.getSpilledCount() > 0);
+        assertEquals(EVENTS, new HashSet<>(downstream.received).size());
+    }
+
+    @Test
+    public void shouldFailBlockedProducersOnceTheConsumerDies() throws IOException {
+        downstream.failure = new AssertionError("downstream broke");
+        BatchingEventPublisher underTest = new BatchingEventPublisher(downstream, 8, 4,
+                BatchingEventPublisher.BackpressurePolicy.BLOCK);
+
+        IllegalStateException failure = assertThrows(IllegalStateException.class, () -> {
+            for (int i = 0; i < EVENTS; i++) {
+                underTest.notify("id-" + i);
+            }
+        });
+
+        assertTrue(failure.getCause() instanceof AssertionError);
+        assertTrue(underTest.getConsumerFailure() instanceof AssertionError);
+        underTest.close();
+    }
+
+    private static void publishConcurrently(BatchingEventPublisher publisher) {
+        List<Thread> producers = new ArrayList<>();
+        for (int t = 0; t < 4; t++) {
+            final int offset = t * (EVENTS / 4);
+            Thread producer = new Thread(() -> {
+                for (int i = 0; i < EVENTS / 4; i++) {
+                    publisher.notify("id-" + (offset + i));
+                }
+            });
+            producers.add(producer);
+            producer.start();
+        }
+        for (Thread producer : producers) {
+            try {
+                producer.join();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+
+    private static class RecordingPublisher implements AccountOpeningEventPublisher {
+        private final List<String> received = Collections.synchronizedList(new ArrayList<>());
+        private volatile CountDownLatch hold = new CountDownLatch(0);
+        private volatile int largestBatch;
+        private volatile Error failure;
+
+        @Override
+        public void notify(String accountId) {
+            notifyBatch(List.of(accountId));
+        }
+
+        @Override
+        public void notifyBatch(List<String> accountIds) {
+            try {
+                hold.await(5, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            if (failure != null) {
+                throw failure;
+            }
+            largestBatch = Math.max(largestBatch, accountIds.size());
+            received.addAll(accountIds);
+        }
+    }
+}
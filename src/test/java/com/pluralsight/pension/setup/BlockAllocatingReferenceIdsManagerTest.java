@@ -0,0 +1,106 @@
+package com.pluralsight.pension.setup;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class BlockAllocatingReferenceIdsManagerTest {
+
+    private static final LocalDate DOB = LocalDate.of(1990, 1, 1);
+
+    @TempDir
+    Path directory;
+
+    private final AtomicLong authorityCounter = new AtomicLong();
+    private final IdRangeAuthority authority = blockSize -> authorityCounter.getAndAdd(blockSize);
+
+    @Test
+    public void shouldHandOutUniqueIdsWithOneLeasePerBlock() throws Exception {
+        final Set<String> ids = ConcurrentHashMap.newKeySet();
+        final ExecutorService executor = Executors.newFixedThreadPool(8);
+        try (BlockAllocatingReferenceIdsManager underTest =
+                     new BlockAllocatingReferenceIdsManager(authority, 1_000, directory.resolve("ids.hwm"))) {
+            final List<Future<?>> futures = new ArrayList<>();
+            for (int t = 0; t < 8; t++) {
+                futures.add(executor.submit(() -> {
+                    for (int i = 0; i < 5_000; i++) {
+                        ids.add(underTest.obtainId("John", "", "Smith", "123XYZ9", DOB));
+                    }
+                }));
+            }
+            for (Future<?> future : futures) {
+                future.get();
+            }
+
+            assertEquals(40_000, ids.size());
+            // forty blocks consumed, plus at most one prefetched in advance
+            assertTrue(underTest.getLeaseCount() >= 40 && underTest.getLeaseCount() <= 41);
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    public void shouldNeverReuseIdsAfterRestartEvenIfAuthorityForgets() throws IOException {
+        final Path highWaterMarkFile = directory.resolve("ids.hwm");
+        long lastIssued;
+        try (BlockAllocatingReferenceIdsManager underTest =
+                     new BlockAllocatingReferenceIdsManager(authority, 100, highWaterMarkFile)) {
+            String id = null;
+            for (int i = 0; i < 150; i++) {
+                id = underTest.obtainId("John", "", "Smith", "123XYZ9", DOB);
+            }
+            lastIssued = Long.parseLong(id);
+        }
+
+        authorityCounter.set(0);
+        try (BlockAllocatingReferenceIdsManager underTest =
+                     new BlockAllocatingReferenceIdsManager(authority, 100, highWaterMarkFile)) {
+            final long first = Long.parseLong(underTest.obtainId("John", "", "Smith", "123XYZ9", DOB));
+
+            assertTrue(first > lastIssued);
+            assertEquals(underTest.getHighWaterMark(), first + 100);
+        }
+    }
+
+    @Test
+    public void shouldPrefetchFromABlockTruncatedPastItsPrefetchPoint() throws Exception {
+        final Path highWaterMarkFile = directory.resolve("ids.hwm");
+        Files.write(highWaterMarkFile, "90".getBytes(StandardCharsets.US_ASCII));
+        final CountDownLatch secondLease = new CountDownLatch(2);
+        final IdRangeAuthority countingAuthority = blockSize -> {
+            secondLease.countDown();
+            return authorityCounter.getAndAdd(blockSize);
+        };
+        // The first block is [90, 100) against a prefetch point of 75, so no id lands exactly on it
+        try (BlockAllocatingReferenceIdsManager underTest =
+                     new BlockAllocatingReferenceIdsManager(countingAuthority, 100, highWaterMarkFile)) {
+            assertEquals("90", underTest.obtainId("John", "", "Smith", "123XYZ9", DOB));
+
+            assertTrue(secondLease.await(5, TimeUnit.SECONDS), "next block was never prefetched");
+            for (int i = 91; i < 100; i++) {
+                underTest.obtainId("John", "", "Smith", "123XYZ9", DOB);
+            }
+            assertEquals("100", underTest.obtainId("John", "", "Smith", "123XYZ9", DOB));
+            assertEquals(2, underTest.getLeaseCount());
+        }
+    }
+}
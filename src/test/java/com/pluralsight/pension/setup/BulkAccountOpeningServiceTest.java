@@ -0,0 +1,112 @@
+package com.pluralsight.pension.setup;
+
+import com.pluralsight.pension.AccountRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.io.IOException;
+import java.time.LocalDate;
+import java.util.Collection;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.BDDMockito.then;
+
+@ExtendWith(MockitoExtension.class)
+class BulkAccountOpeningServiceTest {
+
+    private static final LocalDate DOB = LocalDate.of(1990, 1, 1);
+    private static final Applicant ACCEPTED = new Applicant("John", "Smith", "123xyz9", DOB);
+    private static final Applicant HIGH_RISK = new Applicant("Jane", "Doe", "456abc1", DOB);
+    private static final Applicant UNREACHABLE = new Applicant("Jim", "Brown", "789def2", DOB);
+
+    @Mock
+    private BackgroundCheckService backgroundCheckService;
+    @Mock
+    private ReferenceIdsManager referenceIdsManager;
+    @Mock
+    private AccountRepository accountRepository;
+    @Mock
+    private AccountOpeningEventPublisher eventPublisher;
+    private BulkAccountOpeningService underTest;
+
+    @BeforeEach
+    void setUp() {
+        underTest = new BulkAccountOpeningService(backgroundCheckService, referenceIdsManager,
+                accountRepository, eventPublisher, 4);
+    }
+
+    @AfterEach
+    void tearDown() {
+        underTest.close();
+    }
+
+    @Test
+    public void shouldReportStatusPerApplicantAndSaveApprovedAccountsInBulk() throws Exception {
+        given(backgroundCheckService.confirm("John", "Smith", "123xyz9", DOB))
+                .willReturn(new BackgroundCheckResults("LOW", 100));
+        given(backgroundCheckService.confirm("Jane", "Doe", "456abc1", DOB))
+                .willReturn(new BackgroundCheckResults(AccountOpeningService.UNACCEPTABLE_RISK_PROFILE, 0));
+        given(backgroundCheckService.confirm("Jim", "Brown", "789def2", DOB))
+                .willThrow(new IOException());
+        given(referenceIdsManager.obtainId(eq("John"), anyString(), eq("Smith"), eq("123xyz9"), eq(DOB)))
+                .willReturn("id-1");
+
+        final BulkAccountOpeningResult result = underTest.openAccounts(List.of(ACCEPTED, HIGH_RISK, UNREACHABLE));
+
+        assertEquals(List.of(AccountOpeningStatus.OPENED, AccountOpeningStatus.DECLINED, AccountOpeningStatus.DECLINED),
+                result.getStatuses());
+        assertEquals(1, result.getOpenedCount());
+        assertEquals(2, result.getDeclinedCount());
+        assertEquals(1, result.getFailedCount());
+
+        @SuppressWarnings("unchecked")
+        ArgumentCaptor<Collection<AccountApplication>> saved = ArgumentCaptor.forClass(Collection.class);
+        then(accountRepository).should().saveAll(saved.capture());
+        assertEquals(1, saved.getValue().size());
+        assertEquals(ACCEPTED, saved.getValue().iterator().next().getApplicant());
+        then(eventPublisher).should().notifyBatch(List.of("id-1"));
+    }
+
+    @Test
+    public void shouldDeclineApplicantsWhoseSaveIsRejected() throws Exception {
+        final Applicant duplicate = new Applicant("Johnny", "Smith", "123xyz9", DOB);
+        given(backgroundCheckService.confirm(anyString(), eq("Smith"), eq("123xyz9"), eq(DOB)))
+                .willReturn(new BackgroundCheckResults("LOW", 100));
+        given(referenceIdsManager.obtainId(eq("John"), anyString(), eq("Smith"), eq("123xyz9"), eq(DOB)))
+                .willReturn("id-1");
+        given(referenceIdsManager.obtainId(eq("Johnny"), anyString(), eq("Smith"), eq("123xyz9"), eq(DOB)))
+                .willReturn("id-2");
+        given(accountRepository.saveAll(any())).willAnswer(invocation -> {
+            final List<AccountApplication> applications = List.copyOf(invocation.getArgument(0));
+            return applications.subList(1, applications.size());
+        });
+
+        final BulkAccountOpeningResult result = underTest.openAccounts(List.of(ACCEPTED, duplicate));
+
+        assertEquals(List.of(AccountOpeningStatus.OPENED, AccountOpeningStatus.DECLINED), result.getStatuses());
+        assertEquals(1, result.getOpenedCount());
+        assertEquals(0, result.getFailedCount());
+        then(eventPublisher).should().notifyBatch(List.of("id-1"));
+    }
+
+    @Test
+    public void shouldNotTouchRepositoryWhenEveryApplicantIsDeclined() throws Exception {
+        given(backgroundCheckService.confirm("John", "Smith", "123xyz9", DOB)).willReturn(null);
+
+        final BulkAccountOpeningResult result = underTest.openAccounts(List.of(ACCEPTED));
+
+        assertEquals(0, result.getOpenedCount());
+        then(accountRepository).shouldHaveZeroInteractions();
+        then(eventPublisher).shouldHaveZeroInteractions();
+    }
+}
@@ -0,0 +1,176 @@
+package com.pluralsight.pension.setup;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.io.IOException;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.BDDMockito.then;
+import static org.mockito.Mockito.times;
+
+@ExtendWith(MockitoExtension.class)
+class CachingBackgroundCheckServiceTest {
+
+    private static final String FIRST_NAME = "John";
+    private static final String LAST_NAME = "Smith";
+    private static final String TAX_ID = "123xyz9";
+    private static final LocalDate DOB = LocalDate.of(1990, 1, 1);
+
+    @Mock
+    private BackgroundCheckService backgroundCheckService;
+    private final MovableClock clock = new MovableClock(Instant.parse("2020-08-26T00:00:00Z"));
+
+    @Test
+    public void shouldServeRepeatedLookupsFromCacheUntilTheyExpire() throws IOException {
+        final BackgroundCheckResults results = new BackgroundCheckResults("LOW", 100);
+        given(backgroundCheckService.confirm(FIRST_NAME, LAST_NAME, TAX_ID, DOB)).willReturn(results);
+        CachingBackgroundCheckService underTest =
+                new CachingBackgroundCheckService(backgroundCheckService, 10, Duration.ofMinutes(5), clock);
+
+        assertSame(results, underTest.confirm(FIRST_NAME, LAST_NAME, TAX_ID, DOB));
+        assertSame(results, underTest.confirm(FIRST_NAME, LAST_NAME, TAX_ID, DOB));
+        clock.advance(Duration.ofMinutes(5));
+        assertSame(results, underTest.confirm(FIRST_NAME, LAST_NAME, TAX_ID, DOB));
+
+        then(backgroundCheckService).should(times(2)).confirm(FIRST_NAME, LAST_NAME, TAX_ID, DOB);
+        assertEquals(1, underTest.getHitCount());
+        assertEquals(2, underTest.getMissCount());
+    }
+
+    @Test
+    public void shouldNotCachePendingAnswers() throws IOException {
+        given(backgroundCheckService.confirm(FIRST_NAME, LAST_NAME, TAX_ID, DOB)).willReturn(null);
+        CachingBackgroundCheckService underTest =
+                new CachingBackgroundCheckService(backgroundCheckService, 10, Duration.ofMinutes(5), clock);
+
+        assertNull(underTest.confirm(FIRST_NAME, LAST_NAME, TAX_ID, DOB));
+        assertNull(underTest.confirm(FIRST_NAME, LAST_NAME, TAX_ID, DOB));
+
+        then(backgroundCheckService).should(times(2)).confirm(FIRST_NAME, LAST_NAME, TAX_ID, DOB);
+        assertEquals(0, underTest.size());
+    }
+
+    @Test
+    public void shouldEvictLeastRecentlyUsedEntryWhenFull() throws IOException {
+        given(backgroundCheckService.confirm(FIRST_NAME, LAST_NAME, "1", DOB)).willReturn(new BackgroundCheckResults("LOW", 1));
+        given(backgroundCheckService.confirm(FIRST_NAME, LAST_NAME, "2", DOB)).willReturn(new BackgroundCheckResults("LOW", 2));
+        given(backgroundCheckService.confirm(FIRST_NAME, LAST_NAME, "3", DOB)).willReturn(new BackgroundCheckResults("LOW", 3));
+        CachingBackgroundCheckService underTest =
+                new CachingBackgroundCheckService(backgroundCheckService, 2, Duration.ofMinutes(5), clock);
+
+        underTest.confirm(FIRST_NAME, LAST_NAME, "1", DOB);
+        underTest.confirm(FIRST_NAME, LAST_NAME, "2", DOB);
+        underTest.confirm(FIRST_NAME, LAST_NAME, "1", DOB);
+        underTest.confirm(FIRST_NAME, LAST_NAME, "3", DOB);
+        underTest.confirm(FIRST_NAME, LAST_NAME, "1", DOB);
+
+        assertEquals(1, underTest.getEvictionCount());
+        then(backgroundCheckService).should(times(1)).confirm(FIRST_NAME, LAST_NAME, "1", DOB);
+    }
+
+    @Test
+    public void shouldShareOneCallBetweenConcurrentIdenticalLookups() throws Exception {
+        final CountDownLatch callStarted = new CountDownLatch(1);
+        final CountDownLatch release = new CountDownLatch(1);
+        final BackgroundCheckResults results = new BackgroundCheckResults("LOW", 100);
+        given(backgroundCheckService.confirm(FIRST_NAME, LAST_NAME, TAX_ID, DOB)).willAnswer(invocation -> {
+            callStarted.countDown();
+            release.await(5, TimeUnit.SECONDS);
+            return results;
+        });
+        CachingBackgroundCheckService underTest =
+                new CachingBackgroundCheckService(backgroundCheckService, 10, Duration.ofMinutes(5), clock);
+
+        CompletableFuture<BackgroundCheckResults> first = CompletableFuture.supplyAsync(() -> confirm(underTest));
+        callStarted.await(5, TimeUnit.SECONDS);
+        CompletableFuture<BackgroundCheckResults> second = CompletableFuture.supplyAsync(() -> confirm(underTest));
+        while (underTest.getCoalescedCount() == 0) {
+            Thread.onSpinWait();
+        }
+        release.countDown();
+
+        assertSame(results, first.get(5, TimeUnit.SECONDS));
+        assertSame(results, second.get(5, TimeUnit.SECONDS));
+        then(backgroundCheckService).should(times(1)).confirm(FIRST_NAME, LAST_NAME, TAX_ID, DOB);
+    }
+
+    @Test
+    public void shouldReleaseCoalescedLookupsWhenTheSharedCallThrowsAnError() throws Exception {
+        final CountDownLatch callStarted = new CountDownLatch(1);
+        final CountDownLatch release = new CountDownLatch(1);
+        given(backgroundCheckService.confirm(FIRST_NAME, LAST_NAME, TAX_ID, DOB)).willAnswer(invocation -> {
+            callStarted.countDown();
+            release.await(5, TimeUnit.SECONDS);
+            throw new AssertionError("check failed");
+        });
+        CachingBackgroundCheckService underTest =
+                new CachingBackgroundCheckService(backgroundCheckService, 10, Duration.ofMinutes(5), clock);
+
+        CompletableFuture<BackgroundCheckResults> first = CompletableFuture.supplyAsync(() -> confirm(underTest));
+        callStarted.await(5, TimeUnit.SECONDS);
+        CompletableFuture<BackgroundCheckResults> second = CompletableFuture.supplyAsync(() -> confirm(underTest));
+        while (underTest.getCoalescedCount() == 0) {
+            Thread.onSpinWait();
+        }
+        release.countDown();
+
+        ExecutionException firstFailure = assertThrows(ExecutionException.class, () -> first.get(5, TimeUnit.SECONDS));
+        ExecutionException secondFailure = assertThrows(ExecutionException.class,
+                () -> second.get(5, TimeUnit.SECONDS));
+        assertTrue(firstFailure.getCause() instanceof AssertionError);
+        assertTrue(secondFailure.getCause() instanceof AssertionError);
+    }
+
+    private static BackgroundCheckResults confirm(CachingBackgroundCheckService underTest) {
+        try {
+            return underTest.confirm(FIRST_NAME, LAST_NAME, TAX_ID, DOB);
+        } catch (IOException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static class MovableClock extends Clock {
+        private Instant now;
+
+        MovableClock(Instant now) {
+            this.now = now;
+        }
+
+        void advance(Duration duration) {
+            now = now.plus(duration);
+        }
+
+        @Override
+        public ZoneId getZone() {
+            return ZoneOffset.UTC;
+        }
+
+        @Override
+        public Clock withZone(ZoneId zone) {
+            return this;
+        }
+
+        @Override
+        public Instant instant() {
+            return now;
+        }
+    }
+}
@@ -0,0 +1,134 @@
+package com.pluralsight.pension.setup;
+
+import com.pluralsight.pension.metrics.DefaultMetricsRegistry;
+import com.pluralsight.pension.metrics.MetricsRegistry;
+import com.pluralsight.pension.resilience.CircuitBreaker;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ResilientBackgroundCheckServiceTest {
+
+    private static final String FIRST_NAME = "John";
+    private static final String LAST_NAME = "Smith";
+    private static final String TAX_ID = "123XYZ9";
+    private static final LocalDate DOB = LocalDate.of(1990, 1, 1);
+    private static final BackgroundCheckResults RESULTS = new BackgroundCheckResults("LOW", 100);
+
+    private final MetricsRegistry registry = new DefaultMetricsRegistry();
+    private final AtomicInteger calls = new AtomicInteger();
+    private volatile long slowCallMillis;
+    private volatile int slowCall = -1;
+    private volatile boolean failing;
+
+    private final BackgroundCheckService delegate = (firstName, lastName, taxId, dob) -> {
+        final int call = calls.getAndIncrement();
+        if (failing) {
+            throw new IOException("dependency down");
+        }
+        if (call == slowCall || slowCall == Integer.MAX_VALUE) {
+            try {
+                TimeUnit.MILLISECONDS.sleep(slowCallMillis);
+            } catch (InterruptedException e) {
+                throw new IOException("cancelled");
+            }
+        }
+        return RESULTS;
+    };
+
+    private ResilientBackgroundCheckService underTest;
+
+    @AfterEach
+    void tearDown() {
+        underTest.close();
+    }
+
+    @Test
+    public void shouldHedgeASlowCallAndReturnTheFasterAnswer() throws IOException {
+        underTest = create(Duration.ofSeconds(5), new CircuitBreaker(5, Duration.ofSeconds(30), Clock.systemUTC()));
+        for (int i = 0; i < ResilientBackgroundCheckService.MIN_SAMPLES_FOR_HEDGING; i++) {
+            underTest.confirm(FIRST_NAME, LAST_NAME, TAX_ID, DOB);
+        }
+        slowCallMillis = 3_000;
+        slowCall = calls.get();
+
+        final long start = System.nanoTime();
+        final BackgroundCheckResults results = underTest.confirm(FIRST_NAME, LAST_NAME, TAX_ID, DOB);
+
+        assertSame(RESULTS, results);
+        assertTrue(System.nanoTime() - start < TimeUnit.SECONDS.toNanos(2));
+        assertEquals(1, registry.counter("backgroundCheck.hedges").getCount());
+        assertEquals(1, registry.counter("backgroundCheck.hedgeWins").getCount());
+    }
+
+    @Test
+    public void shouldFailWhenTheDeadlinePasses() {
+        underTest = create(Duration.ofMillis(100), new CircuitBreaker(5, Duration.ofSeconds(30), Clock.systemUTC()));
+        slowCallMillis = 5_000;
+        slowCall = Integer.MAX_VALUE;
+
+        assertThrows(IOException.class, () -> underTest.confirm(FIRST_NAME, LAST_NAME, TAX_ID, DOB));
+        assertEquals(1, registry.counter("backgroundCheck.deadlineExceeded").getCount());
+    }
+
+    @Test
+    public void shouldFailFastOnceTheBreakerOpens() {
+        underTest = create(Duration.ofSeconds(1), new CircuitBreaker(2, Duration.ofSeconds(30), Clock.systemUTC()));
+        failing = true;
+
+        assertThrows(IOException.class, () -> underTest.confirm(FIRST_NAME, LAST_NAME, TAX_ID, DOB));
+        assertThrows(IOException.class, () -> underTest.confirm(FIRST_NAME, LAST_NAME, TAX_ID, DOB));
+        assertThrows(IOException.class, () -> underTest.confirm(FIRST_NAME, LAST_NAME, TAX_ID, DOB));
+
+        assertEquals(2, calls.get());
+        assertEquals(1, registry.counter("backgroundCheck.rejected").getCount());
+        assertEquals((long) CircuitBreaker.State.OPEN.ordinal(),
+                registry.getGauges().get("backgroundCheck.breakerState").getAsLong());
+    }
+
+    @Test
+    public void shouldNotTripTheBreakerWhenItsOwnPoolIsFull() throws Exception {
+        final CircuitBreaker circuitBreaker = new CircuitBreaker(1, Duration.ofSeconds(30), Clock.systemUTC());
+        underTest = create(Duration.ofSeconds(5), circuitBreaker, 1);
+        slowCallMillis = 500;
+        slowCall = 0;
+        final CompletableFuture<BackgroundCheckResults> first = CompletableFuture.supplyAsync(() -> {
+            try {
+                return underTest.confirm(FIRST_NAME, LAST_NAME, TAX_ID, DOB);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        });
+        while (calls.get() == 0) {
+            Thread.sleep(1);
+        }
+
+        assertThrows(IOException.class, () -> underTest.confirm(FIRST_NAME, LAST_NAME, TAX_ID, DOB));
+
+        assertEquals(CircuitBreaker.State.CLOSED, circuitBreaker.getState());
+        assertSame(RESULTS, first.get(5, TimeUnit.SECONDS));
+    }
+
+    private ResilientBackgroundCheckService create(Duration deadline, CircuitBreaker circuitBreaker) {
+        return create(deadline, circuitBreaker, 8);
+    }
+
+    private ResilientBackgroundCheckService create(Duration deadline, CircuitBreaker circuitBreaker,
+                                                   int maxConcurrentCalls) {
+        return new ResilientBackgroundCheckService(delegate, deadline, 99.0, maxConcurrentCalls, circuitBreaker,
+                registry);
+    }
+}
@@ -1,6 +1,8 @@
 package com.pluralsight.pension.withdrawal;
 
 import com.pluralsight.pension.Account;
+import com.pluralsight.pension.VersionedAccount;
+import com.pluralsight.pension.setup.AsyncBackgroundCheckService;
 import com.pluralsight.pension.setup.BackgroundCheckResults;
 import com.pluralsight.pension.setup.BackgroundCheckService;
 import org.junit.jupiter.api.Test;
@@ -10,6 +12,8 @@ import org.mockito.junit.jupiter.MockitoExtension;
 
 import java.io.IOException;
 import java.time.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.mockito.BDDMockito.given;
@@ -64,4 +68,36 @@ class AccountClosingServiceTest {
 
     }
 
+    @Test
+    public void shouldCloseAccountFromASnapshot() throws IOException {
+        AccountClosingService underTest = new AccountClosingService(backgroundCheckService, clock);
+        Account account = new Account();
+        account.setFistName(FIRST_NAME);
+        account.setLastName(LAST_NAME);
+        account.setTaxId(TAX_ID);
+        final LocalDate dob = LocalDate.of(1954, 7, 4);
+        account.setDob(dob);
+        given(backgroundCheckService.confirm(FIRST_NAME, LAST_NAME, TAX_ID, dob))
+                .willReturn(new BackgroundCheckResults("OK", 1));
+
+        final AccountClosingResponse accountClosingResponse =
+                underTest.closeAccount(new VersionedAccount(account).get());
+        assertEquals(AccountClosingStatus.CLOSING_OK, accountClosingResponse.getStatus());
+    }
+
+    @Test
+    public void shouldCloseAccountAsynchronously() throws ExecutionException, InterruptedException {
+        Account account = new Account();
+        account.setFistName(FIRST_NAME);
+        account.setLastName(LAST_NAME);
+        account.setTaxId(TAX_ID);
+        final LocalDate dob = LocalDate.of(1954, 7, 4);
+        account.setDob(dob);
+        AsyncBackgroundCheckService pendingChecks =
+                (firstName, lastName, taxId, dateOfBirth) -> CompletableFuture.completedFuture(null);
+        AccountClosingService asyncService = new AccountClosingService(pendingChecks, clock);
+
+        final AccountClosingResponse accountClosingResponse = asyncService.closeAccountAsync(account).get();
+        assertEquals(AccountClosingStatus.CLOSING_PENDING, accountClosingResponse.getStatus());
+    }
 }
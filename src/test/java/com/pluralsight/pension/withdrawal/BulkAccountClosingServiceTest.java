@@ -0,0 +1,77 @@
+package com.pluralsight.pension.withdrawal;
+
+import com.pluralsight.pension.Account;
+import com.pluralsight.pension.setup.BackgroundCheckResults;
+import com.pluralsight.pension.setup.BackgroundCheckService;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.io.IOException;
+import java.time.Clock;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.BDDMockito.then;
+import static org.mockito.Mockito.never;
+
+@ExtendWith(MockitoExtension.class)
+class BulkAccountClosingServiceTest {
+
+    @Mock
+    private BackgroundCheckService backgroundCheckService;
+    private final Instant fixedTime = LocalDate.of(2020, 8, 26).atStartOfDay(ZoneId.systemDefault()).toInstant();
+    private final Clock clock = Clock.fixed(fixedTime, ZoneId.systemDefault());
+
+    @Test
+    public void shouldOnlyCloseAccountsOfHoldersAtRetirementAge() throws Exception {
+        final Account retiresToday = account("1", LocalDate.of(1955, 8, 26));
+        final Account retiresTomorrow = account("2", LocalDate.of(1955, 8, 27));
+        final Account pendingCheck = account("3", LocalDate.of(1950, 1, 1));
+        final Account checkFails = account("4", LocalDate.of(1940, 1, 1));
+        given(backgroundCheckService.confirm("John", "Smith", "1", retiresToday.getDob()))
+                .willReturn(new BackgroundCheckResults("OK", 1));
+        given(backgroundCheckService.confirm("John", "Smith", "3", pendingCheck.getDob()))
+                .willReturn(null);
+        given(backgroundCheckService.confirm("John", "Smith", "4", checkFails.getDob()))
+                .willThrow(new IOException());
+        BulkAccountClosingService underTest = new BulkAccountClosingService(backgroundCheckService, clock, 2);
+
+        final Map<Account, AccountClosingResponse> responses = new HashMap<>();
+        final BulkAccountClosingSummary summary = underTest.closeAccounts(
+                List.of(retiresToday, retiresTomorrow, pendingCheck, checkFails), responses::put);
+
+        final LocalDateTime processingDate = LocalDateTime.ofInstant(fixedTime, ZoneOffset.systemDefault());
+        assertEquals(3, responses.size());
+        assertEquals(AccountClosingStatus.CLOSING_OK, responses.get(retiresToday).getStatus());
+        assertEquals(AccountClosingStatus.CLOSING_PENDING, responses.get(pendingCheck).getStatus());
+        assertEquals(AccountClosingStatus.CLOSING_PENDING, responses.get(checkFails).getStatus());
+        responses.values().forEach(response -> assertEquals(processingDate, response.getProcessingDate()));
+        assertEquals(1, summary.getCount(AccountClosingStatus.CLOSING_OK));
+        assertEquals(2, summary.getCount(AccountClosingStatus.CLOSING_PENDING));
+        assertEquals(1, summary.getIneligibleCount());
+        assertEquals(1, summary.getFailedCount());
+        then(backgroundCheckService).should(never()).confirm(anyString(), anyString(), eq("2"), any(LocalDate.class));
+    }
+
+    private static Account account(String taxId, LocalDate dob) {
+        Account account = new Account();
+        account.setFistName("John");
+        account.setLastName("Smith");
+        account.setTaxId(taxId);
+        account.setDob(dob);
+        return account;
+    }
+}